@@ -1,23 +1,48 @@
 package com.itmo.java.basics;
 
+import com.itmo.java.basics.config.DatabaseQuota;
+import com.itmo.java.basics.config.ServerConfig;
 import com.itmo.java.basics.console.*;
 import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.execution.DatabaseStatistics;
+import com.itmo.java.basics.execution.ExecutionLanes;
+import com.itmo.java.basics.execution.TokenBucket;
 import com.itmo.java.basics.initialization.impl.DatabaseServerInitializer;
 import com.itmo.java.basics.initialization.impl.InitializationContextImpl;
+import com.itmo.java.basics.logic.Database;
 import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespFileRegion;
+import com.itmo.java.protocol.model.RespObject;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class DatabaseServer {
 
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final ExecutionLanes executionLanes;
 
     private final ExecutionEnvironment env;
 
-    private DatabaseServer(ExecutionEnvironment env) {
+    private final long requestTimeoutNanos;
+
+    private final ServerConfig serverConfig;
+
+    private final ConcurrentMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    private DatabaseServer(ExecutionEnvironment env, ServerConfig serverConfig) {
         this.env = env;
+        this.serverConfig = serverConfig;
+        this.executionLanes = new ExecutionLanes(serverConfig.getExecutionLanes(), serverConfig.getLaneQueueCapacity(),
+                tenant -> serverConfig.getDatabaseQuota(tenant).getWeight());
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(serverConfig.getRequestTimeoutMillis());
     }
 
     /**
@@ -28,7 +53,33 @@ public class DatabaseServer {
      * @throws DatabaseException если произошла ошибка инициализации
      */
     public static DatabaseServer initialize(ExecutionEnvironment env, DatabaseServerInitializer initializer) throws DatabaseException {
-        DatabaseServer dbServer = new DatabaseServer(env);
+        return initialize(env, initializer, ServerConfig.DEFAULT_EXECUTION_LANES);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param env            env для инициализации. Далее работа происходит с заполненным объектом
+     * @param initializer    готовый чейн инициализации
+     * @param executionLanes количество линий исполнения команд
+     * @throws DatabaseException если произошла ошибка инициализации
+     */
+    public static DatabaseServer initialize(ExecutionEnvironment env, DatabaseServerInitializer initializer,
+                                            int executionLanes) throws DatabaseException {
+        return initialize(env, initializer, new ServerConfig(ServerConfig.DEFAULT_HOST, ServerConfig.DEFAULT_PORT, executionLanes));
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param env          env для инициализации. Далее работа происходит с заполненным объектом
+     * @param initializer  готовый чейн инициализации
+     * @param serverConfig количество линий, размер их очередей, срок ожидания команды в очереди и квоты баз данных
+     * @throws DatabaseException если произошла ошибка инициализации
+     */
+    public static DatabaseServer initialize(ExecutionEnvironment env, DatabaseServerInitializer initializer,
+                                            ServerConfig serverConfig) throws DatabaseException {
+        DatabaseServer dbServer = new DatabaseServer(env, serverConfig);
         InitializationContextImpl context = InitializationContextImpl.builder()
                 .executionEnvironment(env)
                 .build();
@@ -37,17 +88,158 @@ public class DatabaseServer {
     }
 
     public CompletableFuture<DatabaseCommandResult> executeNextCommand(RespArray message) {
-        String commandName = message.getObjects().get(
-                DatabaseCommandArgPositions.COMMAND_NAME.getPositionIndex()
-        ).asString();
-        return executeNextCommand(DatabaseCommands.valueOf(commandName).getCommand(env, message.getObjects()));
+        List<RespObject> commandArgs = message.getObjects();
+        byte[] commandName = commandArgs.get(DatabaseCommandArgPositions.COMMAND_NAME.getPositionIndex()).asBytes();
+        return executeNextCommand(DatabaseCommands.fromName(commandName).getCommand(env, commandArgs));
     }
 
+    /**
+     * Исполняет команду на линии, выбранной по {@link DatabaseCommand#getRoutingHash()}.
+     * Команды одного класса приоритета ({@link DatabaseCommand#getPriority()}) над одним и тем же ключом
+     * начинают исполняться последовательно в порядке поступления.
+     * Команда может освободить линию, не дождавшись чтения с диска ({@link DatabaseCommand#executeAsync()}),
+     * тогда результат завершается в потоке чтения.
+     * <p>
+     * Если очередь линии заполнена или команда прождала в ней дольше срока, команда не исполняется,
+     * а результат сразу становится ошибкой. Пока команда ждет в очереди, ее можно отменить через
+     * {@link CompletableFuture#cancel(boolean)}: отмена исполняющейся команды не удается.
+     * <p>
+     * Команды существующей базы ждут в ее собственной очереди и исполняются пропорционально ее весу
+     * ({@link DatabaseQuota#getWeight()}). Если база превысила квоту команд или байт в секунду,
+     * команда отклоняется сразу, не попадая в очередь. Отклонения учитываются в {@link #getDatabaseStatistics()}.
+     */
     public CompletableFuture<DatabaseCommandResult> executeNextCommand(DatabaseCommand command) {
-        return CompletableFuture.supplyAsync(command::execute, executorService);
+        Tenant tenant = tenantOf(command.getArguments());
+        if (tenant != null && !tenant.tryAdmit(requestSize(command.getArguments()))) {
+            tenant.statistics.onThrottled();
+            return CompletableFuture.completedFuture(DatabaseCommandResult.error(
+                    String.format("Database %s exceeded its quota, retry later", tenant.name)));
+        }
+
+        long deadline = requestTimeoutNanos == ServerConfig.NO_REQUEST_TIMEOUT
+                ? ExecutionLanes.NO_DEADLINE
+                : System.nanoTime() + requestTimeoutNanos;
+        if (tenant == null) {
+            return executionLanes.submitAsync(command.getRoutingHash(), command.getPriority(), ExecutionLanes.SHARED_TENANT,
+                    deadline, command::executeAsync, DatabaseCommandResult::error);
+        }
+        tenant.statistics.onAccepted();
+        return executionLanes.submitAsync(command.getRoutingHash(), command.getPriority(), tenant.name, deadline,
+                command::executeAsync, tenant::onRejected);
+    }
+
+    /**
+     * Возвращает арендатора - базу, к которой обращается команда. Команды несуществующих баз
+     * (например, создание базы) относятся к общему арендатору, чтобы не копить состояние для произвольных имен
+     *
+     * @return арендатора или {@code null}, если команда не относится ни к одной существующей базе
+     */
+    private Tenant tenantOf(List<RespObject> commandArgs) {
+        int position = DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex();
+        if (commandArgs.size() <= position) {
+            return null;
+        }
+        byte[] databaseName = commandArgs.get(position).asBytes();
+        if (databaseName == null || env.getDatabase(databaseName).isEmpty()) {
+            return null;
+        }
+        return tenants.computeIfAbsent(new String(databaseName, StandardCharsets.UTF_8),
+                name -> new Tenant(name, serverConfig.getDatabaseQuota(name)));
+    }
+
+    /**
+     * Размер запроса для квоты байт - суммарный размер аргументов. Значения из файла не читаются, берется их длина
+     */
+    private static long requestSize(List<RespObject> commandArgs) {
+        long size = 0;
+        for (RespObject arg : commandArgs) {
+            if (arg instanceof RespFileRegion) {
+                size += ((RespFileRegion) arg).getLength();
+            } else {
+                byte[] bytes = arg.asBytes();
+                size += bytes == null ? 0 : bytes.length;
+            }
+        }
+        return size;
     }
 
     public ExecutionEnvironment getEnv() {
         return env;
     }
+
+    /**
+     * Возвращает занятость линий исполнения: количество команд в очереди или в работе на каждой линии.
+     */
+    public int[] getLaneOccupancy() {
+        return executionLanes.getOccupancy();
+    }
+
+    /**
+     * Возвращает счетчики принятых и отклоненных команд по базам данных, к которым уже обращались.
+     */
+    public Map<String, DatabaseStatistics> getDatabaseStatistics() {
+        Map<String, DatabaseStatistics> result = new HashMap<>();
+        tenants.forEach((name, tenant) -> result.put(name, tenant.statistics));
+        return result;
+    }
+
+    /**
+     * Останавливает линии исполнения и закрывает все базы данных: таблицы сохраняют снимки индексов,
+     * и следующий запуск не перечитывает сегменты. Команды, ожидающие в очередях, не исполняются
+     * и завершаются отказом. Базы закрываются после того, как потоки линий доисполнили начатые команды
+     * и остановились, а начатые асинхронные чтения завершились. Если какую-то базу закрыть не удалось,
+     * остальные все равно закрываются
+     *
+     * @throws DatabaseException если не удалось закрыть базу данных
+     */
+    public void close() throws DatabaseException {
+        executionLanes.close();
+
+        DatabaseException failure = null;
+        for (Database database : env.getDatabases()) {
+            try {
+                database.close();
+            } catch (DatabaseException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * База данных как арендатор сервера: ее квоты и счетчики
+     */
+    private static final class Tenant {
+
+        private final String name;
+        private final TokenBucket operations;
+        private final TokenBucket bytes;
+        private final DatabaseStatistics statistics = new DatabaseStatistics();
+
+        private Tenant(String name, DatabaseQuota quota) {
+            this.name = name;
+            operations = quota.getOpsPerSecond() == DatabaseQuota.UNLIMITED ? null : new TokenBucket(quota.getOpsPerSecond());
+            bytes = quota.getBytesPerSecond() == DatabaseQuota.UNLIMITED ? null : new TokenBucket(quota.getBytesPerSecond());
+        }
+
+        private boolean tryAdmit(long requestSize) {
+            return (operations == null || operations.tryAcquire(1))
+                    && (bytes == null || bytes.tryAcquire(requestSize));
+        }
+
+        private DatabaseCommandResult onRejected(Exception reason) {
+            if (reason instanceof RejectedExecutionException) {
+                statistics.onShed();
+            } else if (reason instanceof TimeoutException) {
+                statistics.onExpired();
+            }
+            return DatabaseCommandResult.error(reason);
+        }
+    }
 }
\ No newline at end of file
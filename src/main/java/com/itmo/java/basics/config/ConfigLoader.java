@@ -1,7 +1,11 @@
 package com.itmo.java.basics.config;
 
 import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Класс, отвечающий за подгрузку данных из конфигурационного файла формата .properties
@@ -10,6 +14,8 @@ public class ConfigLoader {
 
     public static final String DEFAULT_FILENAME = "server.properties";
 
+    private static final String DATABASE_PREFIX = "kvs.database.";
+
     private final String filename;
 
     /**
@@ -31,7 +37,12 @@ public class ConfigLoader {
      * Если не удалось считать из заданного файла, или какого-то конкретно значения не оказалось,
      * то используют дефолтные значения из {@link DatabaseConfig} и {@link ServerConfig}
      * <br/>
-     * Читаются: "kvs.workingPath", "kvs.host", "kvs.port" (но в конфигурационном файле допустимы и другие проперти)
+     * Читаются: "kvs.workingPath", "kvs.lazyTables", "kvs.host", "kvs.port", "kvs.executionLanes", "kvs.laneQueueCapacity",
+     * "kvs.requestTimeoutMillis" (но в конфигурационном файле допустимы и другие проперти).
+     * Доли и квоты баз данных задаются как "kvs.database.&lt;имя&gt;.weight", "kvs.database.&lt;имя&gt;.opsPerSecond"
+     * и "kvs.database.&lt;имя&gt;.bytesPerSecond"
+     *
+     * @throws IllegalArgumentException если квота команд или байт базы отрицательна
      */
     public DatabaseServerConfig readConfig() {
         Properties properties = new Properties();
@@ -49,12 +60,44 @@ public class ConfigLoader {
         }
 
         String workingPath = properties.getProperty("kvs.workingPath", DatabaseConfig.DEFAULT_WORKING_PATH);
+        boolean lazyTables = Boolean.parseBoolean(properties.getProperty("kvs.lazyTables",
+                String.valueOf(DatabaseConfig.DEFAULT_LAZY_TABLES)));
         String host = properties.getProperty("kvs.host", ServerConfig.DEFAULT_HOST);
         int port = Integer.parseInt(properties.getProperty("kvs.port", String.valueOf(ServerConfig.DEFAULT_PORT)));
+        int executionLanes = Integer.parseInt(properties.getProperty("kvs.executionLanes",
+                String.valueOf(ServerConfig.DEFAULT_EXECUTION_LANES)));
+        int laneQueueCapacity = Integer.parseInt(properties.getProperty("kvs.laneQueueCapacity",
+                String.valueOf(ServerConfig.DEFAULT_LANE_QUEUE_CAPACITY)));
+        long requestTimeoutMillis = Long.parseLong(properties.getProperty("kvs.requestTimeoutMillis",
+                String.valueOf(ServerConfig.DEFAULT_REQUEST_TIMEOUT_MILLIS)));
 
         return new DatabaseServerConfig(
-                new ServerConfig(host, port),
-                new DatabaseConfig(workingPath)
+                new ServerConfig(host, port, executionLanes, laneQueueCapacity, requestTimeoutMillis,
+                        readDatabaseQuotas(properties)),
+                new DatabaseConfig(workingPath, lazyTables)
         );
     }
+
+    private static Map<String, DatabaseQuota> readDatabaseQuotas(Properties properties) {
+        Set<String> databaseNames = new TreeSet<>();
+        for (String property : properties.stringPropertyNames()) {
+            if (property.startsWith(DATABASE_PREFIX) && property.lastIndexOf('.') > DATABASE_PREFIX.length()) {
+                databaseNames.add(property.substring(DATABASE_PREFIX.length(), property.lastIndexOf('.')));
+            }
+        }
+
+        Map<String, DatabaseQuota> quotas = new HashMap<>();
+        for (String databaseName : databaseNames) {
+            String prefix = DATABASE_PREFIX + databaseName + ".";
+            quotas.put(databaseName, new DatabaseQuota(
+                    Integer.parseInt(properties.getProperty(prefix + "weight",
+                            String.valueOf(DatabaseQuota.DEFAULT.getWeight()))),
+                    Long.parseLong(properties.getProperty(prefix + "opsPerSecond",
+                            String.valueOf(DatabaseQuota.UNLIMITED))),
+                    Long.parseLong(properties.getProperty(prefix + "bytesPerSecond",
+                            String.valueOf(DatabaseQuota.UNLIMITED)))
+            ));
+        }
+        return quotas;
+    }
 }
@@ -4,17 +4,33 @@ public class DatabaseConfig {
 
     public static final String DEFAULT_WORKING_PATH = "db_files";
 
+    public static final boolean DEFAULT_LAZY_TABLES = false;
+
     private final String workingPath;
 
+    /**
+     * Открывать ли таблицы при первом обращении и фоновом прогреве, а не при старте сервера
+     */
+    private final boolean lazyTables;
+
     public DatabaseConfig(String workingPath) {
+        this(workingPath, DEFAULT_LAZY_TABLES);
+    }
+
+    public DatabaseConfig(String workingPath, boolean lazyTables) {
         this.workingPath = workingPath;
+        this.lazyTables = lazyTables;
     }
 
     public DatabaseConfig() {
-        workingPath = DEFAULT_WORKING_PATH;
+        this(DEFAULT_WORKING_PATH);
     }
 
     public String getWorkingPath() {
         return workingPath;
     }
+
+    public boolean isLazyTables() {
+        return lazyTables;
+    }
 }
@@ -0,0 +1,54 @@
+package com.itmo.java.basics.config;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Доля и ограничения одной базы данных на сервере, где базы - разные клиенты
+ */
+@Getter
+@ToString
+public class DatabaseQuota {
+
+    /**
+     * Ограничение не задано
+     */
+    public static final long UNLIMITED = 0;
+
+    public static final DatabaseQuota DEFAULT = new DatabaseQuota(1, UNLIMITED, UNLIMITED);
+
+    /**
+     * Сколько команд базы линия исполняет подряд, пока ждут команды других баз того же класса приоритета
+     */
+    private final int weight;
+
+    /**
+     * Сколько команд в секунду принимается для базы. {@link #UNLIMITED} - без ограничения
+     */
+    private final long opsPerSecond;
+
+    /**
+     * Сколько байт аргументов команд в секунду принимается для базы. {@link #UNLIMITED} - без ограничения
+     */
+    private final long bytesPerSecond;
+
+    /**
+     * @param weight         сколько команд базы линия исполняет подряд. Значения меньше единицы считаются единицей
+     * @param opsPerSecond   сколько команд в секунду принимается для базы, {@link #UNLIMITED} - без ограничения
+     * @param bytesPerSecond сколько байт аргументов в секунду принимается для базы, {@link #UNLIMITED} - без ограничения
+     * @throws IllegalArgumentException если квота команд или байт отрицательна
+     */
+    public DatabaseQuota(int weight, long opsPerSecond, long bytesPerSecond) {
+        if (opsPerSecond < 0) {
+            throw new IllegalArgumentException("Database quota of operations per second must not be negative, got "
+                    + opsPerSecond);
+        }
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Database quota of bytes per second must not be negative, got "
+                    + bytesPerSecond);
+        }
+        this.weight = weight;
+        this.opsPerSecond = opsPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+}
@@ -3,6 +3,9 @@ package com.itmo.java.basics.config;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Какой хост и какой порт будет слушать наш сервер
  */
@@ -12,7 +15,55 @@ public class ServerConfig {
 
     public static final String DEFAULT_HOST = "localhost";
     public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_EXECUTION_LANES = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_LANE_QUEUE_CAPACITY = 1024;
+    public static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Срок ожидания в очереди не ограничен
+     */
+    public static final long NO_REQUEST_TIMEOUT = 0;
 
     private final String host;
     private final int port;
+
+    /**
+     * Количество линий, на которых параллельно исполняются команды
+     */
+    private final int executionLanes;
+
+    /**
+     * Сколько команд может ждать в очереди одной линии. Команды сверх этого сразу получают ошибку
+     */
+    private final int laneQueueCapacity;
+
+    /**
+     * Сколько миллисекунд команда может ждать в очереди линии. Не начавшие исполняться к этому сроку команды
+     * не исполняются и получают ошибку. {@link #NO_REQUEST_TIMEOUT} - без срока
+     */
+    private final long requestTimeoutMillis;
+
+    /**
+     * Доли и квоты баз данных по именам. Базы, которых здесь нет, получают {@link DatabaseQuota#DEFAULT}
+     */
+    private final Map<String, DatabaseQuota> databaseQuotas;
+
+    public ServerConfig(String host, int port) {
+        this(host, port, DEFAULT_EXECUTION_LANES);
+    }
+
+    public ServerConfig(String host, int port, int executionLanes) {
+        this(host, port, executionLanes, DEFAULT_LANE_QUEUE_CAPACITY, DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    public ServerConfig(String host, int port, int executionLanes, int laneQueueCapacity, long requestTimeoutMillis) {
+        this(host, port, executionLanes, laneQueueCapacity, requestTimeoutMillis, Collections.emptyMap());
+    }
+
+    /**
+     * Возвращает долю и квоты базы данных
+     */
+    public DatabaseQuota getDatabaseQuota(String databaseName) {
+        return databaseQuotas.getOrDefault(databaseName, DatabaseQuota.DEFAULT);
+    }
 }
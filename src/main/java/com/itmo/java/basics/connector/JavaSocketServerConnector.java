@@ -8,6 +8,7 @@ import com.itmo.java.basics.config.ServerConfig;
 import com.itmo.java.basics.console.DatabaseCommand;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.impl.ExecutionEnvironmentImpl;
+import com.itmo.java.basics.exceptions.DatabaseException;
 import com.itmo.java.basics.initialization.impl.DatabaseInitializer;
 import com.itmo.java.basics.initialization.impl.DatabaseServerInitializer;
 import com.itmo.java.basics.initialization.impl.SegmentInitializer;
@@ -17,12 +18,17 @@ import com.itmo.java.protocol.RespReader;
 import com.itmo.java.protocol.RespWriter;
 
 import java.io.*;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Класс, который предоставляет доступ к серверу через сокеты
@@ -30,11 +36,12 @@ import java.util.concurrent.Executors;
 public class JavaSocketServerConnector implements Closeable {
 
     /**
-     * Экзекьютор для выполнения ClientTask
+     * Экзекьютор для выполнения ClientTask. Каждый клиент обслуживается своим потоком,
+     * команды исполняются на линиях {@link DatabaseServer}
      */
-    private final ExecutorService clientIOWorkers = Executors.newSingleThreadExecutor();
+    private final ExecutorService clientIOWorkers = Executors.newCachedThreadPool();
 
-    private final ServerSocket serverSocket;
+    private final ServerSocketChannel serverSocket;
     private final ExecutorService connectionAcceptorExecutor = Executors.newSingleThreadExecutor();
 
     private final DatabaseServer databaseServer;
@@ -43,7 +50,8 @@ public class JavaSocketServerConnector implements Closeable {
      * Стартует сервер. По аналогии с сокетом открывает коннекшн в конструкторе.
      */
     public JavaSocketServerConnector(DatabaseServer databaseServer, ServerConfig config) throws IOException {
-        serverSocket = new ServerSocket(config.getPort());
+        serverSocket = ServerSocketChannel.open();
+        serverSocket.bind(new InetSocketAddress(config.getPort()));
         this.databaseServer = databaseServer;
     }
 
@@ -53,9 +61,11 @@ public class JavaSocketServerConnector implements Closeable {
     public void start() {
         connectionAcceptorExecutor.submit(() -> {
             try {
-                while (!serverSocket.isClosed()) {
-                    Socket clientSocket = serverSocket.accept();
-                    clientIOWorkers.submit(new ClientTask(clientSocket, databaseServer));
+                while (serverSocket.isOpen()) {
+                    SocketChannel clientChannel = serverSocket.accept();
+                    // ответ из файла уходит несколькими записями, последняя не должна ждать ACK предыдущих
+                    clientChannel.socket().setTcpNoDelay(true);
+                    clientIOWorkers.submit(new ClientTask(clientChannel.socket(), databaseServer));
                 }
             } catch (IOException e) {
                 e.printStackTrace();
@@ -86,10 +96,20 @@ public class JavaSocketServerConnector implements Closeable {
                 new DatabaseServerInitializer(
                         new DatabaseInitializer(
                                 new TableInitializer(
-                                        new SegmentInitializer())))
+                                        new SegmentInitializer()),
+                                config.getDbConfig().isLazyTables())),
+                config.getServerConfig()
         );
         JavaSocketServerConnector connector = new JavaSocketServerConnector(server, config.getServerConfig());
         connector.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            connector.close();
+            try {
+                server.close();
+            } catch (DatabaseException e) {
+                e.printStackTrace();
+            }
+        }, "kvs-shutdown"));
     }
 
     /**
@@ -97,11 +117,30 @@ public class JavaSocketServerConnector implements Closeable {
      */
     static class ClientTask implements Runnable, Closeable {
 
+        /**
+         * Значения в командах от этого размера принимаются во временный файл, а не в память
+         */
+        static final int VALUE_SPOOL_THRESHOLD = 1024 * 1024;
+
+        /**
+         * Как часто задача, ждущая результата команды, проверяет, не отсоединился ли клиент
+         */
+        static final long DISCONNECT_CHECK_MILLIS = 100;
+
         Socket socket;
         DatabaseServer server;
+        /**
+         * Поток сокета, в который возвращается байт, прочитанный при проверке отсоединения
+         */
+        PushbackInputStream input;
         CommandReader reader;
         RespWriter writer;
 
+        /**
+         * Команда, результат которой ждет задача. Отменяется при закрытии, если еще не начала исполняться
+         */
+        volatile CompletableFuture<DatabaseCommandResult> pending;
+
         /**
          * @param client клиентский сокет
          * @param server сервер, на котором исполняется задача
@@ -110,11 +149,14 @@ public class JavaSocketServerConnector implements Closeable {
             socket = client;
             this.server = server;
             try {
+                input = new PushbackInputStream(socket.getInputStream(), 1);
                 reader = new CommandReader(
-                        new RespReader(new BufferedInputStream(socket.getInputStream())),
+                        new RespReader(new BufferedInputStream(input), VALUE_SPOOL_THRESHOLD),
                         server.getEnv()
                 );
-                writer = new RespWriter(new BufferedOutputStream(socket.getOutputStream()));
+                writer = socket.getChannel() != null
+                        ? new RespWriter(socket.getChannel())
+                        : new RespWriter(new BufferedOutputStream(socket.getOutputStream()));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -126,6 +168,10 @@ public class JavaSocketServerConnector implements Closeable {
          * 1. Читает из сокета команду с помощью {@link CommandReader}
          * 2. Исполняет ее на сервере
          * 3. Записывает результат в сокет с помощью {@link RespWriter}
+         * <p>
+         * Пока команда ждет исполнения, задача раз в {@link #DISCONNECT_CHECK_MILLIS} проверяет, не закрыл ли клиент
+         * соединение, и если закрыл - закрывается сама, отменяя команду. Клиент, закрывший соединение только на запись,
+         * тоже считается отсоединившимся
          */
         @Override
         public void run() {
@@ -133,8 +179,10 @@ public class JavaSocketServerConnector implements Closeable {
                 try {
                     DatabaseCommand command = reader.readCommand();
                     CompletableFuture<DatabaseCommandResult> result = server.executeNextCommand(command);
+                    pending = result;
 
-                    writer.write(result.get().serialize());
+                    writer.write(await(result).serialize());
+                    pending = null;
                 } catch (Exception ignored) {
                     close();
                     return;
@@ -142,11 +190,59 @@ public class JavaSocketServerConnector implements Closeable {
             }
         }
 
+        private DatabaseCommandResult await(CompletableFuture<DatabaseCommandResult> result) throws Exception {
+            while (true) {
+                try {
+                    return result.get(DISCONNECT_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (isDisconnected()) {
+                        throw new EOFException("Client disconnected while its command was waiting");
+                    }
+                }
+            }
+        }
+
         /**
-         * Закрывает клиентский сокет
+         * Проверяет конец потока, не блокируясь: канал на время проверки переводится в неблокирующий режим.
+         * Прочитанный байт следующей команды возвращается в поток. Если следующая команда уже пришла,
+         * клиент был на связи, и поток не читается. Сокет без канала не проверяется
+         */
+        private boolean isDisconnected() throws IOException {
+            SocketChannel channel = socket.getChannel();
+            if (channel == null || input.available() > 0) {
+                return false;
+            }
+            ByteBuffer probe = ByteBuffer.allocate(1);
+            int read;
+            synchronized (channel.blockingLock()) {
+                channel.configureBlocking(false);
+                try {
+                    read = channel.read(probe);
+                } finally {
+                    channel.configureBlocking(true);
+                }
+            }
+            if (read > 0) {
+                input.unread(probe.get(0));
+            }
+            return read < 0;
+        }
+
+        /**
+         * Закрывает клиентский сокет. Команда, ждущая в очереди, отменяется. Если команда уже исполняется,
+         * сначала дожидается ее: аргументы команды могут лежать во временных файлах ридера,
+         * которые удаляются при его закрытии
          */
         @Override
         public void close() {
+            CompletableFuture<DatabaseCommandResult> command = pending;
+            if (command != null && !command.cancel(false)) {
+                try {
+                    command.join();
+                } catch (RuntimeException ignored) {
+                    // результат уже некому отправить
+                }
+            }
             try {
                 reader.close();
                 writer.close();
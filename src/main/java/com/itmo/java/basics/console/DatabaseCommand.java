@@ -1,5 +1,12 @@
 package com.itmo.java.basics.console;
 
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface DatabaseCommand {
     /**
      * Запускает команду.
@@ -7,4 +14,48 @@ public interface DatabaseCommand {
      * @return Сообщение о выполнении результата команды.
      */
     DatabaseCommandResult execute();
+
+    /**
+     * Запускает команду, не дожидаясь чтений с диска. Вызывается в линии исполнения: все, что зависит
+     * от порядка команд (поиск по индексу, записи), команда делает сразу, а результат дособирается,
+     * когда чтение завершится, уже без линии.
+     * <br/>
+     * Реализация по умолчанию выполняет {@link #execute()} синхронно.
+     *
+     * @return будущее сообщение о выполнении результата команды. Ошибки передаются в самом результате
+     */
+    default CompletableFuture<DatabaseCommandResult> executeAsync() {
+        return CompletableFuture.completedFuture(execute());
+    }
+
+    /**
+     * Возвращает хэш маршрутизации команды, вычисленный по (база, таблица, ключ).
+     * Команды с одинаковым хэшем исполняются на одной линии в порядке поступления.
+     *
+     * @return хэш маршрутизации
+     */
+    default int getRoutingHash() {
+        return 0;
+    }
+
+    /**
+     * Возвращает класс приоритета, в очереди которого команда ждет на линии.
+     * Порядок поступления соблюдается только между командами одного класса: чтение может обогнать
+     * ждущую запись того же ключа, но записи одного ключа друг друга не обгоняют.
+     *
+     * @return класс приоритета, по умолчанию - запись
+     */
+    default Priority getPriority() {
+        return Priority.WRITE;
+    }
+
+    /**
+     * Возвращает аргументы, из которых создана команда (порядок - {@link DatabaseCommandArgPositions}).
+     * По ним сервер определяет базу команды и размер запроса для квот.
+     *
+     * @return аргументы команды, по умолчанию - пустой список
+     */
+    default List<RespObject> getArguments() {
+        return Collections.emptyList();
+    }
 }
@@ -10,7 +10,35 @@ public enum DatabaseCommandArgPositions {
     DATABASE_NAME(2),
     TABLE_NAME(3),
     KEY(4),
-    VALUE(5);
+    VALUE(5),
+    /**
+     * Первая необязательная опция команды записи. Опции идут до конца команды
+     */
+    SET_OPTIONS(6),
+    /**
+     * Новое значение в команде compare-and-set. Ожидаемое значение стоит на месте {@link #VALUE}
+     */
+    NEW_VALUE(6),
+    /**
+     * Имя поля в командах над значением-хэшем
+     */
+    FIELD(5),
+    /**
+     * Значение поля в команде записи поля хэша
+     */
+    FIELD_VALUE(6),
+    /**
+     * Необязательное количество партиций в команде создания таблицы
+     */
+    TABLE_PARTITIONS(4),
+    /**
+     * Необязательный размер сегмента в команде создания таблицы. Идет после количества партиций
+     */
+    TABLE_SEGMENT_SIZE(5),
+    /**
+     * Необязательный максимальный возраст сегмента в миллисекундах в команде создания таблицы
+     */
+    TABLE_SEGMENT_MAX_AGE(6);
 
     private final int positionIndex;
 
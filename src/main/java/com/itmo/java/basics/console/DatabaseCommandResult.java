@@ -1,10 +1,14 @@
 package com.itmo.java.basics.console;
 
+import com.itmo.java.basics.console.impl.ArrayDatabaseCommandResult;
 import com.itmo.java.basics.console.impl.FailedDatabaseCommandResult;
+import com.itmo.java.basics.console.impl.FileRegionDatabaseCommandResult;
 import com.itmo.java.basics.console.impl.SuccessDatabaseCommandResult;
+import com.itmo.java.basics.logic.FileRegion;
 import com.itmo.java.protocol.model.RespObject;
 
 import java.util.Arrays;
+import java.util.List;
 
 public interface DatabaseCommandResult extends DatabaseApiSerializable {
 
@@ -18,6 +22,27 @@ public interface DatabaseCommandResult extends DatabaseApiSerializable {
         return new SuccessDatabaseCommandResult(result);
     }
 
+    /**
+     * Формирует успешный результат, значение которого лежит в участке файла сегмента.
+     * При отправке по сети значение передается из файла в сокет, не читаясь в память
+     *
+     * @param region участок файла со значением
+     * @return успешный результат выполнения команды
+     */
+    static DatabaseCommandResult successFromRegion(FileRegion region) {
+        return new FileRegionDatabaseCommandResult(region);
+    }
+
+    /**
+     * Формирует успешный результат из нескольких значений
+     *
+     * @param values значения результата, null для отсутствующих
+     * @return успешный результат выполнения команды
+     */
+    static DatabaseCommandResult successArray(List<byte[]> values) {
+        return new ArrayDatabaseCommandResult(values);
+    }
+
     /**
      * Формирует зафейленный результат команды, при выполнении которой произошла ошибка.
      *
@@ -4,6 +4,8 @@ import com.itmo.java.basics.console.impl.*;
 import com.itmo.java.basics.logic.impl.DatabaseImpl;
 import com.itmo.java.protocol.model.RespObject;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -41,10 +43,109 @@ public enum DatabaseCommands {
         public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
             return new DeleteKeyCommand(env, commandArgs);
         }
+    },
+    MGET_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new MultiGetKeyCommand(env, commandArgs);
+        }
+    },
+    MSET_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new MultiSetKeyCommand(env, commandArgs);
+        }
+    },
+    MDELETE_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new MultiDeleteKeyCommand(env, commandArgs);
+        }
+    },
+    INCR_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new IncrementKeyCommand(env, commandArgs, false);
+        }
+    },
+    DECR_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new IncrementKeyCommand(env, commandArgs, true);
+        }
+    },
+    CAS_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new CompareAndSetKeyCommand(env, commandArgs);
+        }
+    },
+    APPEND_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new AppendKeyCommand(env, commandArgs);
+        }
+    },
+    HGET_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new HashGetKeyCommand(env, commandArgs);
+        }
+    },
+    HSET_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new HashSetKeyCommand(env, commandArgs);
+        }
+    },
+    HDELETE_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new HashDeleteKeyCommand(env, commandArgs);
+        }
+    },
+    HGETALL_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new HashGetAllKeyCommand(env, commandArgs);
+        }
+    },
+    BATCH_KEY {
+        @Override
+        public DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+            return new BatchKeyCommand(env, commandArgs);
+        }
     };
 
+    private static final DatabaseCommands[] COMMANDS = values();
+    private static final byte[][] COMMAND_NAMES = new byte[COMMANDS.length][];
+
+    static {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            COMMAND_NAMES[i] = COMMANDS[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
     /**
      * Возвращает созданную команду. Каждый элемент перечисления создается со своей реализацией этого метода
      */
     public abstract DatabaseCommand getCommand(ExecutionEnvironment env, List<RespObject> commandArgs);
+
+    /**
+     * Находит команду по байтам ее имени, не декодируя их в строку. Аналог {@link #valueOf(String)}
+     *
+     * @param name байты имени команды
+     * @throws IllegalArgumentException если команды с таким именем нет
+     */
+    public static DatabaseCommands fromName(byte[] name) {
+        if (name != null) {
+            for (int i = 0; i < COMMANDS.length; i++) {
+                if (COMMAND_NAMES[i].length == name.length && Arrays.equals(COMMAND_NAMES[i], name)) {
+                    return COMMANDS[i];
+                }
+            }
+        }
+        throw new IllegalArgumentException("No such command: "
+                + (name == null ? null : new String(name, StandardCharsets.UTF_8)));
+    }
 }
@@ -2,7 +2,9 @@ package com.itmo.java.basics.console;
 
 import com.itmo.java.basics.logic.Database;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Optional;
 
 public interface ExecutionEnvironment {
@@ -19,10 +21,27 @@ public interface ExecutionEnvironment {
      */
     Optional<Database> getDatabase(String name);
 
+    /**
+     * Возвращает {@code Optional<Database>} или {@code Optional#EMPTY} по байтам имени, как они пришли в команде.
+     *
+     * @param name имя базы данных в UTF-8
+     * @return {@code Optional<Database>}
+     */
+    default Optional<Database> getDatabase(byte[] name) {
+        return getDatabase(new String(name, StandardCharsets.UTF_8));
+    }
+
     /**
      * Добавляет базу данных в текущее окружение.
      *
      * @param db база данных, которую нужно добавить
      */
     void addDatabase(Database db);
+
+    /**
+     * Возвращает все базы данных текущего окружения.
+     *
+     * @return базы данных
+     */
+    Collection<Database> getDatabases();
 }
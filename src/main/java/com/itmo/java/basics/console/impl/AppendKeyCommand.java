@@ -0,0 +1,79 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Команда атомарного дописывания байтов в конец значения. Отсутствующее значение считается пустым
+ */
+public class AppendKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 6;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, дописываемое значение
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public AppendKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Дописывает значение
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с длиной нового значения в байтах. Например, "11"
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            byte[] suffix = CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.VALUE);
+            if (suffix == null) {
+                throw new DatabaseException("Value is null");
+            }
+            byte[] result = table.compute(CommandArgs.key(commandArgs), currentValue -> {
+                if (currentValue == null) {
+                    return suffix;
+                }
+                byte[] appended = Arrays.copyOf(currentValue, currentValue.length + suffix.length);
+                System.arraycopy(suffix, 0, appended, currentValue.length, suffix.length);
+                return appended;
+            }).orElseThrow();
+            return DatabaseCommandResult.success(String.valueOf(result.length).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+}
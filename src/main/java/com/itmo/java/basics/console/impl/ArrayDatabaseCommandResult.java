@@ -0,0 +1,46 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+
+/**
+ * Результат успешной команды с несколькими значениями, например значениями нескольких ключей
+ */
+public class ArrayDatabaseCommandResult implements DatabaseCommandResult {
+
+    private final List<byte[]> values;
+
+    public ArrayDatabaseCommandResult(List<byte[]> values) {
+        this.values = values;
+    }
+
+    /**
+     * Значения через пробел, см. {@link RespArray#asString()}
+     */
+    @Override
+    public String getPayLoad() {
+        return serialize().asString();
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return true;
+    }
+
+    /**
+     * Сериализуется в {@link RespArray} из {@link RespBulkString}, null значения - в null строки
+     */
+    @Override
+    public RespObject serialize() {
+        RespObject[] objects = new RespObject[values.size()];
+        for (int i = 0; i < objects.length; i++) {
+            byte[] value = values.get(i);
+            objects[i] = value == null ? RespBulkString.NULL_STRING : new RespBulkString(value);
+        }
+        return new RespArray(objects);
+    }
+}
@@ -0,0 +1,128 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Команда для атомарной записи и удаления нескольких ключей одной таблицы.
+ * <p>
+ * После имени таблицы идут операции {@code SET ключ значение} и {@code DELETE ключ} (см. {@link Operation}).
+ * Все операции записываются одной группой: после перезапуска видны либо все, либо ни одна.
+ * Таблица из нескольких партиций не может записать их атомарно, и команда для нее завершается ошибкой
+ */
+public class BatchKeyCommand implements DatabaseCommand {
+
+    private static final int MIN_ARGUMENTS_QUANTITY = 6;
+    private static final byte[] OK = "OK".getBytes(StandardCharsets.UTF_8);
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Операции пакета
+     */
+    public enum Operation {
+        /**
+         * Записать значение, за операцией идут ключ и значение
+         */
+        SET,
+        /**
+         * Удалить ключ, за операцией идет ключ
+         */
+        DELETE
+    }
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, одна или несколько операций
+     * @throws IllegalArgumentException если не передано ни одной операции, операция неизвестна или у нее не хватает аргументов
+     */
+    public BatchKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() < MIN_ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        for (int i = DatabaseCommandArgPositions.KEY.getPositionIndex(); i < commandArgs.size(); i += 2) {
+            Operation operation = operation(commandArgs.get(i));
+            if (operation == Operation.SET) {
+                i++;
+            }
+            if (i + 1 >= commandArgs.size()) {
+                throw new IllegalArgumentException("BATCH operation " + operation + " misses arguments");
+            }
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    private static Operation operation(RespObject argument) {
+        String operation = argument.asString();
+        try {
+            return Operation.valueOf(operation == null ? "" : operation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown BATCH operation " + operation);
+        }
+    }
+
+    /**
+     * Выполняет операции. Если ключ повторяется, применяется последняя операция с ним
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с "OK"
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            Map<ObjectKey, byte[]> values = new LinkedHashMap<>();
+            for (int i = DatabaseCommandArgPositions.KEY.getPositionIndex(); i < commandArgs.size(); i += 2) {
+                if (operation(commandArgs.get(i)) == Operation.SET) {
+                    values.put(CommandArgs.key(commandArgs, i + 1), commandArgs.get(i + 2).asBytes());
+                    i++;
+                } else {
+                    values.put(CommandArgs.key(commandArgs, i + 1), null);
+                }
+            }
+            table.writeBatch(values);
+            return DatabaseCommandResult.success(OK);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    /**
+     * Ключи пакета могут попасть в разные линии исполнения, поэтому команда маршрутизируется по таблице
+     * и выполняется параллельно с командами этих ключей. Команды, которые проверяют ключ перед записью
+     * (SET NX/XX, MDELETE, INCR), делают это в таблице под той же блокировкой, что и запись пакета,
+     * поэтому пакет не может вклиниться между проверкой и записью
+     */
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.TABLE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
+}
@@ -0,0 +1,106 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Общие операции над аргументами команд.
+ * Аргументы берутся как байты из RESP объектов и в строки не декодируются, кроме как для сообщений об ошибках
+ */
+final class CommandArgs {
+
+    private CommandArgs() {
+    }
+
+    /**
+     * Возвращает байты аргумента на заданной позиции без копирования
+     */
+    static byte[] bytes(List<RespObject> commandArgs, DatabaseCommandArgPositions position) {
+        return commandArgs.get(position.getPositionIndex()).asBytes();
+    }
+
+    /**
+     * Находит базу данных, имя которой передано в команде
+     *
+     * @throws DatabaseException если такой базы нет
+     */
+    static Database database(ExecutionEnvironment env, List<RespObject> commandArgs) throws DatabaseException {
+        byte[] databaseName = bytes(commandArgs, DatabaseCommandArgPositions.DATABASE_NAME);
+        var database = env.getDatabase(databaseName);
+        if (database.isEmpty()) {
+            throw new DatabaseException("No such database with name " + toString(databaseName));
+        }
+        return database.get();
+    }
+
+    /**
+     * Находит таблицу, имена базы и таблицы которой переданы в команде
+     *
+     * @throws DatabaseException если такой базы или таблицы нет
+     */
+    static Table table(ExecutionEnvironment env, List<RespObject> commandArgs) throws DatabaseException {
+        return database(env, commandArgs).getTable(bytes(commandArgs, DatabaseCommandArgPositions.TABLE_NAME));
+    }
+
+    /**
+     * Возвращает ключ записи из команды. Байты ключа не копируются и не декодируются
+     *
+     * @throws DatabaseException если ключ не передан
+     */
+    static ObjectKey key(List<RespObject> commandArgs) throws DatabaseException {
+        return key(commandArgs, DatabaseCommandArgPositions.KEY.getPositionIndex());
+    }
+
+    /**
+     * Возвращает ключ записи, стоящий в команде на позиции {@code position}. Используется командами над несколькими ключами
+     *
+     * @throws DatabaseException если ключ не передан
+     */
+    static ObjectKey key(List<RespObject> commandArgs, int position) throws DatabaseException {
+        byte[] key = commandArgs.get(position).asBytes();
+        if (key == null) {
+            throw new DatabaseException("Key is null");
+        }
+        return ObjectKey.wrap(key);
+    }
+
+    /**
+     * Возвращает имя поля хэша из команды
+     *
+     * @throws DatabaseException если поле не передано
+     */
+    static ObjectKey field(List<RespObject> commandArgs) throws DatabaseException {
+        byte[] field = commandArgs.get(DatabaseCommandArgPositions.FIELD.getPositionIndex()).asBytes();
+        if (field == null) {
+            throw new DatabaseException("Field is null");
+        }
+        return ObjectKey.wrap(field);
+    }
+
+    static String toString(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Считает хэш маршрутизации по аргументам команды с позиции имени бд до позиции {@code last} включительно.
+     *
+     * @param commandArgs аргументы команды (порядок - {@link DatabaseCommandArgPositions})
+     * @param last        последний аргумент, участвующий в маршрутизации
+     */
+    static int routingHash(List<RespObject> commandArgs, DatabaseCommandArgPositions last) {
+        int hash = 1;
+        for (int i = DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex(); i <= last.getPositionIndex(); i++) {
+            hash = 31 * hash + Arrays.hashCode(commandArgs.get(i).asBytes());
+        }
+        return hash;
+    }
+}
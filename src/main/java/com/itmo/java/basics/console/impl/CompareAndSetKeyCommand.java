@@ -0,0 +1,79 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Команда атомарной замены значения: значение записывается, только если текущее значение совпадает с ожидаемым.
+ * Ожидаемое значение null означает, что ключа быть не должно. Новое значение не может быть null:
+ * замена не удаляет ключ. Замененное значение сохраняет срок жизни прежнего
+ */
+public class CompareAndSetKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 7;
+    private static final byte[] OK = "OK".getBytes(StandardCharsets.UTF_8);
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, ожидаемое значение, новое значение
+     * @throws IllegalArgumentException если передано неправильное количество аргументов или новое значение null
+     */
+    public CompareAndSetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        if (CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.NEW_VALUE) == null) {
+            throw new IllegalArgumentException("CAS new value must not be null");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Заменяет значение, если текущее совпадает с ожидаемым
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с "OK", если значение заменено, или null, если текущее значение другое
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            byte[] expected = CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.VALUE);
+            byte[] newValue = CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.NEW_VALUE);
+            boolean[] swapped = new boolean[1];
+            table.compute(CommandArgs.key(commandArgs), currentValue -> {
+                swapped[0] = Arrays.equals(currentValue, expected);
+                return swapped[0] ? newValue : null;
+            });
+            return DatabaseCommandResult.success(swapped[0] ? OK : null);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+}
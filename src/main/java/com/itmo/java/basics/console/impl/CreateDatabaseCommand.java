@@ -4,6 +4,7 @@ import com.itmo.java.basics.console.DatabaseCommand;
 import com.itmo.java.basics.console.DatabaseCommandArgPositions;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
 import com.itmo.java.basics.logic.Database;
 import com.itmo.java.basics.logic.DatabaseFactory;
 import com.itmo.java.protocol.model.RespObject;
@@ -57,4 +58,19 @@ public class CreateDatabaseCommand implements DatabaseCommand {
             return DatabaseCommandResult.error(e);
         }
     }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.DATABASE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
 }
@@ -4,14 +4,12 @@ import com.itmo.java.basics.console.DatabaseCommand;
 import com.itmo.java.basics.console.DatabaseCommandArgPositions;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.ExecutionEnvironment;
-import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.execution.Priority;
 import com.itmo.java.basics.logic.Database;
-import com.itmo.java.basics.logic.DatabaseFactory;
+import com.itmo.java.basics.logic.RolloverPolicy;
 import com.itmo.java.protocol.model.RespObject;
 
-import javax.xml.crypto.Data;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Команда для создания базы таблицы
@@ -19,6 +17,7 @@ import java.util.Optional;
 public class CreateTableCommand implements DatabaseCommand {
 
     private static final int ARGUMENTS_QUANTITY = 4;
+    private static final int MAX_ARGUMENTS_QUANTITY = 7;
 
     private final ExecutionEnvironment env;
     private final List<RespObject> commandArgs;
@@ -30,11 +29,12 @@ public class CreateTableCommand implements DatabaseCommand {
      *
      * @param env         env
      * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
-     *                    Id команды, имя команды, имя бд, имя таблицы
+     *                    Id команды, имя команды, имя бд, имя таблицы, необязательные количество партиций,
+     *                    размер сегмента и максимальный возраст сегмента в миллисекундах
      * @throws IllegalArgumentException если передано неправильное количество аргументов
      */
     public CreateTableCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
-        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+        if (commandArgs.size() < ARGUMENTS_QUANTITY || commandArgs.size() > MAX_ARGUMENTS_QUANTITY) {
             throw new IllegalArgumentException("Wrong quantity of command's arguments!");
         }
         this.env = env;
@@ -49,20 +49,45 @@ public class CreateTableCommand implements DatabaseCommand {
     @Override
     public DatabaseCommandResult execute() {
         try {
-            String databaseName = commandArgs.get(DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex()).asString();
-            Optional<Database> optionalDatabase = env.getDatabase(databaseName);
-            if (optionalDatabase.isEmpty()) {
-                throw new DatabaseException("No such database with name " + databaseName);
-            }
-            Database database = optionalDatabase.get();
+            Database database = CommandArgs.database(env, commandArgs);
             String tableName = commandArgs.get(DatabaseCommandArgPositions.TABLE_NAME.getPositionIndex()).asString();
-            database.createTableIfNotExists(tableName);
+            int partitions = commandArgs.size() > DatabaseCommandArgPositions.TABLE_PARTITIONS.getPositionIndex()
+                    ? Integer.parseInt(commandArgs.get(DatabaseCommandArgPositions.TABLE_PARTITIONS.getPositionIndex())
+                            .asString())
+                    : 1;
+            long segmentSize = optionalNumber(DatabaseCommandArgPositions.TABLE_SEGMENT_SIZE,
+                    RolloverPolicy.DEFAULT_SEGMENT_SIZE);
+            long maxAgeMillis = optionalNumber(DatabaseCommandArgPositions.TABLE_SEGMENT_MAX_AGE,
+                    RolloverPolicy.NO_MAX_AGE);
+            database.createTableIfNotExists(tableName, partitions, new RolloverPolicy(segmentSize, maxAgeMillis));
             return DatabaseCommandResult.success(String.format(
                     "Table %s in database %s was created",
-                    tableName, databaseName
+                    tableName, database.getName()
             ).getBytes());
         } catch (Exception e) {
             return DatabaseCommandResult.error(e);
         }
     }
+
+    private long optionalNumber(DatabaseCommandArgPositions position, long defaultValue) {
+        if (commandArgs.size() <= position.getPositionIndex()) {
+            return defaultValue;
+        }
+        return Long.parseLong(commandArgs.get(position.getPositionIndex()).asString());
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.TABLE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
 }
@@ -4,8 +4,8 @@ import com.itmo.java.basics.console.DatabaseCommand;
 import com.itmo.java.basics.console.DatabaseCommandArgPositions;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.ExecutionEnvironment;
-import com.itmo.java.basics.exceptions.DatabaseException;
-import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
 import com.itmo.java.protocol.model.RespObject;
 
 import java.util.List;
@@ -47,20 +47,24 @@ public class DeleteKeyCommand implements DatabaseCommand {
     @Override
     public DatabaseCommandResult execute() {
         try {
-            String databaseName = commandArgs.get(DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex()).asString();
-            Optional<Database> optionalDatabase = env.getDatabase(databaseName);
-            if (optionalDatabase.isEmpty()) {
-                throw new DatabaseException("No such database with name " + databaseName);
-            }
-            Database database = optionalDatabase.get();
-            String tableName = commandArgs.get(DatabaseCommandArgPositions.TABLE_NAME.getPositionIndex()).asString();
-            String key = commandArgs.get(DatabaseCommandArgPositions.KEY.getPositionIndex()).asString();
-            Optional<byte[]> previousValue = database.read(tableName, key);
-            database.delete(tableName, key);
+            Table table = CommandArgs.table(env, commandArgs);
+            ObjectKey key = CommandArgs.key(commandArgs);
+            Optional<byte[]> previousValue = table.read(key);
+            table.delete(key);
             return previousValue.map(DatabaseCommandResult::success).orElseGet(() ->
                     DatabaseCommandResult.error("Nothing to delete: no such key " + key));
         } catch (Exception e) {
             return DatabaseCommandResult.error(e);
         }
     }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
 }
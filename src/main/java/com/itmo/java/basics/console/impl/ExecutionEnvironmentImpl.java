@@ -2,17 +2,17 @@ package com.itmo.java.basics.console.impl;
 
 import com.itmo.java.basics.config.DatabaseConfig;
 import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.index.impl.NameIndex;
 import com.itmo.java.basics.logic.Database;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
 import java.util.Optional;
 
 public class ExecutionEnvironmentImpl implements ExecutionEnvironment {
 
-    private final Map<String, Database> dataBases = new HashMap<>();
+    private final NameIndex<Database> dataBases = new NameIndex<>();
     private final DatabaseConfig databaseConfig;
 
     public ExecutionEnvironmentImpl(DatabaseConfig config) {
@@ -24,11 +24,21 @@ public class ExecutionEnvironmentImpl implements ExecutionEnvironment {
         return Optional.ofNullable(dataBases.get(name));
     }
 
+    @Override
+    public Optional<Database> getDatabase(byte[] name) {
+        return Optional.ofNullable(dataBases.get(name));
+    }
+
     @Override
     public void addDatabase(Database db) {
         dataBases.put(db.getName(), db);
     }
 
+    @Override
+    public Collection<Database> getDatabases() {
+        return dataBases.values();
+    }
+
     @Override
     public Path getWorkingPath() {
         return Paths.get(databaseConfig.getWorkingPath());
@@ -0,0 +1,39 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.protocol.model.RespFileRegion;
+import com.itmo.java.protocol.model.RespObject;
+
+/**
+ * Результат успешной команды, значение которого не читается в память, а лежит в участке файла сегмента
+ */
+public class FileRegionDatabaseCommandResult implements DatabaseCommandResult {
+
+    private final FileRegion region;
+
+    public FileRegionDatabaseCommandResult(FileRegion region) {
+        this.region = region;
+    }
+
+    /**
+     * Читает значение из файла. Для отправки клиенту используется {@link #serialize()}
+     */
+    @Override
+    public String getPayLoad() {
+        return serialize().asString();
+    }
+
+    @Override
+    public boolean isSuccess() {
+        return true;
+    }
+
+    /**
+     * Сериализуется в {@link RespFileRegion}
+     */
+    @Override
+    public RespObject serialize() {
+        return new RespFileRegion(region.getChannel(), region.getPosition(), region.getLength());
+    }
+}
@@ -5,11 +5,17 @@ import com.itmo.java.basics.console.DatabaseCommandArgPositions;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.ExecutionEnvironment;
 import com.itmo.java.basics.exceptions.DatabaseException;
-import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
 import com.itmo.java.protocol.model.RespObject;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Команда для чтения данных по ключу
@@ -18,6 +24,11 @@ public class GetKeyCommand implements DatabaseCommand {
 
     private static final int ARGUMENTS_QUANTITY = 5;
 
+    /**
+     * Значения от этого размера отдаются из файла сегмента без чтения в память
+     */
+    static final int ZERO_COPY_THRESHOLD = 64 * 1024;
+
     private final ExecutionEnvironment env;
     private final List<RespObject> commandArgs;
 
@@ -47,18 +58,72 @@ public class GetKeyCommand implements DatabaseCommand {
     @Override
     public DatabaseCommandResult execute() {
         try {
-            String databaseName = commandArgs.get(DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex()).asString();
-            Optional<Database> optionalDatabase = env.getDatabase(databaseName);
-            if (optionalDatabase.isEmpty()) {
-                throw new DatabaseException("No such database with name " + databaseName);
-            }
-            Database database = optionalDatabase.get();
-            String tableName = commandArgs.get(DatabaseCommandArgPositions.TABLE_NAME.getPositionIndex()).asString();
-            String key = commandArgs.get(DatabaseCommandArgPositions.KEY.getPositionIndex()).asString();
-            Optional<byte[]> value = database.read(tableName, key);
-            return value.map(DatabaseCommandResult::success).orElseGet(() -> DatabaseCommandResult.success(null));
+            Table table = CommandArgs.table(env, commandArgs);
+            return read(table, CommandArgs.key(commandArgs));
         } catch (Exception e) {
             return DatabaseCommandResult.error(e);
         }
     }
+
+    /**
+     * Участок значения ищется сразу, а читается асинхронно, поэтому линия не ждет диска.
+     * Значение, которого нет на диске или которое есть в кэше, читается синхронно, как в {@link #execute()}
+     */
+    @Override
+    public CompletableFuture<DatabaseCommandResult> executeAsync() {
+        Table table;
+        ObjectKey key;
+        try {
+            table = CommandArgs.table(env, commandArgs);
+            key = CommandArgs.key(commandArgs);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(DatabaseCommandResult.error(e));
+        }
+        return table.locateAsync(key).handle((region, failure) -> {
+            try {
+                if (failure != null) {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    return DatabaseCommandResult.error(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+                }
+                return region.isPresent() ? fromRegion(region.get()) : read(table, key);
+            } catch (Exception e) {
+                return DatabaseCommandResult.error(e);
+            }
+        });
+    }
+
+    /**
+     * Читает значение по ключу. Большие значения не читаются в память, а отдаются участком файла сегмента
+     *
+     * @return успешный результат со значением или null, если значения нет
+     */
+    static DatabaseCommandResult read(Table table, ObjectKey key) throws DatabaseException, IOException {
+        Optional<FileRegion> region = table.locate(key);
+        if (region.isPresent()) {
+            return fromRegion(region.get());
+        }
+        Optional<byte[]> value = table.read(key);
+        return value.map(DatabaseCommandResult::success).orElseGet(() -> DatabaseCommandResult.success(null));
+    }
+
+    private static DatabaseCommandResult fromRegion(FileRegion region) throws IOException {
+        return region.getLength() >= ZERO_COPY_THRESHOLD
+                ? DatabaseCommandResult.successFromRegion(region)
+                : DatabaseCommandResult.success(region.readAll());
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.READ;
+    }
 }
@@ -0,0 +1,71 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Команда для удаления поля значения-хэша
+ */
+public class HashDeleteKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 6;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, поле
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public HashDeleteKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Удаляет поле. Если поля нет, хэш не меняется и ничего не записывается
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с удаленным значением поля или null, если такого не было
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            ObjectKey key = CommandArgs.key(commandArgs);
+            ObjectKey field = CommandArgs.field(commandArgs);
+            Optional<Map<ObjectKey, byte[]>> previous = table.updateHash(key, HashDelta.remove(field));
+            return DatabaseCommandResult.success(previous.map(f -> f.get(field)).orElse(null));
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Команда для чтения всех полей значения-хэша
+ */
+public class HashGetAllKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 5;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public HashGetAllKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Читает все поля
+     *
+     * @return {@link DatabaseCommandResult#successArray(List)} с чередующимися именами и значениями полей.
+     * Пустой массив, если ключа нет
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Map<ObjectKey, byte[]> fields = CommandArgs.table(env, commandArgs)
+                    .readHash(CommandArgs.key(commandArgs))
+                    .orElse(Collections.emptyMap());
+            List<byte[]> values = new ArrayList<>(2 * fields.size());
+            for (Map.Entry<ObjectKey, byte[]> field : fields.entrySet()) {
+                values.add(field.getKey().getBytes());
+                values.add(field.getValue());
+            }
+            return DatabaseCommandResult.successArray(values);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.READ;
+    }
+}
@@ -0,0 +1,74 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Команда для чтения поля значения-хэша
+ */
+public class HashGetKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 6;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, поле
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public HashGetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Читает поле
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} со значением поля или null, если поля или ключа нет
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Optional<Map<ObjectKey, byte[]>> fields = CommandArgs.table(env, commandArgs)
+                    .readHash(CommandArgs.key(commandArgs));
+            ObjectKey field = CommandArgs.field(commandArgs);
+            return DatabaseCommandResult.success(fields.map(f -> f.get(field)).orElse(null));
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.READ;
+    }
+}
@@ -0,0 +1,74 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Команда для записи поля значения-хэша. На диск дописывается только измененное поле
+ */
+public class HashSetKeyCommand implements DatabaseCommand {
+
+    private static final int ARGUMENTS_QUANTITY = 7;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, поле, значение поля
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public HashSetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Записывает поле
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с предыдущим значением поля или null, если такого не было
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            ObjectKey field = CommandArgs.field(commandArgs);
+            byte[] value = CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.FIELD_VALUE);
+            if (value == null) {
+                throw new DatabaseException("Value is null");
+            }
+            Optional<Map<ObjectKey, byte[]>> previous = CommandArgs.table(env, commandArgs)
+                    .updateHash(CommandArgs.key(commandArgs), HashDelta.set(field, value));
+            return DatabaseCommandResult.success(previous.map(f -> f.get(field)).orElse(null));
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+}
@@ -0,0 +1,94 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Команда атомарного увеличения (или уменьшения) числового значения по ключу.
+ * Значение хранится как десятичная строка, отсутствующее значение считается нулем
+ */
+public class IncrementKeyCommand implements DatabaseCommand {
+
+    private static final int MIN_ARGUMENTS_QUANTITY = 5;
+    private static final int MAX_ARGUMENTS_QUANTITY = 6;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+    private final boolean decrement;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, необязательная величина изменения (по умолчанию 1)
+     * @param decrement   уменьшать ли значение вместо увеличения
+     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     */
+    public IncrementKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs, boolean decrement) {
+        if (commandArgs.size() < MIN_ARGUMENTS_QUANTITY || commandArgs.size() > MAX_ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+        this.decrement = decrement;
+    }
+
+    /**
+     * Изменяет значение
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с новым значением. Например, "42"
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            long delta = commandArgs.size() == MAX_ARGUMENTS_QUANTITY
+                    ? parseLong(CommandArgs.bytes(commandArgs, DatabaseCommandArgPositions.VALUE))
+                    : 1;
+            long signedDelta = decrement ? Math.negateExact(delta) : delta;
+            byte[] result = table.compute(CommandArgs.key(commandArgs), currentValue -> {
+                long current = currentValue == null ? 0 : parseLong(currentValue);
+                try {
+                    return Long.toString(Math.addExact(current, signedDelta)).getBytes(StandardCharsets.UTF_8);
+                } catch (ArithmeticException e) {
+                    throw new DatabaseException("Increment would overflow");
+                }
+            }).orElseThrow();
+            return DatabaseCommandResult.success(result);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    private static long parseLong(byte[] value) throws DatabaseException {
+        if (value == null) {
+            throw new DatabaseException("Value is not an integer");
+        }
+        try {
+            return Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw new DatabaseException("Value is not an integer");
+        }
+    }
+}
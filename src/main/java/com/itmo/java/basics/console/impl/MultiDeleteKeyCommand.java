@@ -0,0 +1,85 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Команда для удаления значений по нескольким ключам одной таблицы.
+ * Все ключи удаляются из таблицы одной операцией, удаленные значения не читаются.
+ * Удаленные ключи считает сама таблица атомарно с удалением ({@link Table#deleteAll(java.util.Collection)}),
+ * поэтому ответ не расходится с параллельными записями этих ключей
+ */
+public class MultiDeleteKeyCommand implements DatabaseCommand {
+
+    private static final int MIN_ARGUMENTS_QUANTITY = 5;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, один или несколько ключей
+     * @throws IllegalArgumentException если не передано ни одного ключа
+     */
+    public MultiDeleteKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() < MIN_ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Удаляет значения по ключам. Отсутствующие ключи пропускаются
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с количеством удаленных ключей. Например, "2"
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            Set<ObjectKey> keys = new LinkedHashSet<>();
+            for (int i = DatabaseCommandArgPositions.KEY.getPositionIndex(); i < commandArgs.size(); i++) {
+                keys.add(CommandArgs.key(commandArgs, i));
+            }
+            int deleted = table.deleteAll(keys);
+            return DatabaseCommandResult.success(String.valueOf(deleted).getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    /**
+     * Ключи команды могут попасть в разные линии исполнения, поэтому команда маршрутизируется по таблице
+     */
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.TABLE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
+}
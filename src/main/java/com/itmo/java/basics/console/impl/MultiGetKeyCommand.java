@@ -0,0 +1,85 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Команда для чтения значений по нескольким ключам одной таблицы.
+ * Значения, которых нет в кэше, читаются с диска в порядке сегментов и смещений
+ */
+public class MultiGetKeyCommand implements DatabaseCommand {
+
+    private static final int MIN_ARGUMENTS_QUANTITY = 5;
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, один или несколько ключей
+     * @throws IllegalArgumentException если не передано ни одного ключа
+     */
+    public MultiGetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() < MIN_ARGUMENTS_QUANTITY) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Читает значения по ключам
+     *
+     * @return {@link DatabaseCommandResult#successArray(List)} со значениями в порядке ключей. Null, если значения нет
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            List<ObjectKey> keys = new ArrayList<>(commandArgs.size() - DatabaseCommandArgPositions.KEY.getPositionIndex());
+            for (int i = DatabaseCommandArgPositions.KEY.getPositionIndex(); i < commandArgs.size(); i++) {
+                keys.add(CommandArgs.key(commandArgs, i));
+            }
+            List<byte[]> values = new ArrayList<>(keys.size());
+            for (Optional<byte[]> value : table.readAll(keys)) {
+                values.add(value.orElse(null));
+            }
+            return DatabaseCommandResult.successArray(values);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    /**
+     * Ключи команды могут попасть в разные линии исполнения, поэтому команда маршрутизируется по таблице
+     */
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.TABLE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
+}
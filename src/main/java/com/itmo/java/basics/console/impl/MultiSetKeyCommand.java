@@ -0,0 +1,85 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandArgPositions;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.execution.Priority;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Команда для записи значений по нескольким ключам одной таблицы.
+ * Все значения записываются в таблицу одной операцией, предыдущие значения не читаются
+ */
+public class MultiSetKeyCommand implements DatabaseCommand {
+
+    private static final int MIN_ARGUMENTS_QUANTITY = 6;
+    private static final byte[] OK = "OK".getBytes(StandardCharsets.UTF_8);
+
+    private final ExecutionEnvironment env;
+    private final List<RespObject> commandArgs;
+
+    /**
+     * Создает команду.
+     * <br/>
+     * Обратите внимание, что в конструкторе нет логики проверки валидности данных. Не проверяется, можно ли исполнить команду. Только формальные признаки (например, количество переданных значений или ненуловость объектов
+     *
+     * @param env         env
+     * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
+     *                    Id команды, имя команды, имя бд, таблицы, одна или несколько пар ключ-значение
+     * @throws IllegalArgumentException если не передано ни одной пары или у ключа нет значения
+     */
+    public MultiSetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
+        if (commandArgs.size() < MIN_ARGUMENTS_QUANTITY
+                || (commandArgs.size() - DatabaseCommandArgPositions.KEY.getPositionIndex()) % 2 != 0) {
+            throw new IllegalArgumentException("Wrong quantity of command's arguments!");
+        }
+        this.env = env;
+        this.commandArgs = commandArgs;
+    }
+
+    /**
+     * Записывает значения. Если ключ повторяется, записывается последнее значение
+     *
+     * @return {@link DatabaseCommandResult#success(byte[])} с "OK"
+     */
+    @Override
+    public DatabaseCommandResult execute() {
+        try {
+            Table table = CommandArgs.table(env, commandArgs);
+            Map<ObjectKey, byte[]> values = new LinkedHashMap<>();
+            for (int i = DatabaseCommandArgPositions.KEY.getPositionIndex(); i < commandArgs.size(); i += 2) {
+                values.put(CommandArgs.key(commandArgs, i), commandArgs.get(i + 1).asBytes());
+            }
+            table.writeAll(values);
+            return DatabaseCommandResult.success(OK);
+        } catch (Exception e) {
+            return DatabaseCommandResult.error(e);
+        }
+    }
+
+    /**
+     * Ключи команды могут попасть в разные линии исполнения, поэтому команда маршрутизируется по таблице
+     */
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.TABLE_NAME);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
+
+    @Override
+    public Priority getPriority() {
+        return Priority.BULK;
+    }
+}
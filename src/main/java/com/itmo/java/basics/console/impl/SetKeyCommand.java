@@ -5,21 +5,64 @@ import com.itmo.java.basics.console.DatabaseCommandArgPositions;
 import com.itmo.java.basics.console.DatabaseCommandResult;
 import com.itmo.java.basics.console.ExecutionEnvironment;
 import com.itmo.java.basics.exceptions.DatabaseException;
-import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.protocol.model.RespFileRegion;
 import com.itmo.java.protocol.model.RespObject;
 
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
 
 /**
- * Команда для создания записи значения
+ * Команда для создания записи значения.
+ * <p>
+ * После значения могут идти опции (см. {@link Option}). Без опций, кроме срока жизни, команда возвращает
+ * предыдущее значение, с остальными опциями предыдущее значение не читается. С опциями NX и XX проверку наличия ключа
+ * и запись атомарно выполняет таблица ({@link Table#writeIf(ObjectKey, byte[], long, boolean)}), поэтому их не разделит
+ * запись этого ключа другой командой, в том числе из другой линии исполнения (например, MSET или BATCH).
+ * Предыдущее значение читается отдельно от записи: если ключ одновременно пишет команда из другой линии,
+ * может вернуться значение, записанное ею. Хэш команда заменяет значением, а вместо предыдущего значения
+ * возвращает null
  */
 public class SetKeyCommand implements DatabaseCommand {
 
     private static final int ARGUMENTS_QUANTITY = 6;
+    private static final byte[] OK = "OK".getBytes(StandardCharsets.UTF_8);
 
     private final ExecutionEnvironment env;
     private final List<RespObject> commandArgs;
+    private final EnumSet<Option> options = EnumSet.noneOf(Option.class);
+    private long ttlMillis;
+
+    /**
+     * Опции команды записи
+     */
+    public enum Option {
+        /**
+         * Не читать и не возвращать предыдущее значение, ответ - "OK"
+         */
+        NOPREV,
+        /**
+         * Записать, только если ключа нет. Ответ - "OK" или null, если запись не выполнена
+         */
+        NX,
+        /**
+         * Записать, только если ключ есть. Ответ - "OK" или null, если запись не выполнена
+         */
+        XX,
+        /**
+         * Срок жизни значения в секундах, передается следующим аргументом
+         */
+        EX,
+        /**
+         * Срок жизни значения в миллисекундах, передается следующим аргументом
+         */
+        PX
+    }
 
     /**
      * Создает команду.
@@ -28,39 +71,123 @@ public class SetKeyCommand implements DatabaseCommand {
      *
      * @param env         env
      * @param commandArgs аргументы для создания (порядок - {@link DatabaseCommandArgPositions}.
-     *                    Id команды, имя команды, имя бд, таблицы, ключ, значение
-     * @throws IllegalArgumentException если передано неправильное количество аргументов
+     *                    Id команды, имя команды, имя бд, таблицы, ключ, значение, опции
+     * @throws IllegalArgumentException если передано неправильное количество аргументов, неизвестная опция,
+     *                                  одновременно NX и XX или EX и PX, срок жизни не положительное число
      */
     public SetKeyCommand(ExecutionEnvironment env, List<RespObject> commandArgs) {
-        if (commandArgs.size() != ARGUMENTS_QUANTITY) {
+        if (commandArgs.size() < ARGUMENTS_QUANTITY) {
             throw new IllegalArgumentException("Wrong quantity of command's arguments!");
         }
         this.env = env;
         this.commandArgs = commandArgs;
+        for (int i = DatabaseCommandArgPositions.SET_OPTIONS.getPositionIndex(); i < commandArgs.size(); i++) {
+            String option = commandArgs.get(i).asString();
+            Option parsed;
+            try {
+                parsed = Option.valueOf(option == null ? "" : option.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown SET option " + option);
+            }
+            options.add(parsed);
+            if (parsed == Option.EX || parsed == Option.PX) {
+                if (++i == commandArgs.size()) {
+                    throw new IllegalArgumentException("SET option " + option + " requires a time to live");
+                }
+                ttlMillis = parseTtl(commandArgs.get(i).asString(), parsed == Option.EX ? 1000 : 1);
+            }
+        }
+        if (options.contains(Option.NX) && options.contains(Option.XX)) {
+            throw new IllegalArgumentException("SET options NX and XX are mutually exclusive");
+        }
+        if (options.contains(Option.EX) && options.contains(Option.PX)) {
+            throw new IllegalArgumentException("SET options EX and PX are mutually exclusive");
+        }
+    }
+
+    private static long parseTtl(String ttl, long unitMillis) {
+        long value;
+        try {
+            value = Long.parseLong(ttl);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Time to live is not an integer: " + ttl);
+        }
+        if (value <= 0 || value > Long.MAX_VALUE / unitMillis / 2) {
+            throw new IllegalArgumentException("Time to live must be positive, got " + ttl);
+        }
+        return value * unitMillis;
     }
 
     /**
      * Записывает значение
      *
      * @return {@link DatabaseCommandResult#success(byte[])} c предыдущим значением. Например, "previous" или null, если такого не было
+     * или по ключу лежал хэш.
+     * С опциями NOPREV, NX, XX - "OK" или null, если условие записи не выполнено
      */
     @Override
     public DatabaseCommandResult execute() {
         try {
-            String databaseName = commandArgs.get(DatabaseCommandArgPositions.DATABASE_NAME.getPositionIndex()).asString();
-            Optional<Database> optionalDatabase = env.getDatabase(databaseName);
-            if (optionalDatabase.isEmpty()) {
-                throw new DatabaseException("No such database with name " + databaseName);
+            Table table = CommandArgs.table(env, commandArgs);
+            ObjectKey key = CommandArgs.key(commandArgs);
+            if (!options.contains(Option.NOPREV) && !options.contains(Option.NX) && !options.contains(Option.XX)) {
+                DatabaseCommandResult previousValue = table.isHash(key)
+                        ? DatabaseCommandResult.success(null)
+                        : GetKeyCommand.read(table, key);
+                write(table, key);
+                return previousValue;
             }
-            Database database = optionalDatabase.get();
-            String tableName = commandArgs.get(DatabaseCommandArgPositions.TABLE_NAME.getPositionIndex()).asString();
-            String key = commandArgs.get(DatabaseCommandArgPositions.KEY.getPositionIndex()).asString();
-            String value = commandArgs.get(DatabaseCommandArgPositions.VALUE.getPositionIndex()).asString();
-            Optional<byte[]> previousValue = database.read(tableName, key);
-            database.write(tableName, key, value.getBytes());
-            return previousValue.map(DatabaseCommandResult::success).orElseGet(() -> DatabaseCommandResult.success(null));
+            if (options.contains(Option.NX) || options.contains(Option.XX)) {
+                boolean written = writeIf(table, key, options.contains(Option.XX));
+                return DatabaseCommandResult.success(written ? OK : null);
+            }
+            write(table, key);
+            return DatabaseCommandResult.success(OK);
         } catch (Exception e) {
             return DatabaseCommandResult.error(e);
         }
     }
+
+    private void write(Table table, ObjectKey key) throws DatabaseException {
+        RespObject value = value();
+        if (value instanceof RespFileRegion) {
+            table.write(key, fileRegion((RespFileRegion) value), expiresAt());
+        } else {
+            table.write(key, value.asBytes(), expiresAt());
+        }
+    }
+
+    /**
+     * @param present записать, только если ключ есть ({@code true}) или только если его нет ({@code false})
+     * @return {@code true}, если значение записано
+     */
+    private boolean writeIf(Table table, ObjectKey key, boolean present) throws DatabaseException {
+        RespObject value = value();
+        if (value instanceof RespFileRegion) {
+            return table.writeIf(key, fileRegion((RespFileRegion) value), expiresAt(), present);
+        }
+        return table.writeIf(key, value.asBytes(), expiresAt(), present);
+    }
+
+    private RespObject value() {
+        return commandArgs.get(DatabaseCommandArgPositions.VALUE.getPositionIndex());
+    }
+
+    private static FileRegion fileRegion(RespFileRegion spooled) {
+        return new FileRegion(spooled.getChannel(), spooled.getPosition(), spooled.getLength());
+    }
+
+    private long expiresAt() {
+        return ttlMillis == 0 ? DatabaseRecord.NO_EXPIRATION : System.currentTimeMillis() + ttlMillis;
+    }
+
+    @Override
+    public int getRoutingHash() {
+        return CommandArgs.routingHash(commandArgs, DatabaseCommandArgPositions.KEY);
+    }
+
+    @Override
+    public List<RespObject> getArguments() {
+        return commandArgs;
+    }
 }
@@ -0,0 +1,64 @@
+package com.itmo.java.basics.execution;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчики команд одной базы данных: сколько принято к исполнению и сколько и почему не исполнено
+ */
+public class DatabaseStatistics {
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * Команда поставлена в очередь линии
+     */
+    public void onAccepted() {
+        accepted.incrementAndGet();
+    }
+
+    /**
+     * Команда отклонена: база превысила квоту
+     */
+    public void onThrottled() {
+        throttled.incrementAndGet();
+    }
+
+    /**
+     * Команда отклонена: очередь базы в линии заполнена
+     */
+    public void onShed() {
+        shed.incrementAndGet();
+    }
+
+    /**
+     * Команда не исполнена: истек ее срок ожидания в очереди
+     */
+    public void onExpired() {
+        expired.incrementAndGet();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    public long getShed() {
+        return shed.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseStatistics(accepted=" + getAccepted() + ", throttled=" + getThrottled()
+                + ", shed=" + getShed() + ", expired=" + getExpired() + ")";
+    }
+}
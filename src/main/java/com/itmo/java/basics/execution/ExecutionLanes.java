@@ -0,0 +1,481 @@
+package com.itmo.java.basics.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Набор линий исполнения команд. Каждая линия - один поток со своими очередями.
+ * Задачи с одинаковым хэшем маршрутизации всегда попадают на одну линию, задачи с разными хэшами
+ * распределяются по линиям и исполняются параллельно.
+ * <p>
+ * В линии у каждого класса приоритета ({@link Priority}) своя очередь. Задачи одного класса и хэша исполняются
+ * в порядке поступления, а очереди классов обслуживаются взвешенно по кругу, так что поток записей
+ * или пакетных команд не задерживает чтения дольше, чем на свою долю круга.
+ * <p>
+ * Внутри класса у каждого арендатора (базы данных) своя очередь. Арендаторы обслуживаются по кругу:
+ * подряд исполняется не больше задач арендатора, чем его вес, так что одна нагруженная база
+ * не занимает линию целиком и не вытесняет из очереди задачи других баз.
+ * <p>
+ * Очередь каждого арендатора в классе ограничена: при перегрузке новые задачи не копятся в памяти, а сразу отклоняются.
+ * Задача может иметь срок, к которому она должна начать исполняться, и может быть отменена, пока ждет в очереди.
+ * Просроченные и отмененные задачи линия пропускает, не исполняя.
+ */
+public class ExecutionLanes implements AutoCloseable {
+
+    /**
+     * Срок задачи не ограничен
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    public static final int UNBOUNDED_QUEUE = Integer.MAX_VALUE;
+
+    /**
+     * Арендатор задач, не относящихся ни к одной базе
+     */
+    public static final String SHARED_TENANT = "";
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    /**
+     * Сколько закрытие линий ждет результатов задач, уже отдавших линию (например, асинхронных чтений)
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final Lane[] lanes;
+    private final AtomicInteger[] occupancy;
+    /**
+     * Результаты задач, поставленных в очередь и еще не завершенных
+     */
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final ToIntFunction<String> tenantWeights;
+
+    /**
+     * Создает линии с неограниченными очередями
+     *
+     * @param laneCount количество линий исполнения
+     * @throws IllegalArgumentException если количество линий меньше единицы
+     */
+    public ExecutionLanes(int laneCount) {
+        this(laneCount, UNBOUNDED_QUEUE);
+    }
+
+    /**
+     * Создает линии, в которых все арендаторы имеют одинаковый вес
+     *
+     * @param laneCount     количество линий исполнения
+     * @param queueCapacity сколько задач каждого класса приоритета может ждать в очереди одной линии
+     * @throws IllegalArgumentException если количество линий или размер очереди меньше единицы
+     */
+    public ExecutionLanes(int laneCount, int queueCapacity) {
+        this(laneCount, queueCapacity, tenant -> 1);
+    }
+
+    /**
+     * @param laneCount     количество линий исполнения
+     * @param queueCapacity сколько задач каждого класса приоритета одного арендатора может ждать в очереди одной линии
+     * @param tenantWeights вес арендатора: сколько его задач подряд исполняется, прежде чем линия перейдет
+     *                      к следующему арендатору. Веса меньше единицы считаются единицей
+     * @throws IllegalArgumentException если количество линий или размер очереди меньше единицы
+     */
+    public ExecutionLanes(int laneCount, int queueCapacity, ToIntFunction<String> tenantWeights) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Execution lanes count must be positive, got " + laneCount);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Execution lane queue capacity must be positive, got " + queueCapacity);
+        }
+        this.tenantWeights = tenantWeights;
+        lanes = new Lane[laneCount];
+        occupancy = new AtomicInteger[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane("kvs-lane-" + i, queueCapacity, this::weightOf);
+            occupancy[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Ставит задачу в очередь записей линии, выбранной по хэшу маршрутизации.
+     *
+     * @param routingHash хэш маршрутизации задачи
+     * @param task        задача
+     * @return результат исполнения задачи. Завершается с {@link RejectedExecutionException}, если очередь линии заполнена
+     */
+    public <T> CompletableFuture<T> submit(int routingHash, Supplier<T> task) {
+        return submitAsync(routingHash, Priority.WRITE, SHARED_TENANT, NO_DEADLINE, () -> CompletableFuture.completedFuture(task.get()), e -> {
+            throw new CompletionException(e);
+        });
+    }
+
+    /**
+     * Ставит в очередь линии задачу, которая сама возвращает будущий результат. Линия освобождается,
+     * как только задача вернет будущее, поэтому на линии может ждать завершения много задач сразу.
+     * Задача считается занимающей линию, пока ее результат не завершится.
+     * <p>
+     * Если очередь линии заполнена или задача не начала исполняться до срока, задача не исполняется,
+     * а результатом становится {@code onRejected} от {@link RejectedExecutionException} или {@link TimeoutException}.
+     * Отмена результата ({@link CompletableFuture#cancel(boolean)}) удается, только пока задача ждет в очереди:
+     * если задача уже исполняется, отмена возвращает {@code false} и результат нужно дождаться.
+     *
+     * @param routingHash   хэш маршрутизации задачи
+     * @param priority      класс приоритета, в очередь которого ставится задача
+     * @param tenant        арендатор задачи или {@code null}, если задача не относится ни к одной базе
+     * @param deadlineNanos срок начала исполнения по {@link System#nanoTime()} или {@link #NO_DEADLINE}
+     * @param task          задача
+     * @param onRejected    результат для задачи, которая не будет исполнена
+     * @return результат исполнения задачи
+     */
+    public <T> CompletableFuture<T> submitAsync(int routingHash, Priority priority, String tenant, long deadlineNanos,
+                                                Supplier<CompletableFuture<T>> task, Function<Exception, T> onRejected) {
+        String owner = tenant == null ? SHARED_TENANT : tenant;
+        int lane = laneOf(routingHash);
+        LaneTask<T> result = new LaneTask<>();
+        LaneJob job = new LaneJob() {
+            @Override
+            public void run() {
+                if (!result.start()) {
+                    return;
+                }
+                if (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos > 0) {
+                    reject(result, onRejected, new TimeoutException(
+                            "Request deadline exceeded while waiting in execution lane " + lane));
+                    return;
+                }
+                try {
+                    task.get().whenComplete((value, failure) -> {
+                        if (failure == null) {
+                            result.complete(value);
+                        } else {
+                            result.completeExceptionally(failure);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void abandon(Exception reason) {
+                if (result.start()) {
+                    result.completeExceptionally(reason);
+                }
+            }
+        };
+
+        AtomicInteger laneOccupancy = occupancy[lane];
+        laneOccupancy.incrementAndGet();
+        if (!lanes[lane].offer(priority, owner, job)) {
+            laneOccupancy.decrementAndGet();
+            reject(result, onRejected, new RejectedExecutionException("Server is overloaded: execution lane " + lane
+                    + " " + priority + " queue" + (owner.isEmpty() ? "" : " of " + owner) + " is full"));
+            return result;
+        }
+        inFlight.add(result);
+        result.whenComplete((value, failure) -> {
+            laneOccupancy.decrementAndGet();
+            inFlight.remove(result);
+        });
+        return result;
+    }
+
+    private static <T> void reject(CompletableFuture<T> result, Function<Exception, T> onRejected, Exception reason) {
+        try {
+            result.complete(onRejected.apply(reason));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private int weightOf(String tenant) {
+        return Math.max(1, tenantWeights.applyAsInt(tenant));
+    }
+
+    /**
+     * Возвращает номер линии, на которую попадет задача с данным хэшем.
+     */
+    public int laneOf(int routingHash) {
+        int spread = routingHash ^ (routingHash >>> 16);
+        return Math.floorMod(spread, lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Возвращает занятость линий: количество задач, стоящих в очереди или исполняющихся на каждой линии.
+     *
+     * @return массив, i-й элемент которого - занятость i-й линии
+     */
+    public int[] getOccupancy() {
+        int[] result = new int[occupancy.length];
+        for (int i = 0; i < occupancy.length; i++) {
+            result[i] = occupancy[i].get();
+        }
+        return result;
+    }
+
+    /**
+     * Перестает принимать задачи и останавливает линии. Задачи, ожидающие в очередях, не исполняются:
+     * их результаты завершаются с {@link RejectedExecutionException}. Возвращается, когда потоки всех линий
+     * завершили исполняющиеся задачи и остановились, а результаты исполненных задач, например асинхронные
+     * чтения, завершились. Результатов ждет не дольше {@link #CLOSE_TIMEOUT_SECONDS} секунд
+     */
+    @Override
+    public void close() {
+        for (Lane lane : lanes) {
+            lane.close();
+        }
+        for (Lane lane : lanes) {
+            lane.join();
+        }
+        awaitInFlight();
+    }
+
+    /**
+     * Ждет завершения всех результатов, в том числе неудачного: ошибки получат те, кто ставил задачи
+     */
+    private void awaitInFlight() {
+        CompletableFuture<?>[] pending = inFlight.stream()
+                .map(result -> result.handle((value, failure) -> null))
+                .toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(pending).get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // не дождались: закрытие продолжается, незавершенные результаты остаются у вызывающих
+        }
+    }
+
+    /**
+     * Задача в очереди линии
+     */
+    private interface LaneJob extends Runnable {
+        /**
+         * Завершает результат задачи, которая не будет исполнена, потому что линия закрыта
+         */
+        void abandon(Exception reason);
+    }
+
+    /**
+     * Линия: поток и очереди классов приоритета. Очереди меняются только под блокировкой линии
+     */
+    private static final class Lane implements Runnable {
+
+        private final TenantQueues[] queues;
+        private final int capacity;
+        private final ToIntFunction<String> tenantWeights;
+        private final Lock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Thread thread;
+        private int queued;
+        private int current;
+        private int servedInTurn;
+        private boolean closed;
+
+        private Lane(String threadName, int capacity, ToIntFunction<String> tenantWeights) {
+            this.capacity = capacity;
+            this.tenantWeights = tenantWeights;
+            queues = new TenantQueues[PRIORITIES.length];
+            for (int i = 0; i < queues.length; i++) {
+                queues[i] = new TenantQueues();
+            }
+            thread = new Thread(this, threadName);
+            thread.start();
+        }
+
+        /**
+         * @return {@code false}, если очередь арендатора в классе заполнена или линия закрыта
+         */
+        private boolean offer(Priority priority, String tenant, LaneJob task) {
+            lock.lock();
+            try {
+                if (closed || !queues[priority.ordinal()].offer(tenant, task, capacity)) {
+                    return false;
+                }
+                queued++;
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Берет задачу взвешенно по кругу: из очереди текущего класса подряд не больше его веса,
+         * затем переходит к следующему непустому классу. Внутри класса задачу выбирает {@link TenantQueues}
+         */
+        private LaneJob take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (queued == 0) {
+                    if (closed) {
+                        return null;
+                    }
+                    notEmpty.await();
+                }
+                while (queues[current].isEmpty() || servedInTurn >= PRIORITIES[current].getWeight()) {
+                    current = (current + 1) % queues.length;
+                    servedInTurn = 0;
+                }
+                servedInTurn++;
+                queued--;
+                return queues[current].poll(tenantWeights);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                LaneJob task;
+                while ((task = take()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Перестает принимать задачи и будит поток, чтобы он остановился после исполняющейся задачи.
+         * Задачи, оставшиеся в очередях, убираются из них и не исполняются. Поток не прерывается:
+         * прерывание закрыло бы файловые каналы, с которыми работает исполняющаяся задача
+         */
+        private void close() {
+            List<LaneJob> abandoned = new ArrayList<>();
+            lock.lock();
+            try {
+                closed = true;
+                for (TenantQueues queue : queues) {
+                    queue.drainTo(abandoned);
+                }
+                queued = 0;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            for (LaneJob job : abandoned) {
+                job.abandon(new RejectedExecutionException("Execution lanes are closed"));
+            }
+        }
+
+        /**
+         * Ждет остановки потока линии. Из задачи самой линии не ждет, иначе поток ждал бы сам себя
+         */
+        private void join() {
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Очереди арендаторов одного класса приоритета. Непустые очереди стоят в кольце: из первой исполняется
+     * подряд не больше задач, чем вес арендатора, затем она уходит в конец кольца.
+     * Опустевшая очередь удаляется, поэтому память занимают только арендаторы с ожидающими задачами
+     */
+    private static final class TenantQueues {
+
+        private final Map<String, ArrayDeque<LaneJob>> byTenant = new HashMap<>();
+        private final ArrayDeque<String> ring = new ArrayDeque<>();
+        private int servedInTurn;
+
+        private boolean offer(String tenant, LaneJob task, int capacity) {
+            ArrayDeque<LaneJob> queue = byTenant.get(tenant);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                byTenant.put(tenant, queue);
+                ring.addLast(tenant);
+            } else if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.addLast(task);
+            return true;
+        }
+
+        private boolean isEmpty() {
+            return ring.isEmpty();
+        }
+
+        private LaneJob poll(ToIntFunction<String> tenantWeights) {
+            String tenant = ring.peekFirst();
+            ArrayDeque<LaneJob> queue = byTenant.get(tenant);
+            LaneJob task = queue.pollFirst();
+            servedInTurn++;
+            if (queue.isEmpty()) {
+                byTenant.remove(tenant);
+                ring.pollFirst();
+                servedInTurn = 0;
+            } else if (servedInTurn >= tenantWeights.applyAsInt(tenant)) {
+                ring.addLast(ring.pollFirst());
+                servedInTurn = 0;
+            }
+            return task;
+        }
+
+        /**
+         * Забирает все задачи из очередей
+         */
+        private void drainTo(List<LaneJob> tasks) {
+            for (String tenant : ring) {
+                tasks.addAll(byTenant.get(tenant));
+            }
+            byTenant.clear();
+            ring.clear();
+            servedInTurn = 0;
+        }
+    }
+
+    /**
+     * Результат задачи линии. Отменить его можно, только пока задача не начала исполняться
+     */
+    private static final class LaneTask<T> extends CompletableFuture<T> {
+
+        private static final int QUEUED = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        /**
+         * @return {@code false}, если задача отменена и исполнять ее не нужно
+         */
+        private boolean start() {
+            return state.compareAndSet(QUEUED, STARTED);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return state.compareAndSet(QUEUED, CANCELLED) && super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.itmo.java.basics.execution;
+
+import com.itmo.java.basics.logic.ObjectKey;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Иерархическое колесо таймеров для истечения срока жизни ключей.
+ * <p>
+ * Колесо состоит из {@link #LEVELS} уровней по {@link #SLOTS} слотов. Слот нижнего уровня покрывает один тик,
+ * слот каждого следующего уровня - в {@link #SLOTS} раз больше. Ключ кладется в слот за O(1) и не двигается,
+ * пока до его срока не останется меньше одного оборота нижележащего уровня: тогда слот целиком спускается ниже.
+ * Поэтому каждый ключ перекладывается не больше {@link #LEVELS} раз, а тик обрабатывает только свой слот.
+ * <p>
+ * Ставить ключи можно из любых потоков: они попадают в неблокирующую очередь, а слоты трогает только поток колеса.
+ * Колесо только сообщает, что срок наступил, решение об удалении принимает обработчик,
+ * потому что ключ мог быть перезаписан с другим сроком или без него.
+ */
+public class ExpirationWheel implements AutoCloseable {
+
+    /**
+     * Обработчик наступившего срока жизни ключа
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @param objectKey ключ, срок которого наступил
+         * @param expiresAt срок, с которым ключ ставился в колесо
+         */
+        void expire(ObjectKey objectKey, long expiresAt);
+    }
+
+    static final long TICK_MILLIS = 100;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private static final ExpirationWheel SHARED = new ExpirationWheel();
+
+    private final Entry[][] wheel = new Entry[LEVELS][SLOTS];
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private long currentTick;
+
+    public ExpirationWheel() {
+        currentTick = System.currentTimeMillis() / TICK_MILLIS;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "kvs-expiration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Возвращает общее для всех таблиц колесо
+     */
+    public static ExpirationWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * Ставит ключ в колесо. Обработчик будет вызван из потока колеса не раньше срока и не позже чем через тик после него
+     *
+     * @param objectKey ключ
+     * @param expiresAt срок в миллисекундах от эпохи
+     * @param handler   обработчик наступления срока
+     */
+    public void schedule(ObjectKey objectKey, long expiresAt, Handler handler) {
+        pending.add(new Entry(objectKey, expiresAt, handler));
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Прокручивает колесо до текущего времени. Выполняется только в потоке колеса
+     */
+    private void advance() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            place(entry);
+        }
+        long nowTick = System.currentTimeMillis() / TICK_MILLIS;
+        while (currentTick < nowTick) {
+            currentTick++;
+            cascade(1);
+            int slot = (int) (currentTick & SLOT_MASK);
+            Entry expired = wheel[0][slot];
+            wheel[0][slot] = null;
+            fire(expired);
+        }
+    }
+
+    /**
+     * Когда нижний уровень заканчивает оборот, текущий слот уровня {@code level} раскладывается по нижним уровням
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS || (currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        Entry entry = wheel[level][slot];
+        wheel[level][slot] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void place(Entry entry) {
+        long tick = (entry.expiresAt + TICK_MILLIS - 1) / TICK_MILLIS;
+        long delta = tick - currentTick;
+        if (delta <= 0) {
+            entry.next = null;
+            fire(entry);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            tick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        entry.next = wheel[level][slot];
+        wheel[level][slot] = entry;
+    }
+
+    private static void fire(Entry entry) {
+        while (entry != null) {
+            Entry next = entry.next;
+            try {
+                entry.handler.expire(entry.objectKey, entry.expiresAt);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Элемент односвязного списка слота, чтобы постановка и перекладывание не выделяли память под узлы коллекций
+     */
+    private static final class Entry {
+        private final ObjectKey objectKey;
+        private final long expiresAt;
+        private final Handler handler;
+        private Entry next;
+
+        private Entry(ObjectKey objectKey, long expiresAt, Handler handler) {
+            this.objectKey = objectKey;
+            this.expiresAt = expiresAt;
+            this.handler = handler;
+        }
+    }
+}
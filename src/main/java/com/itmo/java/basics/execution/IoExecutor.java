@@ -0,0 +1,41 @@
+package com.itmo.java.basics.execution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул потоков, в котором выполняются асинхронные чтения файлов сегментов.
+ * <p>
+ * Линии исполнения не ждут диска: команда ставит чтение в этот пул и освобождает линию, а результат
+ * дособирается в потоке пула. Поэтому на одной линии может быть сколько угодно незавершенных чтений,
+ * а число одновременных обращений к диску ограничено размером пула.
+ */
+public final class IoExecutor {
+
+    /**
+     * Размер общего пула. Чтения в основном ждут диск, поэтому потоков больше, чем ядер
+     */
+    public static final int DEFAULT_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final ExecutorService SHARED = create(DEFAULT_THREADS);
+
+    private IoExecutor() {
+    }
+
+    /**
+     * Возвращает общий для всех сегментов пул
+     */
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    private static ExecutorService create(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "kvs-io-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.itmo.java.basics.execution;
+
+/**
+ * Класс приоритета задачи линии исполнения. У каждого класса своя очередь в линии,
+ * а линия обслуживает очереди по кругу, беря из каждой подряд не больше {@link #getWeight()} задач.
+ * Поэтому точечные чтения не ждут за длинной очередью записей, а административные и пакетные команды
+ * занимают линию не чаще одного раза за круг.
+ */
+public enum Priority {
+    /**
+     * Точечные чтения
+     */
+    READ(8),
+    /**
+     * Записи одного ключа
+     */
+    WRITE(4),
+    /**
+     * Административные команды (создание бд и таблиц) и команды над многими ключами
+     */
+    BULK(1);
+
+    private final int weight;
+
+    Priority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Сколько задач класса линия исполняет подряд, если очереди других классов не пусты
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,45 @@
+package com.itmo.java.basics.execution;
+
+/**
+ * Ведро токенов: пополняется с постоянной скоростью до емкости в одну секунду пополнения.
+ * Запрос проходит, если в ведре хватает токенов, иначе отклоняется сразу, без ожидания
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long ratePerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param ratePerSecond сколько токенов добавляется в секунду, она же емкость ведра
+     * @throws IllegalArgumentException если скорость не положительна
+     */
+    public TokenBucket(long ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket rate must be positive, got " + ratePerSecond);
+        }
+        this.ratePerSecond = ratePerSecond;
+        tokens = ratePerSecond;
+        refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Забирает токены, если их хватает. Запрос больше емкости проходит, когда ведро полное,
+     * и уводит его в минус, чтобы большие запросы не отклонялись всегда
+     *
+     * @param amount количество токенов
+     * @return {@code true} - если токены забраны
+     */
+    public synchronized boolean tryAcquire(long amount) {
+        long now = System.nanoTime();
+        tokens = Math.min(ratePerSecond, tokens + (double) (now - refilledAt) * ratePerSecond / NANOS_PER_SECOND);
+        refilledAt = now;
+        if (tokens < Math.min(amount, ratePerSecond)) {
+            return false;
+        }
+        tokens -= amount;
+        return true;
+    }
+}
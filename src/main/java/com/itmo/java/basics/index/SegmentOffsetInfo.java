@@ -2,4 +2,9 @@ package com.itmo.java.basics.index;
 
 public interface SegmentOffsetInfo {
     long getOffset();
+
+    /**
+     * Момент истечения срока жизни записи или {@link com.itmo.java.basics.logic.DatabaseRecord#NO_EXPIRATION}
+     */
+    long getExpiresAt();
 }
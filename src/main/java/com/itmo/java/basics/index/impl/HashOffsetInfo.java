@@ -0,0 +1,30 @@
+package com.itmo.java.basics.index.impl;
+
+/**
+ * Положение изменения значения-хэша в сегменте. Изменения одного ключа в сегменте связаны в цепочку
+ * от нового к старому, цепочка начинается с полного изменения и не выходит за пределы сегмента
+ */
+public class HashOffsetInfo extends SegmentOffsetInfoImpl {
+    private final HashOffsetInfo previous;
+    private final int depth;
+
+    public HashOffsetInfo(long offset, HashOffsetInfo previous) {
+        super(offset);
+        this.previous = previous;
+        this.depth = previous == null ? 0 : previous.depth + 1;
+    }
+
+    /**
+     * Предыдущее изменение того же ключа или null, если это начало цепочки
+     */
+    public HashOffsetInfo getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Количество изменений перед этим в цепочке
+     */
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -2,20 +2,36 @@ package com.itmo.java.basics.index.impl;
 
 import com.itmo.java.basics.index.KvsIndex;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Индекс на основе {@link ConcurrentHashMap}: поиск по индексу может идти параллельно с его обновлением.
+ * Обновление значением {@code null} удаляет ключ из индекса.
+ */
 public class MapBasedKvsIndex<K, V> implements KvsIndex<K, V> {
-    private final Map<K, V> index = new HashMap<>(200);
+    private final Map<K, V> index = new ConcurrentHashMap<>(200);
 
     @Override
     public void onIndexedEntityUpdated(K key, V value) {
-        index.put(key, value);
+        if (value == null) {
+            index.remove(key);
+        } else {
+            index.put(key, value);
+        }
     }
 
     @Override
     public Optional<V> searchForKey(K key) {
         return Optional.ofNullable(index.get(key));
     }
+
+    /**
+     * Обходит все ключи индекса. Обновления, идущие параллельно с обходом, могут быть не видны
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        index.forEach(action);
+    }
 }
@@ -0,0 +1,100 @@
+package com.itmo.java.basics.index.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Индекс имен (баз данных, таблиц) с поиском прямо по байтам имени из RESP команды, без создания строк и ключей.
+ * <p>
+ * Имена добавляются редко, а ищутся на каждую команду, поэтому индекс copy-on-write:
+ * поиск читает неизменяемый снимок открытой адресации без блокировок, добавление пересобирает снимок.
+ */
+public class NameIndex<V> {
+
+    private volatile Entry<V>[] table = newTable(16);
+    private volatile int size;
+
+    /**
+     * Ищет значение по байтам имени
+     *
+     * @return значение или {@code null}, если имени нет
+     */
+    public V get(byte[] name) {
+        if (name == null) {
+            return null;
+        }
+        Entry<V>[] snapshot = table;
+        int mask = snapshot.length - 1;
+        for (int i = Arrays.hashCode(name) & mask; ; i = (i + 1) & mask) {
+            Entry<V> entry = snapshot[i];
+            if (entry == null) {
+                return null;
+            }
+            if (Arrays.equals(entry.name, name)) {
+                return entry.value;
+            }
+        }
+    }
+
+    public V get(String name) {
+        return name == null ? null : get(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Добавляет или заменяет значение по имени
+     */
+    public synchronized void put(String name, V value) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        Entry<V>[] snapshot = table;
+        List<Entry<V>> entries = new ArrayList<>(size + 1);
+        for (Entry<V> entry : snapshot) {
+            if (entry != null && !Arrays.equals(entry.name, key)) {
+                entries.add(entry);
+            }
+        }
+        entries.add(new Entry<>(key, value));
+
+        int capacity = snapshot.length;
+        while (capacity < entries.size() * 2) {
+            capacity *= 2;
+        }
+        Entry<V>[] rebuilt = newTable(capacity);
+        for (Entry<V> entry : entries) {
+            int i = Arrays.hashCode(entry.name) & (capacity - 1);
+            while (rebuilt[i] != null) {
+                i = (i + 1) & (capacity - 1);
+            }
+            rebuilt[i] = entry;
+        }
+        size = entries.size();
+        table = rebuilt;
+    }
+
+    public Collection<V> values() {
+        List<V> values = new ArrayList<>(size);
+        for (Entry<V> entry : table) {
+            if (entry != null) {
+                values.add(entry.value);
+            }
+        }
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newTable(int capacity) {
+        return (Entry<V>[]) new Entry<?>[capacity];
+    }
+
+    private static final class Entry<V> {
+        private final byte[] name;
+        private final V value;
+
+        private Entry(byte[] name, V value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
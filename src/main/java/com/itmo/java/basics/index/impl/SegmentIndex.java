@@ -1,6 +1,7 @@
 package com.itmo.java.basics.index.impl;
 
 import com.itmo.java.basics.index.SegmentOffsetInfo;
+import com.itmo.java.basics.logic.ObjectKey;
 
-public class SegmentIndex extends MapBasedKvsIndex<String, SegmentOffsetInfo> {
+public class SegmentIndex extends MapBasedKvsIndex<ObjectKey, SegmentOffsetInfo> {
 }
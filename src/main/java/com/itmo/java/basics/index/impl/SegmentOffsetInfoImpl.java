@@ -1,16 +1,28 @@
 package com.itmo.java.basics.index.impl;
 
 import com.itmo.java.basics.index.SegmentOffsetInfo;
+import com.itmo.java.basics.logic.DatabaseRecord;
 
 public class SegmentOffsetInfoImpl implements SegmentOffsetInfo {
     private final long offset;
+    private final long expiresAt;
 
     public SegmentOffsetInfoImpl(long offset) {
+        this(offset, DatabaseRecord.NO_EXPIRATION);
+    }
+
+    public SegmentOffsetInfoImpl(long offset, long expiresAt) {
         this.offset = offset;
+        this.expiresAt = expiresAt;
     }
 
     @Override
     public long getOffset() {
         return this.offset;
     }
+
+    @Override
+    public long getExpiresAt() {
+        return this.expiresAt;
+    }
 }
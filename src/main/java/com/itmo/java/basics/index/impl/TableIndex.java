@@ -1,6 +1,7 @@
 package com.itmo.java.basics.index.impl;
 
+import com.itmo.java.basics.logic.ObjectKey;
 import com.itmo.java.basics.logic.Segment;
 
-public class TableIndex extends MapBasedKvsIndex<String, Segment> {
+public class TableIndex extends MapBasedKvsIndex<ObjectKey, Segment> {
 }
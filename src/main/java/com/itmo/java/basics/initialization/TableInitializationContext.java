@@ -1,9 +1,12 @@
 package com.itmo.java.basics.initialization;
 
 import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.logic.ObjectKey;
 import com.itmo.java.basics.logic.Segment;
+import com.itmo.java.basics.logic.impl.SegmentManifest;
 
 import java.nio.file.Path;
+import java.util.Map;
 
 public interface TableInitializationContext {
     /**
@@ -40,4 +43,34 @@ public interface TableInitializationContext {
      * @param segment новый сегмент
      */
     void updateCurrentSegment(Segment segment);
+
+    /**
+     * Запоминает ключ, актуальная запись которого имеет неистекший срок жизни.
+     * Повторный вызов для ключа заменяет срок, запись без срока убирает ключ
+     *
+     * @param objectKey ключ
+     * @param expiresAt срок или {@link com.itmo.java.basics.logic.DatabaseRecord#NO_EXPIRATION}
+     */
+    void updateExpiration(ObjectKey objectKey, long expiresAt);
+
+    /**
+     * Возвращает ключи со сроком жизни, найденные в сегментах таблицы, и их сроки
+     *
+     * @return сроки по ключам
+     */
+    Map<ObjectKey, Long> getExpiringKeys();
+
+    /**
+     * Возвращает каталог сегментов инициализируемой таблицы.
+     *
+     * @return каталог сегментов или null, если он еще не прочитан
+     */
+    SegmentManifest getManifest();
+
+    /**
+     * Запоминает прочитанный каталог сегментов таблицы.
+     *
+     * @param manifest каталог сегментов
+     */
+    void updateManifest(SegmentManifest manifest);
 }
@@ -5,20 +5,43 @@ import com.itmo.java.basics.index.impl.TableIndex;
 import com.itmo.java.basics.initialization.InitializationContext;
 import com.itmo.java.basics.initialization.Initializer;
 import com.itmo.java.basics.logic.impl.DatabaseImpl;
+import com.itmo.java.basics.logic.impl.LazyTable;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DatabaseInitializer implements Initializer {
 
     private final TableInitializer tableInitializer;
 
+    private final boolean lazyTables;
+
+    /**
+     * Неоткрытые таблицы и их директории, ждущие фонового прогрева
+     */
+    private final Map<LazyTable, File> unopenedTables = new HashMap<>();
+
     public DatabaseInitializer(TableInitializer tableInitializer) {
+        this(tableInitializer, false);
+    }
+
+    /**
+     * @param tableInitializer инициализатор таблиц
+     * @param lazyTables       {@code true} - таблицы не индексируются при старте, а регистрируются неоткрытыми
+     *                         ({@link LazyTable}) и открываются при первом обращении или прогреве ({@link #startWarmUp()})
+     */
+    public DatabaseInitializer(TableInitializer tableInitializer, boolean lazyTables) {
         this.tableInitializer = tableInitializer;
+        this.lazyTables = lazyTables;
     }
 
     /**
      * Добавляет в контекст информацию об инициализируемой бд.
-     * Запускает инициализацию всех таблиц это базы
+     * Запускает инициализацию всех таблиц это базы, а в ленивом режиме только регистрирует их
      *
      * @param initialContext контекст с информацией об инициализируемой бд и об окружении
      * @throws DatabaseException если в контексте лежит неправильный путь к базе, невозможно прочитать содержимого папки,
@@ -40,12 +63,23 @@ public class DatabaseInitializer implements Initializer {
         }
 
         for (File i : listFiles) {
-            var tableContext = new TableInitializationContextImpl(i.getName(),
-                    dbContext.getDatabasePath(), new TableIndex());
+            if (lazyTables) {
+                // каждая попытка открытия начинает с чистого контекста: неудачная могла заполнить индекс наполовину
+                var table = new LazyTable(i.getName(), () -> tableInitializer.initializeTable(
+                        new TableInitializationContextImpl(i.getName(), dbContext.getDatabasePath(), new TableIndex()))
+                        .orElseThrow(() -> new DatabaseException(String.format("Cannot read directory of table \"%s\"",
+                                i.getName()))));
+                dbContext.addTable(table);
+                synchronized (unopenedTables) {
+                    unopenedTables.put(table, i);
+                }
+                continue;
+            }
 
             tableInitializer.perform(InitializationContextImpl.builder()
                     .currentDatabaseContext(dbContext)
-                    .currentTableContext(tableContext)
+                    .currentTableContext(new TableInitializationContextImpl(i.getName(),
+                            dbContext.getDatabasePath(), new TableIndex()))
                     .build()
             );
         }
@@ -53,4 +87,49 @@ public class DatabaseInitializer implements Initializer {
         var database = DatabaseImpl.initializeFromContext(dbContext);
         initialContext.executionEnvironment().addDatabase(database);
     }
+
+    /**
+     * Запускает в фоновом потоке открытие таблиц, зарегистрированных в ленивом режиме. Первыми открываются
+     * таблицы, которые менялись последними: время последнего изменения файлов таблицы - приближение
+     * последнего обращения к ней. Таблицы, открытые обращениями раньше прогрева, не открываются повторно.
+     * Ошибка открытия таблицы не останавливает прогрев: она повторится при обращении к таблице
+     */
+    public void startWarmUp() {
+        Map<LazyTable, File> tables;
+        synchronized (unopenedTables) {
+            if (unopenedTables.isEmpty()) {
+                return;
+            }
+            tables = new HashMap<>(unopenedTables);
+            unopenedTables.clear();
+        }
+
+        var warmUp = new Thread(() -> {
+            Map<LazyTable, Long> lastModified = new HashMap<>();
+            tables.forEach((table, directory) -> lastModified.put(table, lastModified(directory)));
+            List<LazyTable> order = new ArrayList<>(tables.keySet());
+            order.sort(Comparator.comparing(lastModified::get, Comparator.reverseOrder()));
+
+            for (LazyTable table : order) {
+                try {
+                    table.open();
+                } catch (DatabaseException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "kvs-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private static long lastModified(File directory) {
+        long result = directory.lastModified();
+        var listFiles = directory.listFiles();
+        if (listFiles != null) {
+            for (File file : listFiles) {
+                result = Math.max(result, file.lastModified());
+            }
+        }
+        return result;
+    }
 }
@@ -18,7 +18,8 @@ public class DatabaseServerInitializer implements Initializer {
 
     /**
      * Если заданная в окружении директория не существует - создает ее
-     * Добавляет информацию о существующих в директории базах, начинает их инициализацию
+     * Добавляет информацию о существующих в директории базах, начинает их инициализацию.
+     * Если таблицы открываются лениво, после регистрации всех баз запускает фоновый прогрев таблиц
      *
      * @param context контекст, содержащий информацию об окружении
      * @throws DatabaseException если произошла ошибка при создании директории, ее обходе или ошибка инициализации бд
@@ -53,5 +54,7 @@ public class DatabaseServerInitializer implements Initializer {
                     .currentDatabaseContext(databaseContext)
                     .build());
         }
+
+        databaseInitializer.startWarmUp();
     }
 }
@@ -1,21 +1,31 @@
 package com.itmo.java.basics.initialization.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.index.impl.HashOffsetInfo;
 import com.itmo.java.basics.index.impl.SegmentIndex;
 import com.itmo.java.basics.index.impl.SegmentOffsetInfoImpl;
 import com.itmo.java.basics.initialization.InitializationContext;
 import com.itmo.java.basics.initialization.Initializer;
+import com.itmo.java.basics.initialization.TableInitializationContext;
 import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
 import com.itmo.java.basics.logic.WritableDatabaseRecord;
+import com.itmo.java.basics.logic.impl.GroupMarkerDatabaseRecord;
 import com.itmo.java.basics.logic.impl.SegmentImpl;
 import com.itmo.java.basics.logic.io.DatabaseInputStream;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.LinkedList;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class SegmentInitializer implements Initializer {
@@ -24,6 +34,15 @@ public class SegmentInitializer implements Initializer {
      * Добавляет в контекст информацию об инициализируемом сегменте.
      * Составляет индекс сегмента
      * Обновляет инфу в индексе таблицы
+     * <br/>
+     * Удаленные и истекшие ключи убираются из индексов, ключи с неистекшим сроком жизни запоминаются в контексте таблицы
+     * <br/>
+     * Записи атомарной группы применяются только при встрече записи о ее завершении. Незавершенная группа
+     * и недописанная запись в конце файла отбрасываются, а файл обрезается до последней целой записи,
+     * чтобы новые записи шли сразу за ней
+     * <br/>
+     * Если в контексте сегмента указан ненулевой размер, первые байты сегмента уже проиндексированы
+     * (индекс сегмента восстановлен из снимка) и сегмент дочитывается с этого смещения
      *
      * @param context контекст с информацией об инициализируемой бд и об окружении
      * @throws DatabaseException если в контексте лежит неправильный путь к сегменту, невозможно прочитать содержимое. Ошибка в содержании
@@ -34,24 +53,46 @@ public class SegmentInitializer implements Initializer {
         var segmentContext = context.currentSegmentContext();
         var path = segmentContext.getSegmentPath();
         var segmentIndex = segmentContext.getIndex();
-        long currentSize = 0;
+        long currentSize = segmentContext.getCurrentSize();
 
         if (!Files.exists(path)) {
             throw new DatabaseException(String.format("No segment with name \"%s\"",
                     segmentContext.getSegmentName()));
         }
 
-        List<String> listKeys = new LinkedList<>();
+        Map<ObjectKey, Boolean> liveKeys = new LinkedHashMap<>();
+        var tableContext = context.currentTableContext();
 
-        try (DatabaseInputStream dis = new DatabaseInputStream(new FileInputStream(path.toString()))) {
+        try (FileInputStream file = new FileInputStream(path.toString());
+             DatabaseInputStream dis = new DatabaseInputStream(file)) {
+            file.getChannel().position(currentSize);
+            List<DatabaseRecord> group = null;
+            long offset = currentSize;
             Optional<DatabaseRecord> dbUnit = dis.readDbUnit();
             while (dbUnit.isPresent()) {
                 var dbr = dbUnit.get();
 
-                segmentIndex.onIndexedEntityUpdated(new String(dbr.getKey()), new SegmentOffsetInfoImpl(currentSize));
+                if (dbr instanceof GroupMarkerDatabaseRecord) {
+                    if (((GroupMarkerDatabaseRecord) dbr).isBegin()) {
+                        group = new ArrayList<>();
+                    } else if (group != null) {
+                        long groupOffset = currentSize + GroupMarkerDatabaseRecord.BEGIN_RECORD.size();
+                        for (DatabaseRecord grouped : group) {
+                            apply(grouped, groupOffset, segmentIndex, tableContext, liveKeys);
+                            groupOffset += grouped.size();
+                        }
+                        group = null;
+                    }
+                } else if (group != null) {
+                    group.add(dbr);
+                } else {
+                    apply(dbr, offset, segmentIndex, tableContext, liveKeys);
+                }
 
-                currentSize += dbr.size();
-                listKeys.add(new String(dbr.getKey()));
+                offset += dbr.size();
+                if (group == null) {
+                    currentSize = offset;
+                }
                 dbUnit = dis.readDbUnit();
             }
 
@@ -59,17 +100,59 @@ public class SegmentInitializer implements Initializer {
             throw new DatabaseException("Something gone wrong while initialising segment", e);
         }
 
+        try {
+            if (Files.size(path) > currentSize) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(currentSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while truncating segment " + path, e);
+        }
+
+        var manifest = tableContext.getManifest();
         var segment = SegmentImpl.initializeFromContext(new SegmentInitializationContextImpl(
                 segmentContext.getSegmentName(),
                 segmentContext.getSegmentPath(),
                 currentSize,
                 segmentIndex
-        ));
-        for (String s : listKeys) {
-            context.currentTableContext().getTableIndex().onIndexedEntityUpdated(s, segment);
+        ), manifest == null ? RolloverPolicy.DEFAULT_SEGMENT_SIZE : manifest.getPolicy().getSegmentSize());
+        for (Map.Entry<ObjectKey, Boolean> key : liveKeys.entrySet()) {
+            tableContext.getTableIndex().onIndexedEntityUpdated(key.getKey(), key.getValue() ? segment : null);
         }
-        context.currentTableContext().updateCurrentSegment(segment);
+        tableContext.updateCurrentSegment(segment);
 
     }
 
+    /**
+     * Добавляет запись, лежащую по смещению {@code offset}, в индекс сегмента и в сроки жизни таблицы
+     */
+    private static void apply(DatabaseRecord dbr, long offset, SegmentIndex segmentIndex,
+                              TableInitializationContext tableContext, Map<ObjectKey, Boolean> liveKeys) {
+        var key = ObjectKey.wrap(dbr.getKey());
+        boolean expired = SegmentImpl.isExpired(dbr.getExpiresAt());
+        if (dbr.isHashDelta()) {
+            segmentIndex.onIndexedEntityUpdated(key, hashOffsetInfo(segmentIndex, key, dbr, offset));
+        } else {
+            segmentIndex.onIndexedEntityUpdated(key,
+                    expired ? null : new SegmentOffsetInfoImpl(offset, dbr.getExpiresAt()));
+        }
+        tableContext.updateExpiration(key, expired ? DatabaseRecord.NO_EXPIRATION : dbr.getExpiresAt());
+        liveKeys.put(key, dbr.isValuePresented() && !expired);
+    }
+
+    /**
+     * Восстанавливает цепочку изменений хэша: обычное изменение продолжает цепочку, записанную ранее в этом сегменте
+     */
+    private static HashOffsetInfo hashOffsetInfo(SegmentIndex segmentIndex, ObjectKey key, DatabaseRecord dbr, long offset) {
+        HashOffsetInfo previous = null;
+        if (!HashDelta.isReset(dbr.getValue())) {
+            var offsetInfo = segmentIndex.searchForKey(key);
+            if (offsetInfo.isPresent() && offsetInfo.get() instanceof HashOffsetInfo) {
+                previous = (HashOffsetInfo) offsetInfo.get();
+            }
+        }
+        return new HashOffsetInfo(offset, previous);
+    }
+
 }
@@ -2,10 +2,15 @@ package com.itmo.java.basics.initialization.impl;
 
 import com.itmo.java.basics.index.impl.TableIndex;
 import com.itmo.java.basics.initialization.TableInitializationContext;
+import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.ObjectKey;
 import com.itmo.java.basics.logic.Segment;
+import com.itmo.java.basics.logic.impl.SegmentManifest;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 
 public class TableInitializationContextImpl implements TableInitializationContext {
 
@@ -13,6 +18,8 @@ public class TableInitializationContextImpl implements TableInitializationContex
     private final Path databasePath;
     private final TableIndex index;
     private Segment currentSegment;
+    private SegmentManifest manifest;
+    private final Map<ObjectKey, Long> expiringKeys = new HashMap<>();
 
     public TableInitializationContextImpl(String tableName, Path databasePath, TableIndex tableIndex) {
         this.tableName = tableName;
@@ -44,4 +51,28 @@ public class TableInitializationContextImpl implements TableInitializationContex
     public void updateCurrentSegment(Segment segment) {
         currentSegment = segment;
     }
+
+    @Override
+    public void updateExpiration(ObjectKey objectKey, long expiresAt) {
+        if (expiresAt == DatabaseRecord.NO_EXPIRATION) {
+            expiringKeys.remove(objectKey);
+        } else {
+            expiringKeys.put(objectKey, expiresAt);
+        }
+    }
+
+    @Override
+    public Map<ObjectKey, Long> getExpiringKeys() {
+        return expiringKeys;
+    }
+
+    @Override
+    public SegmentManifest getManifest() {
+        return manifest;
+    }
+
+    @Override
+    public void updateManifest(SegmentManifest manifest) {
+        this.manifest = manifest;
+    }
 }
@@ -1,15 +1,29 @@
 package com.itmo.java.basics.initialization.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.index.SegmentOffsetInfo;
 import com.itmo.java.basics.index.impl.SegmentIndex;
+import com.itmo.java.basics.index.impl.TableIndex;
 import com.itmo.java.basics.initialization.InitializationContext;
 import com.itmo.java.basics.initialization.Initializer;
+import com.itmo.java.basics.initialization.TableInitializationContext;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.impl.IndexSnapshot;
+import com.itmo.java.basics.logic.impl.PartitionedTable;
+import com.itmo.java.basics.logic.impl.SegmentManifest;
 import com.itmo.java.basics.logic.impl.TableImpl;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class TableInitializer implements Initializer {
 
@@ -21,7 +35,10 @@ public class TableInitializer implements Initializer {
 
     /**
      * Добавляет в контекст информацию об инициализируемой таблице.
-     * Запускает инициализацию всех сегментов в порядке их создания (из имени)
+     * Запускает инициализацию всех сегментов в порядке их создания (из каталога сегментов таблицы)
+     * <br/>
+     * Если директория таблицы состоит из директорий партиций, то каждая партиция инициализируется
+     * как отдельная цепочка сегментов, партиции загружаются параллельно
      *
      * @param context контекст с информацией об инициализируемой бд, окружении, таблицы
      * @throws DatabaseException если в контексте лежит неправильный путь к таблице, невозможно прочитать содержимого папки,
@@ -29,34 +46,124 @@ public class TableInitializer implements Initializer {
      */
     @Override
     public void perform(InitializationContext context) throws DatabaseException {
+        var table = initializeTable(context.currentTableContext());
+        if (table.isPresent()) {
+            context.currentDbContext().addTable(table.get());
+        }
+    }
+
+    /**
+     * Инициализирует таблицу, не добавляя ее в контекст бд (см {@link #perform(InitializationContext)}).
+     * Директория таблицы просматривается, только если в ней нет каталога сегментов: это партиционированная таблица
+     * или таблица, созданная до появления каталогов
+     *
+     * @param tableContext контекст с информацией об инициализируемой таблице
+     * @return таблицу или {@link Optional#empty()}, если содержимое директории таблицы не удалось прочитать
+     * @throws DatabaseException если в контексте лежит неправильный путь к таблице или возникла ошибка дочерних инициализаторов
+     */
+    Optional<Table> initializeTable(TableInitializationContext tableContext) throws DatabaseException {
 
-        var tableContext = context.currentTableContext();
         var file = new File(tableContext.getTablePath().toString());
 
         if (!file.exists()) {
             throw new DatabaseException(String.format("No directory with name \"%s\"", tableContext.getTableName()));
         }
 
-        var listFiles = file.listFiles();
-        if (listFiles == null) {
-            return;
+        if (!new File(file, SegmentManifest.FILE_NAME).exists()) {
+            var listFiles = file.listFiles();
+            if (listFiles == null) {
+                return Optional.empty();
+            }
+
+            if (listFiles.length > 0 && Arrays.stream(listFiles).allMatch(File::isDirectory)) {
+                return Optional.of(initializePartitions(tableContext, listFiles.length));
+            }
+        }
+
+        initializeSegments(tableContext);
+
+        return Optional.of(TableImpl.initializeFromContext(tableContext));
+    }
+
+    private Table initializePartitions(TableInitializationContext tableContext, int partitionCount) throws DatabaseException {
+
+        List<TableInitializationContext> partitionContexts = new ArrayList<>(partitionCount);
+        List<CompletableFuture<Void>> loads = new ArrayList<>(partitionCount);
+
+        for (int i = 0; i < partitionCount; i++) {
+            var partitionContext = new TableInitializationContextImpl(PartitionedTable.partitionName(i),
+                    tableContext.getTablePath(), new TableIndex());
+            if (!new File(partitionContext.getTablePath().toString()).isDirectory()) {
+                throw new DatabaseException(String.format("No partition \"%s\" in table \"%s\"",
+                        partitionContext.getTableName(), tableContext.getTableName()));
+            }
+
+            partitionContexts.add(partitionContext);
+            loads.add(CompletableFuture.runAsync(() -> {
+                try {
+                    initializeSegments(partitionContext);
+                } catch (DatabaseException e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DatabaseException) {
+                throw (DatabaseException) e.getCause();
+            }
+            throw new DatabaseException("Something gone wrong while initialising partitions", e.getCause());
         }
 
-        var list = Arrays.asList(listFiles);
-        Collections.sort(list);
+        return PartitionedTable.initializeFromContext(tableContext.getTableName(), partitionContexts);
+    }
 
-        for (File i : list) {
-            var segmentContext = new SegmentInitializationContextImpl(i.getName(),
-                    Paths.get(tableContext.getTablePath().toString(), i.getName()), 0, new SegmentIndex());
+    /**
+     * Инициализирует сегменты в порядке, записанном в каталоге сегментов таблицы ({@link SegmentManifest}).
+     * <br/>
+     * Если у таблицы есть подходящий снимок индекса ({@link IndexSnapshot}), индексы покрытых им сегментов
+     * восстанавливаются из снимка, а сегменты дочитываются только после размера, записанного в снимке.
+     * Ключ из снимка попадает в индекс таблицы, если дочитанные записи его сегмента его не изменили:
+     * более новые записи сами обновляют индекс таблицы
+     */
+    private void initializeSegments(TableInitializationContext tableContext) throws DatabaseException {
+
+        var manifest = SegmentManifest.load(tableContext.getTablePath());
+        tableContext.updateManifest(manifest);
+
+        List<String> segmentNames = manifest.getSegmentNames();
+        var snapshot = IndexSnapshot.load(tableContext.getTablePath(), segmentNames);
+
+        for (int i = 0; i < segmentNames.size(); i++) {
+            var segmentIndex = new SegmentIndex();
+            long indexedSize = 0;
+            Map<ObjectKey, SegmentOffsetInfo> restored = Collections.emptyMap();
+            if (snapshot.isPresent() && i < snapshot.get().getSegmentCount()) {
+                restored = snapshot.get().getEntries(i);
+                indexedSize = snapshot.get().getSegmentSize(i);
+                for (Map.Entry<ObjectKey, SegmentOffsetInfo> entry : restored.entrySet()) {
+                    segmentIndex.onIndexedEntityUpdated(entry.getKey(), entry.getValue());
+                    tableContext.updateExpiration(entry.getKey(), entry.getValue().getExpiresAt());
+                }
+            }
+
+            var segmentContext = new SegmentInitializationContextImpl(segmentNames.get(i),
+                    Paths.get(tableContext.getTablePath().toString(), segmentNames.get(i)), indexedSize, segmentIndex);
 
             segmentInitializer.perform(InitializationContextImpl.builder()
                     .currentTableContext(tableContext)
                     .currentSegmentContext(segmentContext)
                     .build()
             );
-        }
 
-        var table = TableImpl.initializeFromContext(tableContext);
-        context.currentDbContext().addTable(table);
+            var segment = tableContext.getCurrentSegment();
+            for (Map.Entry<ObjectKey, SegmentOffsetInfo> entry : restored.entrySet()) {
+                if (segmentIndex.searchForKey(entry.getKey()).orElse(null) == entry.getValue()) {
+                    tableContext.getTableIndex().onIndexedEntityUpdated(entry.getKey(), segment);
+                }
+            }
+        }
     }
 }
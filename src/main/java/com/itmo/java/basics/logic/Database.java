@@ -20,6 +20,27 @@ public interface Database {
      */
     void createTableIfNotExists(String tableName) throws DatabaseException;
 
+    /**
+     * Создает таблицу с указанным именем, разбитую на партиции, если это имя еще не занято.
+     * Каждая партиция имеет свою цепочку сегментов и свой индекс, ключи распределяются по партициям по хэшу.
+     *
+     * @param tableName      имя таблицы
+     * @param partitionCount количество партиций. Для одной партиции создается обычная таблица
+     * @throws DatabaseException если таблица с данным именем уже существует или если произошла ошибка ввода-вывода
+     */
+    void createTableIfNotExists(String tableName, int partitionCount) throws DatabaseException;
+
+    /**
+     * Создает таблицу, как {@link #createTableIfNotExists(String, int)}, с заданной политикой смены сегментов.
+     * Политика сохраняется в каталоге сегментов таблицы и действует после перезапуска.
+     *
+     * @param tableName      имя таблицы
+     * @param partitionCount количество партиций. Для одной партиции создается обычная таблица
+     * @param policy         размер и максимальный возраст сегментов таблицы
+     * @throws DatabaseException если таблица с данным именем уже существует или если произошла ошибка ввода-вывода
+     */
+    void createTableIfNotExists(String tableName, int partitionCount, RolloverPolicy policy) throws DatabaseException;
+
     /**
      * Записывает значение в указанную таблицу по переданному ключу.
      *
@@ -28,7 +49,14 @@ public interface Database {
      * @param objectValue значение, которое нужно записать
      * @throws DatabaseException если указанная таблица не была найдена или если произошла ошибка ввода-вывода
      */
-    void write(String tableName, String objectKey, byte[] objectValue) throws DatabaseException;
+    void write(String tableName, ObjectKey objectKey, byte[] objectValue) throws DatabaseException;
+
+    /**
+     * Записывает значение по ключу, заданному строкой в UTF-8. См. {@link #write(String, ObjectKey, byte[])}
+     */
+    default void write(String tableName, String objectKey, byte[] objectValue) throws DatabaseException {
+        write(tableName, ObjectKey.of(objectKey), objectValue);
+    }
 
     /**
      * Считывает значение из указанной таблицы по заданному ключу.
@@ -38,7 +66,34 @@ public interface Database {
      * @return значение, которое находится по ключу
      * @throws DatabaseException если не была найдена указанная таблица, или если не была найдена запись по данному ключу, или произошла ошибка ввода-вывода
      */
-    Optional<byte[]> read(String tableName, String objectKey) throws DatabaseException;
+    Optional<byte[]> read(String tableName, ObjectKey objectKey) throws DatabaseException;
 
-    void delete(String tableName, String objectKey) throws DatabaseException;
+    /**
+     * Считывает значение по ключу, заданному строкой в UTF-8. См. {@link #read(String, ObjectKey)}
+     */
+    default Optional<byte[]> read(String tableName, String objectKey) throws DatabaseException {
+        return read(tableName, ObjectKey.of(objectKey));
+    }
+
+    void delete(String tableName, ObjectKey objectKey) throws DatabaseException;
+
+    default void delete(String tableName, String objectKey) throws DatabaseException {
+        delete(tableName, ObjectKey.of(objectKey));
+    }
+
+    /**
+     * Возвращает таблицу по байтам имени, как они пришли в команде, не декодируя их в строку.
+     *
+     * @param tableName имя таблицы в UTF-8
+     * @return таблица
+     * @throws DatabaseException если таблица с таким именем не найдена
+     */
+    Table getTable(byte[] tableName) throws DatabaseException;
+
+    /**
+     * Закрывает все таблицы базы данных (см {@link Table#close()}).
+     *
+     * @throws DatabaseException если таблицу не удалось закрыть
+     */
+    void close() throws DatabaseException;
 }
\ No newline at end of file
@@ -1,9 +1,21 @@
 package com.itmo.java.basics.logic;
 
 public interface DatabaseCache {
-    byte[] get(String key);
+    byte[] get(ObjectKey key);
 
-    void set(String key, byte[] value);
+    void set(ObjectKey key, byte[] value);
 
-    void delete(String key);
+    void delete(ObjectKey key);
+
+    default byte[] get(String key) {
+        return get(ObjectKey.of(key));
+    }
+
+    default void set(String key, byte[] value) {
+        set(ObjectKey.of(key), value);
+    }
+
+    default void delete(String key) {
+        delete(ObjectKey.of(key));
+    }
 }
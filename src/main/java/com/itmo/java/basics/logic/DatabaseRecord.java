@@ -4,6 +4,11 @@ package com.itmo.java.basics.logic;
  * Представляет собой единицу хранения в БД
  */
 public interface DatabaseRecord {
+    /**
+     * Значение {@link #getExpiresAt()} для записей без срока жизни
+     */
+    long NO_EXPIRATION = 0;
+
     /**
      * Возвращает ключ
      */
@@ -23,5 +28,20 @@ public interface DatabaseRecord {
      * Индикатор, есть ли значение
      */
     boolean isValuePresented();
+
+    /**
+     * Возвращает момент истечения срока жизни значения в миллисекундах от эпохи
+     * или {@link #NO_EXPIRATION}, если срок не задан
+     */
+    default long getExpiresAt() {
+        return NO_EXPIRATION;
+    }
+
+    /**
+     * Является ли значение записи изменением хэша (см. {@link HashDelta})
+     */
+    default boolean isHashDelta() {
+        return false;
+    }
 }
 
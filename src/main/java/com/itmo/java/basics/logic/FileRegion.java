@@ -0,0 +1,91 @@
+package com.itmo.java.basics.logic;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Участок файла, в котором лежит значение: файла сегмента или временного файла с принятым по сети значением.
+ * Позволяет отдать значение, не читая его в память, например через {@link FileChannel#transferTo}.
+ * <p>
+ * Сегменты только дописываются, поэтому однажды записанный участок не меняется и остается валидным,
+ * даже если ключ потом перезаписали.
+ * <p>
+ * Содержимое небольшого участка может быть уже прочитано вместе с заголовком записи ({@link #prefetched}),
+ * тогда {@link #readAll()} не обращается к файлу.
+ */
+public final class FileRegion {
+
+    private final FileChannel channel;
+    private final long position;
+    private final int length;
+    private final byte[] content;
+
+    public FileRegion(FileChannel channel, long position, int length) {
+        this(channel, position, length, null);
+    }
+
+    private FileRegion(FileChannel channel, long position, int length, byte[] content) {
+        this.channel = channel;
+        this.position = position;
+        this.length = length;
+        this.content = content;
+    }
+
+    /**
+     * Создает участок, содержимое которого уже прочитано
+     *
+     * @param content байты участка, не копируются
+     */
+    public static FileRegion prefetched(FileChannel channel, long position, byte[] content) {
+        return new FileRegion(channel, position, content.length, content);
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Читает участок целиком в память
+     *
+     * @throws IOException если файл закончился раньше участка или произошла ошибка ввода-вывода
+     */
+    public byte[] readAll() throws IOException {
+        if (content != null) {
+            return content;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Segment file ended before the value");
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Передает участок в канал через {@link FileChannel#transferTo}, не копируя данные в heap
+     *
+     * @throws IOException если файл закончился раньше участка или произошла ошибка ввода-вывода
+     */
+    public void transferTo(WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long n = channel.transferTo(position + transferred, length - transferred, target);
+            if (n <= 0 && position + transferred >= channel.size()) {
+                throw new EOFException("Segment file ended before the value");
+            }
+            transferred += n;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.itmo.java.basics.logic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Изменение значения-хэша: набор записанных и удаленных полей.
+ * <p>
+ * Хэш хранится в сегментах цепочкой таких изменений. Полное изменение ({@link #isReset()}) заменяет хэш целиком
+ * и начинает цепочку, остальные меняют только свои поля, поэтому запись одного поля занимает место пропорционально
+ * полю, а не всему хэшу. При чтении изменения цепочки применяются по порядку.
+ * <p>
+ * Формат: флаги (1 байт), количество полей, затем для каждого поля размер имени, имя,
+ * размер значения (-1 - поле удалено) и значение.
+ */
+public final class HashDelta {
+
+    private static final byte RESET_FLAG = 1;
+    private static final int REMOVED_FIELD_SIZE = -1;
+
+    private final boolean reset;
+    private final Map<ObjectKey, byte[]> changes;
+
+    private HashDelta(boolean reset, Map<ObjectKey, byte[]> changes) {
+        this.reset = reset;
+        this.changes = changes;
+    }
+
+    /**
+     * Полное изменение, заменяющее хэш переданными полями
+     */
+    public static HashDelta full(Map<ObjectKey, byte[]> fields) {
+        return new HashDelta(true, new LinkedHashMap<>(fields));
+    }
+
+    /**
+     * Изменение, записывающее одно поле
+     */
+    public static HashDelta set(ObjectKey field, byte[] value) {
+        return new HashDelta(false, Collections.singletonMap(field, value));
+    }
+
+    /**
+     * Изменение, удаляющее одно поле
+     */
+    public static HashDelta remove(ObjectKey field) {
+        return new HashDelta(false, Collections.singletonMap(field, null));
+    }
+
+    /**
+     * Заменяет ли изменение хэш целиком
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Заменяет ли изменение, закодированное {@link #encode()}, хэш целиком. Само изменение не разбирается
+     */
+    public static boolean isReset(byte[] encoded) {
+        return encoded.length > 0 && (encoded[0] & RESET_FLAG) != 0;
+    }
+
+    /**
+     * Возвращает измененные поля. Значение null означает, что поле удалено
+     */
+    public Map<ObjectKey, byte[]> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    /**
+     * Применяет изменение к полям хэша
+     *
+     * @param fields текущие поля, изменяются на месте
+     */
+    public void applyTo(Map<ObjectKey, byte[]> fields) {
+        if (reset) {
+            fields.clear();
+        }
+        for (Map.Entry<ObjectKey, byte[]> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                fields.remove(change.getKey());
+            } else {
+                fields.put(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(reset ? RESET_FLAG : 0);
+            out.writeInt(changes.size());
+            for (Map.Entry<ObjectKey, byte[]> change : changes.entrySet()) {
+                out.writeInt(change.getKey().length());
+                out.write(change.getKey().getBytes());
+                if (change.getValue() == null) {
+                    out.writeInt(REMOVED_FIELD_SIZE);
+                } else {
+                    out.writeInt(change.getValue().length);
+                    out.write(change.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Разбирает изменение из формата {@link #encode()}
+     *
+     * @throws IOException если байты не являются изменением хэша
+     */
+    public static HashDelta decode(byte[] encoded) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            boolean reset = (in.readByte() & RESET_FLAG) != 0;
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Wrong hash fields count " + size);
+            }
+            Map<ObjectKey, byte[]> changes = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                byte[] field = readFully(in, in.readInt());
+                int valueSize = in.readInt();
+                changes.put(ObjectKey.wrap(field),
+                        valueSize == REMOVED_FIELD_SIZE ? null : readFully(in, valueSize));
+            }
+            return new HashDelta(reset, changes);
+        }
+    }
+
+    private static byte[] readFully(DataInputStream in, int size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Wrong hash field size " + size);
+        }
+        byte[] value = new byte[size];
+        in.readFully(value);
+        return value;
+    }
+}
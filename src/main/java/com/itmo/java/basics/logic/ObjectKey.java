@@ -0,0 +1,75 @@
+package com.itmo.java.basics.logic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Ключ записи в БД - неизменяемая обертка над байтами ключа с закэшированным хэшем.
+ * Ключ проходит от RESP команды до файла сегмента и обратно байтами, без преобразований в строку,
+ * поэтому ключом может быть любая последовательность байтов.
+ */
+public final class ObjectKey {
+
+    private final byte[] bytes;
+    private final int hash;
+
+    private ObjectKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Создает ключ над переданным массивом без копирования. Массив после этого нельзя изменять
+     *
+     * @throws NullPointerException если массив null
+     */
+    public static ObjectKey wrap(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("Key is null");
+        }
+        return new ObjectKey(bytes);
+    }
+
+    /**
+     * Создает ключ из строки в UTF-8
+     */
+    public static ObjectKey of(String key) {
+        return wrap(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Возвращает байты ключа без копирования. Массив нельзя изменять
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int length() {
+        return bytes.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ObjectKey)) {
+            return false;
+        }
+        ObjectKey other = (ObjectKey) o;
+        return hash == other.hash && Arrays.equals(bytes, other.bytes);
+    }
+
+    /**
+     * Ключ в виде строки в UTF-8. Для сообщений и логов
+     */
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.itmo.java.basics.logic;
+
+/**
+ * Когда таблица начинает новый сегмент: по размеру текущего сегмента или по его возрасту.
+ * Возраст отсчитывается от первой записи в сегмент, поэтому таблица без записей не плодит пустых сегментов.
+ * Политика задается при создании таблицы и хранится в ее каталоге сегментов.
+ */
+public final class RolloverPolicy {
+
+    /**
+     * Размер сегмента по умолчанию
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 100_000;
+
+    /**
+     * Возраст сегмента не ограничен
+     */
+    public static final long NO_MAX_AGE = 0;
+
+    public static final RolloverPolicy DEFAULT = new RolloverPolicy(DEFAULT_SEGMENT_SIZE, NO_MAX_AGE);
+
+    private final long segmentSize;
+    private final long maxAgeMillis;
+
+    /**
+     * @param segmentSize  размер, после которого сегмент становится только для чтения
+     * @param maxAgeMillis сколько миллисекунд после первой записи сегмент принимает записи, или {@link #NO_MAX_AGE}
+     * @throws IllegalArgumentException если размер не положителен или возраст отрицателен
+     */
+    public RolloverPolicy(long segmentSize, long maxAgeMillis) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive, got " + segmentSize);
+        }
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("Segment max age must not be negative, got " + maxAgeMillis);
+        }
+        this.segmentSize = segmentSize;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * Пора ли начать новый сегмент, если первая запись в текущий была в {@code firstWriteMillis}
+     */
+    public boolean isExpired(long firstWriteMillis, long nowMillis) {
+        return maxAgeMillis != NO_MAX_AGE && nowMillis - firstWriteMillis >= maxAgeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RolloverPolicy(segmentSize=" + segmentSize + ", maxAgeMillis=" + maxAgeMillis + ")";
+    }
+}
@@ -3,7 +3,11 @@ package com.itmo.java.basics.logic;
 import com.itmo.java.basics.exceptions.DatabaseException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Сегмент - append-only файл, хранящий пары ключ-значение, разделенные специальным символом.
@@ -28,7 +32,58 @@ public interface Segment {
      * @return {@code true} - если значение записалось, {@code false} - если нет
      * @throws IOException если произошла ошибка ввода-вывода.
      */
-    boolean write(String objectKey, byte[] objectValue) throws IOException;
+    default boolean write(ObjectKey objectKey, byte[] objectValue) throws IOException {
+        return write(objectKey, objectValue, DatabaseRecord.NO_EXPIRATION);
+    }
+
+    /**
+     * Записывает значение со сроком жизни. Срок хранится в записи, после него значение не читается.
+     *
+     * @param objectKey ключ, по которому нужно записать значение
+     * @param objectValue значение, которое нужно записать
+     * @param expiresAt срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}
+     * @return {@code true} - если значение записалось, {@code false} - если нет
+     * @throws IOException если произошла ошибка ввода-вывода.
+     */
+    boolean write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws IOException;
+
+    /**
+     * Записывает значение по ключу, заданному строкой в UTF-8. См. {@link #write(ObjectKey, byte[])}
+     */
+    default boolean write(String objectKey, byte[] objectValue) throws IOException {
+        return write(ObjectKey.of(objectKey), objectValue);
+    }
+
+    /**
+     * Дописывает несколько записей за один вызов. Записи принимаются по порядку, пока сегмент не станет read-only.
+     *
+     * @param records записи значений и удалений
+     * @return количество записанных записей с начала списка. 0 - если сегмент открыт только на чтение
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    int writeAll(List<WritableDatabaseRecord> records) throws IOException;
+
+    /**
+     * Дописывает записи одной группой, обрамленной служебными записями начала и конца.
+     * После перезапуска видны либо все записи группы, либо ни одной.
+     *
+     * @param records записи значений и удалений
+     * @return {@code true} - если группа записалась, {@code false} - если сегмент открыт только на чтение
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    boolean writeGroup(List<WritableDatabaseRecord> records) throws IOException;
+
+    /**
+     * Записывает значение, лежащее в участке файла, не читая его в память.
+     * Если запись прервалась, сегмент остается в состоянии до записи.
+     *
+     * @param objectKey ключ, по которому нужно записать значение
+     * @param objectValue участок файла со значением
+     * @param expiresAt срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}
+     * @return {@code true} - если значение записалось, {@code false} - если сегмент открыт только на чтение
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    boolean write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws IOException;
 
     /**
      * Считывает значение из сегмента по переданному ключу.
@@ -36,8 +91,128 @@ public interface Segment {
      * @param objectKey ключ, по которому нужно получить значение
      * @return значение, которое находится по ключу
      * @throws IOException если произошла ошибка ввода-вывода
+     * @throws DatabaseException если по ключу лежит хэш: его поля читаются {@link #readHash(ObjectKey)}
+     */
+    Optional<byte[]> read(ObjectKey objectKey) throws IOException, DatabaseException;
+
+    /**
+     * Считывает значение по ключу, заданному строкой в UTF-8. См. {@link #read(ObjectKey)}
+     */
+    default Optional<byte[]> read(String objectKey) throws IOException, DatabaseException {
+        return read(ObjectKey.of(objectKey));
+    }
+
+    /**
+     * Считывает значения по нескольким ключам. Реализация может читать записи в порядке их расположения в файле
+     *
+     * @param objectKeys ключи, по которым нужно получить значения
+     * @return значения в порядке ключей, {@link Optional#empty()} для отсутствующих
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws DatabaseException если по одному из ключей лежит хэш
+     */
+    default List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws IOException, DatabaseException {
+        List<Optional<byte[]>> values = new ArrayList<>(objectKeys.size());
+        for (ObjectKey objectKey : objectKeys) {
+            values.add(read(objectKey));
+        }
+        return values;
+    }
+
+    /**
+     * Дописывает изменение значения-хэша. Обычное изменение дописывается, только если актуальная запись ключа
+     * в этом сегменте - хэш и цепочка его изменений не слишком длинная, иначе нужно записать полное изменение.
+     *
+     * @param objectKey ключ хэша
+     * @param delta изменение полей
+     * @return {@code true} - если изменение записалось, {@code false} - если сегмент открыт только на чтение
+     * или изменение нельзя продолжить цепочкой
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    boolean writeHashDelta(ObjectKey objectKey, HashDelta delta) throws IOException;
+
+    /**
+     * Собирает поля значения-хэша, применяя цепочку его изменений по порядку.
+     *
+     * @param objectKey ключ хэша
+     * @return поля хэша или {@link Optional#empty()}, если ключа в сегменте нет или он удален
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws DatabaseException если по ключу лежит значение, не являющееся хэшем
+     */
+    Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws IOException, DatabaseException;
+
+    /**
+     * Находит значение одного поля хэша. Цепочка изменений читается от нового изменения к старому
+     * до первого изменения, затрагивающего поле, поэтому весь хэш не собирается.
+     *
+     * @param objectKey ключ хэша
+     * @param field поле хэша
+     * @return значение поля или {@link Optional#empty()}, если поля или ключа нет
+     * @throws IOException если произошла ошибка ввода-вывода
+     * @throws DatabaseException если по ключу лежит значение, не являющееся хэшем
+     */
+    Optional<byte[]> readHashField(ObjectKey objectKey, ObjectKey field) throws IOException, DatabaseException;
+
+    /**
+     * Находит участок файла сегмента, в котором лежит значение по ключу. Само значение не читается.
+     *
+     * @param objectKey ключ, по которому нужно найти значение
+     * @return участок со значением или {@link Optional#empty()}, если ключа в сегменте нет, он удален
+     * или значение - хэш, который собирается из нескольких записей
+     * @throws IOException если произошла ошибка ввода-вывода
+     */
+    Optional<FileRegion> locate(ObjectKey objectKey) throws IOException;
+
+    /**
+     * Асинхронный {@link #locate(ObjectKey)}: индекс проверяется в вызывающем потоке, а файл читается без его блокировки.
+     * Небольшие значения читаются вместе с заголовком записи и возвращаются участком с уже прочитанным содержимым.
+     * <br/>
+     * Реализация по умолчанию выполняет {@link #locate(ObjectKey)} синхронно.
+     *
+     * @param objectKey ключ, по которому нужно найти значение
+     * @return будущий участок со значением. Завершается с {@link IOException}, если произошла ошибка ввода-вывода
+     */
+    default CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+        try {
+            return CompletableFuture.completedFuture(locate(objectKey));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Проверяет по индексу, есть ли в сегменте запись ключа с неистекшим сроком жизни. Файл не читается.
+     *
+     * @param objectKey ключ, который нужно проверить
+     * @return {@code true} - если запись есть и ее срок не истек
      */
-    Optional<byte[]> read(String objectKey) throws IOException;
+    boolean contains(ObjectKey objectKey);
+
+    /**
+     * Проверяет по индексу, лежит ли по ключу хэш. Файл не читается.
+     *
+     * @param objectKey ключ, который нужно проверить
+     * @return {@code true} - если актуальная запись ключа - изменение хэша и ее срок не истек
+     */
+    boolean isHash(ObjectKey objectKey);
+
+    /**
+     * Возвращает срок жизни актуальной записи ключа по индексу. Файл не читается.
+     *
+     * @param objectKey ключ, срок которого нужно узнать
+     * @return срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}, если срока нет,
+     * записи нет или ее срок уже истек
+     */
+    long getExpiresAt(ObjectKey objectKey);
+
+    /**
+     * Убирает ключ из индекса сегмента, если его актуальная запись имеет указанный срок жизни.
+     * Файл не меняется: запись остается на диске, пока сегмент не будет пересобран.
+     *
+     * @param objectKey ключ, срок которого истек
+     * @param expiresAt срок, с которым ключ был записан
+     * @return {@code true} - если ключ убран, {@code false} - если ключ с тех пор перезаписан
+     */
+    boolean expire(ObjectKey objectKey, long expiresAt);
 
     /**
      * Возвращает {@code true} - если данный сегмент открыт только на чтение, {@code false} - если данный сегмент открыт на чтение и запись.
@@ -46,5 +221,25 @@ public interface Segment {
      */
     boolean isReadOnly();
 
-    boolean delete(String objectKey) throws IOException;
-}
\ No newline at end of file
+    /**
+     * Переводит сегмент в read-only, даже если место в нем осталось, и освобождает его файлы.
+     * Вызывается, когда таблица начинает новый сегмент
+     *
+     * @throws IOException если не удалось закрыть файл сегмента
+     */
+    void seal() throws IOException;
+
+    /**
+     * Закрывает файлы сегмента. Сегмент переходит в read-only, а чтения после закрытия открывают файл заново.
+     * Вызывается при закрытии таблицы
+     *
+     * @throws IOException если не удалось закрыть файл сегмента
+     */
+    void close() throws IOException;
+
+    boolean delete(ObjectKey objectKey) throws IOException;
+
+    default boolean delete(String objectKey) throws IOException {
+        return delete(ObjectKey.of(objectKey));
+    }
+}
@@ -2,7 +2,12 @@ package com.itmo.java.basics.logic;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Таблица - логическая сущность, представляющая собой набор файлов-сегментов, которые объединены одним
@@ -28,17 +33,212 @@ public interface Table {
      * @param objectValue значение, которое нужно записать
      * @throws DatabaseException если произошла ошибка ввода-вывода
      */
-    void write(String objectKey, byte[] objectValue) throws DatabaseException;
+    default void write(ObjectKey objectKey, byte[] objectValue) throws DatabaseException {
+        write(objectKey, objectValue, DatabaseRecord.NO_EXPIRATION);
+    }
+
+    /**
+     * Записывает в таблицу значение со сроком жизни. После срока значение не читается,
+     * а ключ вскоре убирается из индекса без записи удаления.
+     *
+     * @param objectKey ключ, по которому нужно записать значение
+     * @param objectValue значение, которое нужно записать
+     * @param expiresAt срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    void write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws DatabaseException;
+
+    /**
+     * Записывает значение по ключу, заданному строкой в UTF-8. См. {@link #write(ObjectKey, byte[])}
+     */
+    default void write(String objectKey, byte[] objectValue) throws DatabaseException {
+        write(ObjectKey.of(objectKey), objectValue);
+    }
+
+    /**
+     * Записывает в таблицу значение, лежащее в участке файла. Значение копируется в сегмент
+     * средствами ОС и не читается в память целиком.
+     *
+     * @param objectKey ключ, по которому нужно записать значение
+     * @param objectValue участок файла со значением
+     * @param expiresAt срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    void write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws DatabaseException;
+
+    /**
+     * Записывает значение, только если ключ есть или, наоборот, отсутствует в таблице.
+     * Проверка и запись атомарны: никакая другая запись этого ключа не может произойти между ними.
+     *
+     * @param objectKey ключ, по которому нужно записать значение
+     * @param objectValue значение, которое нужно записать
+     * @param expiresAt срок в миллисекундах от эпохи или {@link DatabaseRecord#NO_EXPIRATION}
+     * @param present {@code true} - записать, только если ключ есть, {@code false} - только если ключа нет
+     * @return {@code true}, если значение записано
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    boolean writeIf(ObjectKey objectKey, byte[] objectValue, long expiresAt, boolean present) throws DatabaseException;
+
+    /**
+     * Условная запись значения, лежащего в участке файла. См. {@link #writeIf(ObjectKey, byte[], long, boolean)}
+     * и {@link #write(ObjectKey, FileRegion, long)}
+     */
+    boolean writeIf(ObjectKey objectKey, FileRegion objectValue, long expiresAt, boolean present)
+            throws DatabaseException;
 
     /**
      * Считывает значение из таблицы по заданному ключу.
      *
      * @param objectKey ключ, по которому нужно получить значение
      * @return значение, которое находится по ключу
-     * @throws DatabaseException если не была найдена запись по данному ключу или произошла ошибка ввода-вывода
+     * @throws DatabaseException если по ключу лежит хэш ({@link #readHash(ObjectKey)}) или произошла ошибка ввода-вывода
      */
-    Optional<byte[]> read(String objectKey) throws DatabaseException;
+    Optional<byte[]> read(ObjectKey objectKey) throws DatabaseException;
 
-    void delete(String objectKey) throws DatabaseException;
-}
+    /**
+     * Считывает значение по ключу, заданному строкой в UTF-8. См. {@link #read(ObjectKey)}
+     */
+    default Optional<byte[]> read(String objectKey) throws DatabaseException {
+        return read(ObjectKey.of(objectKey));
+    }
+
+    /**
+     * Записывает несколько значений. Реализация может записать их за один захват блокировки таблицы
+     * и атомарно, так что после перезапуска видны либо все значения, либо ни одного.
+     *
+     * @param values значения по ключам. Значение null удаляет ключ
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    default void writeAll(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        for (Map.Entry<ObjectKey, byte[]> entry : values.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Записывает несколько значений атомарно: после перезапуска видны либо все значения, либо ни одного.
+     * В отличие от {@link #writeAll(Map)} таблица, которая не может этого гарантировать, отказывает в записи
+     *
+     * @param values значения по ключам. Значение null удаляет ключ
+     * @throws DatabaseException если таблица не может записать значения атомарно или произошла ошибка ввода-вывода
+     */
+    void writeBatch(Map<ObjectKey, byte[]> values) throws DatabaseException;
+
+    /**
+     * Считывает значения по нескольким ключам. Реализация может упорядочить чтения с диска по сегментам и смещениям.
+     *
+     * @param objectKeys ключи, по которым нужно получить значения
+     * @return значения в порядке ключей, {@link Optional#empty()} для отсутствующих
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    default List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws DatabaseException {
+        List<Optional<byte[]>> values = new ArrayList<>(objectKeys.size());
+        for (ObjectKey objectKey : objectKeys) {
+            values.add(read(objectKey));
+        }
+        return values;
+    }
 
+    /**
+     * Удаляет значения по нескольким ключам. Реализация может удалить их за один захват блокировки таблицы
+     * и атомарно, как {@link #writeAll(Map)}. Отсутствующие ключи пропускаются. Проверка наличия ключа и его удаление
+     * атомарны, поэтому параллельная запись ключа не может изменить возвращенное количество.
+     *
+     * @param objectKeys ключи, которые нужно удалить
+     * @return количество ключей, которые были в таблице и удалены
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    int deleteAll(Collection<ObjectKey> objectKeys) throws DatabaseException;
+
+    /**
+     * Атомарно читает значение по ключу, вычисляет новое и записывает его.
+     * Никакая другая запись этого ключа не может произойти между чтением и записью.
+     *
+     * @param objectKey ключ, значение которого нужно изменить
+     * @param updater функция, вычисляющая новое значение по текущему
+     * @return значение после операции: новое или текущее, если функция вернула null
+     * @throws DatabaseException если по ключу лежит хэш, функция не смогла вычислить значение
+     *                           или произошла ошибка ввода-вывода
+     */
+    Optional<byte[]> compute(ObjectKey objectKey, ValueUpdater updater) throws DatabaseException;
+
+    /**
+     * Считывает поля значения-хэша.
+     *
+     * @param objectKey ключ хэша
+     * @return поля хэша или {@link Optional#empty()}, если ключа нет
+     * @throws DatabaseException если по ключу лежит не хэш или произошла ошибка ввода-вывода
+     */
+    Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws DatabaseException;
+
+    /**
+     * Атомарно меняет поля значения-хэша. Если возможно, изменение дописывается к цепочке изменений хэша
+     * и занимает место пропорционально измененным полям. Отсутствующий ключ считается пустым хэшем.
+     *
+     * @param objectKey ключ хэша
+     * @param delta изменение полей
+     * @return прежние значения измененных полей (полей, которых не было, в нем нет), для полного изменения -
+     * все поля хэша до изменения, или {@link Optional#empty()}, если ключа не было
+     * @throws DatabaseException если по ключу лежит не хэш или произошла ошибка ввода-вывода
+     */
+    Optional<Map<ObjectKey, byte[]>> updateHash(ObjectKey objectKey, HashDelta delta) throws DatabaseException;
+
+    /**
+     * Проверяет по индексу, есть ли значение по ключу. Само значение не читается.
+     *
+     * @param objectKey ключ, который нужно проверить
+     * @return {@code true} - если по ключу есть значение, {@code false} - если ключа нет, он удален или истек
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    boolean contains(ObjectKey objectKey) throws DatabaseException;
+
+    /**
+     * Проверяет по индексу, лежит ли по ключу хэш. Само значение не читается.
+     *
+     * @param objectKey ключ, который нужно проверить
+     * @return {@code true} - если по ключу лежит хэш, {@code false} - если значение или ключа нет
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    boolean isHash(ObjectKey objectKey) throws DatabaseException;
+
+    /**
+     * Находит участок файла сегмента, в котором лежит значение по ключу. Само значение не читается.
+     *
+     * @param objectKey ключ, по которому нужно найти значение
+     * @return участок со значением или {@link Optional#empty()}, если значения нет на диске
+     * или его актуальная версия есть только в памяти. Тогда значение нужно читать {@link #read(ObjectKey)}
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    Optional<FileRegion> locate(ObjectKey objectKey) throws DatabaseException;
+
+    /**
+     * Асинхронный {@link #locate(ObjectKey)}: вызывающий поток не ждет диска. Если будущий участок пуст,
+     * значение нужно читать {@link #read(ObjectKey)}, и это чтение не обращается к диску, кроме как для хэшей.
+     * <br/>
+     * Реализация по умолчанию выполняет {@link #locate(ObjectKey)} синхронно.
+     *
+     * @param objectKey ключ, по которому нужно найти значение
+     * @return будущий участок со значением. Завершается с {@link DatabaseException}, если произошла ошибка ввода-вывода
+     */
+    default CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+        try {
+            return CompletableFuture.completedFuture(locate(objectKey));
+        } catch (DatabaseException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    void delete(ObjectKey objectKey) throws DatabaseException;
+
+    /**
+     * Закрывает таблицу: дожидается начатых записей и сохраняет то, что ускорит следующий запуск
+     * (например, снимок индекса). После закрытия таблица не принимает записей, а чтения продолжают работать.
+     *
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    void close() throws DatabaseException;
+
+    default void delete(String objectKey) throws DatabaseException {
+        delete(ObjectKey.of(objectKey));
+    }
+}
@@ -0,0 +1,19 @@
+package com.itmo.java.basics.logic;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+
+/**
+ * Функция изменения значения для атомарной операции чтение-изменение-запись {@link Table#compute(ObjectKey, ValueUpdater)}
+ */
+@FunctionalInterface
+public interface ValueUpdater {
+    /**
+     * Вычисляет новое значение по текущему
+     *
+     * @param currentValue текущее значение или null, если значения нет
+     * @return новое значение или null, если значение менять не нужно
+     * @throws DatabaseException если новое значение нельзя вычислить, например текущее значение не число.
+     *                           Тогда значение не меняется
+     */
+    byte[] update(byte[] currentValue) throws DatabaseException;
+}
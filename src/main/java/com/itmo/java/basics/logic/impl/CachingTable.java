@@ -2,22 +2,55 @@ package com.itmo.java.basics.logic.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
 import com.itmo.java.basics.logic.DatabaseCache;
+import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
 import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.ValueUpdater;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Декоратор для таблицы. Кэширует данные
+ * <p>
+ * Запись в таблицу и обновление кэша для одного ключа выполняются под одной блокировкой из набора,
+ * выбираемой по хэшу ключа, иначе две параллельные записи могли бы оставить в кэше устаревшее значение.
+ * Записи разных ключей друг друга не блокируют. Операции над несколькими ключами берут блокировки
+ * в порядке их номеров, поэтому не могут взаимно заблокироваться.
+ * <p>
+ * Одновременные промахи кэша по одному ключу в {@link #locateAsync(ObjectKey)} - путь чтения GET - объединяются:
+ * участок ищет и читает первый читатель, остальные получают его результат. Прочитанные значения в кэш
+ * не кладутся, потому что у них может быть срок жизни.
  */
 public class CachingTable implements Table {
     static final int CACHE_SIZE = 5_000;
+    /**
+     * Значения больше этого размера не кэшируются: их отдают прямо из файла сегмента
+     */
+    static final int MAX_CACHED_VALUE_SIZE = 64 * 1024;
+    private static final int KEY_LOCKS = 64;
 
     private final Table table;
     private final DatabaseCache databaseCache;
+    private final Lock[] keyLocks = new Lock[KEY_LOCKS];
+    private final ConcurrentMap<ObjectKey, CompletableFuture<Optional<FileRegion>>> locatesInFlight = new ConcurrentHashMap<>();
 
     public CachingTable(Table table) {
         this.table = table;
         databaseCache = new DatabaseCacheImpl(CACHE_SIZE);
+        for (int i = 0; i < KEY_LOCKS; i++) {
+            keyLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
@@ -25,14 +58,163 @@ public class CachingTable implements Table {
         return table.getName();
     }
 
+    /**
+     * Значения со сроком жизни не кэшируются: иначе кэш отдавал бы их после срока
+     */
+    @Override
+    public void write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            table.write(objectKey, objectValue, expiresAt);
+            if (expiresAt == DatabaseRecord.NO_EXPIRATION) {
+                updateCache(objectKey, objectValue);
+            } else {
+                evict(objectKey);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void writeAll(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        writeAll(values, false);
+    }
+
+    @Override
+    public void writeBatch(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        writeAll(values, true);
+    }
+
+    /**
+     * @param batch записать значения атомарно ({@link Table#writeBatch(Map)})
+     */
+    private void writeAll(Map<ObjectKey, byte[]> values, boolean batch) throws DatabaseException {
+        List<Lock> locks = lockAll(values.keySet());
+        try {
+            if (batch) {
+                table.writeBatch(values);
+            } else {
+                table.writeAll(values);
+            }
+            for (Map.Entry<ObjectKey, byte[]> entry : values.entrySet()) {
+                updateCache(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    private void updateCache(ObjectKey objectKey, byte[] objectValue) {
+        if (objectValue != null && objectValue.length > MAX_CACHED_VALUE_SIZE) {
+            evict(objectKey);
+        } else {
+            databaseCache.set(objectKey, objectValue);
+            forgetLocatesInFlight(objectKey);
+        }
+    }
+
+    /**
+     * Убирает значение из кэша после записи ключа
+     */
+    private void evict(ObjectKey objectKey) {
+        databaseCache.delete(objectKey);
+        forgetLocatesInFlight(objectKey);
+    }
+
+    /**
+     * Поиски участка, начатые до записи, могут вернуть прежнее значение. Вызывается после записи под блокировкой
+     * ключа, чтобы читатели, пришедшие после записи, не присоединялись к таким поискам
+     */
+    private void forgetLocatesInFlight(ObjectKey objectKey) {
+        locatesInFlight.remove(objectKey);
+    }
+
+    /**
+     * Значение из файла не кэшируется, из кэша удаляется прежнее значение
+     */
     @Override
-    public void write(String objectKey, byte[] objectValue) throws DatabaseException {
-        table.write(objectKey, objectValue);
-        databaseCache.set(objectKey, objectValue);
+    public void write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            table.write(objectKey, objectValue, expiresAt);
+            evict(objectKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Кэш обновляется под блокировкой ключа, только если таблица записала значение
+     */
+    @Override
+    public boolean writeIf(ObjectKey objectKey, byte[] objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            if (!table.writeIf(objectKey, objectValue, expiresAt, present)) {
+                return false;
+            }
+            if (expiresAt == DatabaseRecord.NO_EXPIRATION) {
+                updateCache(objectKey, objectValue);
+            } else {
+                evict(objectKey);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, FileRegion objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            if (!table.writeIf(objectKey, objectValue, expiresAt, present)) {
+                return false;
+            }
+            evict(objectKey);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Все записи ключа идут под его блокировкой, поэтому чтение из кэша или таблицы и запись под ней атомарны.
+     * В кэше лежат только значения без срока жизни, поэтому значение из кэша перезаписывается без срока.
+     * При промахе значение вычисляет таблица: она сохраняет срок жизни текущего значения
+     */
+    @Override
+    public Optional<byte[]> compute(ObjectKey objectKey, ValueUpdater updater) throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            byte[] currentValue = databaseCache.get(objectKey);
+            if (currentValue == null) {
+                Optional<byte[]> value = table.compute(objectKey, updater);
+                evict(objectKey);
+                return value;
+            }
+            byte[] newValue = updater.update(currentValue);
+            if (newValue == null) {
+                return Optional.of(currentValue);
+            }
+            table.write(objectKey, newValue);
+            updateCache(objectKey, newValue);
+            return Optional.of(newValue);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public Optional<byte[]> read(String objectKey) throws DatabaseException {
+    public Optional<byte[]> read(ObjectKey objectKey) throws DatabaseException {
         var fromCache = databaseCache.get(objectKey);
         if (fromCache != null) {
             return Optional.of(fromCache);
@@ -40,9 +222,166 @@ public class CachingTable implements Table {
         return table.read(objectKey);
     }
 
+    /**
+     * Из таблицы читаются только ключи, которых нет в кэше
+     */
     @Override
-    public void delete(String objectKey) throws DatabaseException {
-        table.delete(objectKey);
-        databaseCache.delete(objectKey);
+    public List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws DatabaseException {
+        List<Optional<byte[]>> values = new ArrayList<>(objectKeys.size());
+        List<Integer> missedPositions = new ArrayList<>();
+        List<ObjectKey> missedKeys = new ArrayList<>();
+
+        for (int i = 0; i < objectKeys.size(); i++) {
+            var fromCache = databaseCache.get(objectKeys.get(i));
+            values.add(Optional.ofNullable(fromCache));
+            if (fromCache == null) {
+                missedPositions.add(i);
+                missedKeys.add(objectKeys.get(i));
+            }
+        }
+
+        if (!missedKeys.isEmpty()) {
+            List<Optional<byte[]>> fromTable = table.readAll(missedKeys);
+            for (int i = 0; i < missedPositions.size(); i++) {
+                values.set(missedPositions.get(i), fromTable.get(i));
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Хэши не кэшируются: их поля меняются по отдельности
+     */
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws DatabaseException {
+        return table.readHash(objectKey);
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> updateHash(ObjectKey objectKey, HashDelta delta) throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            Optional<Map<ObjectKey, byte[]>> previous = table.updateHash(objectKey, delta);
+            evict(objectKey);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(ObjectKey objectKey) throws DatabaseException {
+        return databaseCache.get(objectKey) != null || table.contains(objectKey);
+    }
+
+    /**
+     * Хэши не кэшируются, поэтому значение из кэша - не хэш
+     */
+    @Override
+    public boolean isHash(ObjectKey objectKey) throws DatabaseException {
+        return databaseCache.get(objectKey) == null && table.isHash(objectKey);
+    }
+
+    /**
+     * Если значение есть в кэше, участок не ищется: значение дешевле отдать из памяти
+     */
+    @Override
+    public Optional<FileRegion> locate(ObjectKey objectKey) throws DatabaseException {
+        if (databaseCache.get(objectKey) != null) {
+            return Optional.empty();
+        }
+        return table.locate(objectKey);
+    }
+
+    /**
+     * При промахе кэша участок ищет только первый читатель, остальные получают то же будущее.
+     * Участки неизменяемы, а прочитанное содержимое только читается, поэтому его можно отдать всем
+     */
+    @Override
+    public CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+        if (databaseCache.get(objectKey) != null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        CompletableFuture<Optional<FileRegion>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<FileRegion>> existing = locatesInFlight.putIfAbsent(objectKey, flight);
+        if (existing != null) {
+            return existing;
+        }
+
+        table.locateAsync(objectKey).whenComplete((region, failure) -> {
+            locatesInFlight.remove(objectKey, flight);
+            if (failure == null) {
+                flight.complete(region);
+            } else {
+                flight.completeExceptionally(failure);
+            }
+        });
+        return flight;
+    }
+
+    @Override
+    public void delete(ObjectKey objectKey) throws DatabaseException {
+        Lock lock = lockFor(objectKey);
+        lock.lock();
+        try {
+            table.delete(objectKey);
+            evict(objectKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<ObjectKey> objectKeys) throws DatabaseException {
+        List<Lock> locks = lockAll(objectKeys);
+        try {
+            int deleted = table.deleteAll(objectKeys);
+            for (ObjectKey objectKey : objectKeys) {
+                evict(objectKey);
+            }
+            return deleted;
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        table.close();
+    }
+
+    private Lock lockFor(ObjectKey objectKey) {
+        return keyLocks[lockIndex(objectKey)];
+    }
+
+    private static int lockIndex(ObjectKey objectKey) {
+        return Math.floorMod(objectKey.hashCode(), KEY_LOCKS);
+    }
+
+    /**
+     * Берет блокировки всех ключей по возрастанию номеров, каждую один раз
+     */
+    private List<Lock> lockAll(Collection<ObjectKey> objectKeys) {
+        boolean[] needed = new boolean[KEY_LOCKS];
+        for (ObjectKey objectKey : objectKeys) {
+            needed[lockIndex(objectKey)] = true;
+        }
+        List<Lock> locked = new ArrayList<>();
+        for (int i = 0; i < KEY_LOCKS; i++) {
+            if (needed[i]) {
+                keyLocks[i].lock();
+                locked.add(keyLocks[i]);
+            }
+        }
+        return locked;
+    }
+
+    private static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.itmo.java.basics.logic.impl;
 
 import com.itmo.java.basics.logic.DatabaseCache;
+import com.itmo.java.basics.logic.ObjectKey;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -8,24 +9,24 @@ import java.util.Map;
 public class DatabaseCacheImpl implements DatabaseCache {
     private static final int CAPACITY = 5_000;
 
-    private final Map<String, byte[]> cacheMap;
+    private final Map<ObjectKey, byte[]> cacheMap;
 
     public DatabaseCacheImpl(int N) {
         cacheMap = new LRUMap<>(N);
     }
 
     @Override
-    public byte[] get(String key) {
+    public synchronized byte[] get(ObjectKey key) {
         return cacheMap.get(key);
     }
 
     @Override
-    public void set(String key, byte[] value) {
+    public synchronized void set(ObjectKey key, byte[] value) {
         cacheMap.put(key, value);
     }
 
     @Override
-    public void delete(String key) {
+    public synchronized void delete(ObjectKey key) {
         cacheMap.remove(key);
     }
 
@@ -2,16 +2,18 @@ package com.itmo.java.basics.logic.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
 import com.itmo.java.basics.initialization.DatabaseInitializationContext;
+import com.itmo.java.basics.index.impl.NameIndex;
 import com.itmo.java.basics.index.impl.TableIndex;
 import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
 import com.itmo.java.basics.logic.Table;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -19,12 +21,12 @@ public class DatabaseImpl implements Database {
 
     private final Path rootPath;
     private final String name;
-    private final Map<String, Table> tables;
+    private final NameIndex<Table> tables = new NameIndex<>();
 
     private DatabaseImpl(Path rootPath, String name, Map<String, Table> tables) {
         this.rootPath = rootPath;
         this.name = name;
-        this.tables = tables;
+        tables.forEach(this.tables::put);
     }
 
     /**
@@ -50,7 +52,7 @@ public class DatabaseImpl implements Database {
                     path.toString()), e);
         }
 
-        return new DatabaseImpl(databaseRoot, dbName, new HashMap<>());
+        return new DatabaseImpl(databaseRoot, dbName, Map.of());
     }
 
     public static Database initializeFromContext(DatabaseInitializationContext context) {
@@ -67,8 +69,12 @@ public class DatabaseImpl implements Database {
         return name;
     }
 
+    /**
+     * Создание таблиц синхронизировано, чтобы две одновременные команды не создавали одну и ту же таблицу.
+     * Чтение и запись в существующие таблицы идут без блокировки бд
+     */
     @Override
-    public void createTableIfNotExists(String tableName) throws DatabaseException {
+    public synchronized void createTableIfNotExists(String tableName) throws DatabaseException {
         if (tableName == null) {
             throw new DatabaseException("Your table name is null!");
         }
@@ -78,23 +84,62 @@ public class DatabaseImpl implements Database {
     }
 
     @Override
-    public void write(String tableName, String objectKey, byte[] objectValue) throws DatabaseException {
+    public void createTableIfNotExists(String tableName, int partitionCount) throws DatabaseException {
+        createTableIfNotExists(tableName, partitionCount, RolloverPolicy.DEFAULT);
+    }
+
+    @Override
+    public synchronized void createTableIfNotExists(String tableName, int partitionCount,
+                                                    RolloverPolicy policy) throws DatabaseException {
+        if (tableName == null) {
+            throw new DatabaseException("Your table name is null!");
+        }
+
+        Path databasePath = Paths.get(rootPath.toString(), name);
+        Table t = partitionCount == 1
+                ? TableImpl.create(tableName, databasePath, new TableIndex(), policy)
+                : PartitionedTable.create(tableName, databasePath, partitionCount, policy);
+        tables.put(tableName, t);
+    }
+
+    @Override
+    public void write(String tableName, ObjectKey objectKey, byte[] objectValue) throws DatabaseException {
         Table t = checkTable(tableName);
         t.write(objectKey, objectValue);
     }
 
     @Override
-    public Optional<byte[]> read(String tableName, String objectKey) throws DatabaseException {
+    public Optional<byte[]> read(String tableName, ObjectKey objectKey) throws DatabaseException {
         Table t = checkTable(tableName);
         return t.read(objectKey);
     }
 
     @Override
-    public void delete(String tableName, String objectKey) throws DatabaseException {
+    public void delete(String tableName, ObjectKey objectKey) throws DatabaseException {
         Table t = checkTable(tableName);
         t.delete(objectKey);
     }
 
+    @Override
+    public Table getTable(byte[] tableName) throws DatabaseException {
+
+        Table t = tables.get(tableName);
+
+        if (t == null) {
+            throw new DatabaseException(String.format("Table with name \"%s\" doesn't exists!",
+                    tableName == null ? null : new String(tableName, StandardCharsets.UTF_8)));
+        }
+
+        return t;
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        for (Table table : tables.values()) {
+            table.close();
+        }
+    }
+
     private Table checkTable(String tableName) throws DatabaseException {
 
         Table t = tables.get(tableName);
@@ -0,0 +1,60 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.logic.WritableDatabaseRecord;
+
+/**
+ * Запись в БД, означающая добавление значения по ключу с ограниченным сроком жизни.
+ * Кроме ключа и значения хранит момент истечения срока, поэтому срок переживает перезапуск
+ */
+public class ExpiringDatabaseRecord implements WritableDatabaseRecord {
+
+    /**
+     * Маркер срока жизни и сам срок, которые лежат в записи перед размером значения
+     */
+    static final int EXPIRATION_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final byte[] key;
+    private final byte[] value;
+    private final long expiresAt;
+
+    public ExpiringDatabaseRecord(byte[] key, byte[] value, long expiresAt) {
+        this.key = key;
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public byte[] getKey() {
+        return key;
+    }
+
+    @Override
+    public byte[] getValue() {
+        return value;
+    }
+
+    @Override
+    public long size() {
+        return getKeySize() + getValueSize() + 8 + EXPIRATION_HEADER_SIZE;
+    }
+
+    @Override
+    public boolean isValuePresented() {
+        return true;
+    }
+
+    @Override
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public int getKeySize() {
+        return key.length;
+    }
+
+    @Override
+    public int getValueSize() {
+        return value.length;
+    }
+}
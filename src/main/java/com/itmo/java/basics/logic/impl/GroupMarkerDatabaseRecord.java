@@ -0,0 +1,70 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.logic.DatabaseRecord;
+
+/**
+ * Служебная запись, обрамляющая группу записей, которые применяются атомарно.
+ * Хранится как одно число на месте размера ключа: {@link #BEGIN} перед группой и {@link #COMMIT} после нее.
+ * Группа без завершающей записи при инициализации отбрасывается
+ */
+public class GroupMarkerDatabaseRecord implements DatabaseRecord {
+
+    public static final int BEGIN = -2;
+    public static final int COMMIT = -3;
+
+    public static final GroupMarkerDatabaseRecord BEGIN_RECORD = new GroupMarkerDatabaseRecord(BEGIN);
+    public static final GroupMarkerDatabaseRecord COMMIT_RECORD = new GroupMarkerDatabaseRecord(COMMIT);
+
+    private final int marker;
+
+    private GroupMarkerDatabaseRecord(int marker) {
+        this.marker = marker;
+    }
+
+    /**
+     * Возвращает запись по маркеру
+     *
+     * @throws IllegalArgumentException если маркер неизвестен
+     */
+    public static GroupMarkerDatabaseRecord of(int marker) {
+        switch (marker) {
+            case BEGIN:
+                return BEGIN_RECORD;
+            case COMMIT:
+                return COMMIT_RECORD;
+            default:
+                throw new IllegalArgumentException("Unknown group marker " + marker);
+        }
+    }
+
+    public int getMarker() {
+        return marker;
+    }
+
+    /**
+     * Начинает ли запись группу
+     */
+    public boolean isBegin() {
+        return marker == BEGIN;
+    }
+
+    @Override
+    public byte[] getKey() {
+        return null;
+    }
+
+    @Override
+    public byte[] getValue() {
+        return null;
+    }
+
+    @Override
+    public long size() {
+        return Integer.BYTES;
+    }
+
+    @Override
+    public boolean isValuePresented() {
+        return false;
+    }
+}
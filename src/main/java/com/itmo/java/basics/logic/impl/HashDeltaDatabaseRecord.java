@@ -0,0 +1,58 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.WritableDatabaseRecord;
+
+/**
+ * Запись в БД, означающая изменение полей значения-хэша. Значение записи - изменение в формате {@link HashDelta#encode()}
+ */
+public class HashDeltaDatabaseRecord implements WritableDatabaseRecord {
+
+    /**
+     * Маркер изменения хэша, который лежит в записи перед размером значения
+     */
+    static final int HASH_DELTA_HEADER_SIZE = Integer.BYTES;
+
+    private final byte[] key;
+    private final byte[] delta;
+
+    public HashDeltaDatabaseRecord(byte[] key, byte[] delta) {
+        this.key = key;
+        this.delta = delta;
+    }
+
+    @Override
+    public byte[] getKey() {
+        return key;
+    }
+
+    @Override
+    public byte[] getValue() {
+        return delta;
+    }
+
+    @Override
+    public long size() {
+        return getKeySize() + getValueSize() + 8 + HASH_DELTA_HEADER_SIZE;
+    }
+
+    @Override
+    public boolean isValuePresented() {
+        return true;
+    }
+
+    @Override
+    public boolean isHashDelta() {
+        return true;
+    }
+
+    @Override
+    public int getKeySize() {
+        return key.length;
+    }
+
+    @Override
+    public int getValueSize() {
+        return delta.length;
+    }
+}
@@ -0,0 +1,273 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.index.SegmentOffsetInfo;
+import com.itmo.java.basics.index.impl.HashOffsetInfo;
+import com.itmo.java.basics.index.impl.SegmentOffsetInfoImpl;
+import com.itmo.java.basics.logic.ObjectKey;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Снимок индекса таблицы - файл {@link #FILE_NAME} в ее директории. Пишется при закрытии таблицы
+ * ({@link TableImpl#close()}), чтобы следующий запуск не перечитывал сегменты целиком.
+ * <p>
+ * Снимок покрывает сегменты из каталога ({@link SegmentManifest}) с их размерами на момент записи и хранит
+ * для каждого живого ключа таблицы номер покрытого сегмента и положение записи в нем (для хэша - всю цепочку
+ * изменений). Записи, дописанные в сегменты после снимка, дочитываются при старте как обычно.
+ * <p>
+ * Снимок используется, только если покрытые сегменты - начало списка сегментов каталога, все они, кроме последнего,
+ * не изменились в размере, а последний не уменьшился. Иначе, а также при несовпадении контрольной суммы,
+ * таблица индексируется полным чтением сегментов.
+ * <p>
+ * Формат: {@code int version, int segmentCount, [UTF name, long size]*, int keyCount,
+ * [int keySize, key, int segment, byte kind, ...]*, long crc32}. Запись значения хранит смещение и срок жизни,
+ * запись хэша - длину цепочки и смещения от начала цепочки к концу.
+ */
+public class IndexSnapshot {
+
+    public static final String FILE_NAME = "INDEX";
+
+    private static final int VERSION = 1;
+
+    private static final byte VALUE = 0;
+    private static final byte HASH = 1;
+
+    private final List<String> segmentNames;
+    private final List<Long> segmentSizes;
+    /**
+     * Положения живых ключей по номерам покрытых сегментов
+     */
+    private final List<Map<ObjectKey, SegmentOffsetInfo>> entries;
+
+    private IndexSnapshot(List<String> segmentNames, List<Long> segmentSizes,
+                          List<Map<ObjectKey, SegmentOffsetInfo>> entries) {
+        this.segmentNames = segmentNames;
+        this.segmentSizes = segmentSizes;
+        this.entries = entries;
+    }
+
+    /**
+     * Записывает снимок во временный файл и заменяет им прежний снимок, поэтому на диске всегда
+     * лежит целый снимок: прежний или новый
+     *
+     * @param tablePath    путь до директории таблицы
+     * @param segmentNames покрытые сегменты в порядке каталога
+     * @param segmentSizes логические размеры открытых таблицей сегментов: конец последней целой записи.
+     *                     Размер остальных сегментов берется из файла, они не менялись с прошлого запуска
+     * @param keys         сегменты живых ключей таблицы. Сегменты должны быть среди покрытых
+     * @throws DatabaseException если сегмент ключа не покрыт снимком или произошла ошибка ввода-вывода
+     */
+    static void write(Path tablePath, List<String> segmentNames, Map<String, Long> segmentSizes,
+                      Map<ObjectKey, SegmentImpl> keys) throws DatabaseException {
+
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < segmentNames.size(); i++) {
+            ordinals.put(segmentNames.get(i), i);
+        }
+
+        Path path = Paths.get(tablePath.toString(), FILE_NAME);
+        Path temporary = Paths.get(tablePath.toString(), FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var crc = new CRC32();
+            var output = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+
+            output.writeInt(VERSION);
+            output.writeInt(segmentNames.size());
+            for (String segmentName : segmentNames) {
+                Long size = segmentSizes.get(segmentName);
+                output.writeUTF(segmentName);
+                output.writeLong(size != null ? size : Files.size(Paths.get(tablePath.toString(), segmentName)));
+            }
+
+            output.writeInt(keys.size());
+            for (Map.Entry<ObjectKey, SegmentImpl> key : keys.entrySet()) {
+                Integer ordinal = ordinals.get(key.getValue().getName());
+                var offsetInfo = key.getValue().getIndex().searchForKey(key.getKey());
+                if (ordinal == null || offsetInfo.isEmpty()) {
+                    throw new DatabaseException(String.format("Key of segment \"%s\" is not covered by index snapshot",
+                            key.getValue().getName()));
+                }
+                byte[] bytes = key.getKey().getBytes();
+                output.writeInt(bytes.length);
+                output.write(bytes);
+                output.writeInt(ordinal);
+                writeOffsetInfo(output, offsetInfo.get());
+            }
+
+            output.writeLong(crc.getValue());
+            output.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while writing index snapshot " + temporary, e);
+        }
+
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while replacing index snapshot " + path, e);
+        }
+    }
+
+    private static void writeOffsetInfo(DataOutputStream output, SegmentOffsetInfo offsetInfo) throws IOException {
+        if (!(offsetInfo instanceof HashOffsetInfo)) {
+            output.writeByte(VALUE);
+            output.writeLong(offsetInfo.getOffset());
+            output.writeLong(offsetInfo.getExpiresAt());
+            return;
+        }
+
+        List<Long> chain = new ArrayList<>();
+        for (HashOffsetInfo info = (HashOffsetInfo) offsetInfo; info != null; info = info.getPrevious()) {
+            chain.add(info.getOffset());
+        }
+        Collections.reverse(chain);
+        output.writeByte(HASH);
+        output.writeInt(chain.size());
+        for (long offset : chain) {
+            output.writeLong(offset);
+        }
+    }
+
+    /**
+     * Читает снимок таблицы и проверяет, что он подходит к ее сегментам. Записи с истекшим сроком жизни
+     * в снимок не попадают
+     *
+     * @param tablePath    путь до директории таблицы
+     * @param segmentNames сегменты таблицы в порядке каталога
+     * @return снимок или {@link Optional#empty()}, если снимка нет или он не подходит к сегментам
+     */
+    public static Optional<IndexSnapshot> load(Path tablePath, List<String> segmentNames) {
+        Path path = Paths.get(tablePath.toString(), FILE_NAME);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+
+        var crc = new CRC32();
+        try (var input = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), crc))) {
+
+            if (input.readInt() != VERSION) {
+                return Optional.empty();
+            }
+
+            int segmentCount = input.readInt();
+            if (segmentCount > segmentNames.size()) {
+                return Optional.empty();
+            }
+            List<String> names = new ArrayList<>(segmentCount);
+            List<Long> sizes = new ArrayList<>(segmentCount);
+            List<Map<ObjectKey, SegmentOffsetInfo>> entries = new ArrayList<>(segmentCount);
+            for (int i = 0; i < segmentCount; i++) {
+                names.add(input.readUTF());
+                sizes.add(input.readLong());
+                entries.add(new HashMap<>());
+            }
+
+            int keyCount = input.readInt();
+            for (int i = 0; i < keyCount; i++) {
+                byte[] key = new byte[input.readInt()];
+                input.readFully(key);
+                int segment = input.readInt();
+                if (segment < 0 || segment >= segmentCount) {
+                    return Optional.empty();
+                }
+                var offsetInfo = readOffsetInfo(input);
+                if (!SegmentImpl.isExpired(offsetInfo.getExpiresAt())) {
+                    entries.get(segment).put(ObjectKey.wrap(key), offsetInfo);
+                }
+            }
+
+            long checksum = crc.getValue();
+            if (input.readLong() != checksum || input.read() != -1) {
+                return Optional.empty();
+            }
+
+            var snapshot = new IndexSnapshot(names, sizes, entries);
+            return snapshot.covers(tablePath, segmentNames) ? Optional.of(snapshot) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            // поврежденный снимок: таблица будет проиндексирована полным чтением сегментов
+            return Optional.empty();
+        }
+    }
+
+    private static SegmentOffsetInfo readOffsetInfo(DataInputStream input) throws IOException {
+        byte kind = input.readByte();
+        if (kind == VALUE) {
+            return new SegmentOffsetInfoImpl(input.readLong(), input.readLong());
+        }
+        if (kind != HASH) {
+            throw new IOException("Unknown index snapshot entry " + kind);
+        }
+
+        int chainLength = input.readInt();
+        HashOffsetInfo info = null;
+        for (int i = 0; i < chainLength; i++) {
+            info = new HashOffsetInfo(input.readLong(), info);
+        }
+        if (info == null) {
+            throw new IOException("Empty hash chain in index snapshot");
+        }
+        return info;
+    }
+
+    /**
+     * Покрытые сегменты - начало списка сегментов таблицы. Дописываться после снимка мог только последний из них
+     */
+    private boolean covers(Path tablePath, List<String> tableSegmentNames) throws IOException {
+        for (int i = 0; i < segmentNames.size(); i++) {
+            if (!segmentNames.get(i).equals(tableSegmentNames.get(i))) {
+                return false;
+            }
+            long size = Files.size(Paths.get(tablePath.toString(), segmentNames.get(i)));
+            boolean last = i == segmentNames.size() - 1;
+            if (size < segmentSizes.get(i) || (!last && size != segmentSizes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает количество покрытых сегментов: это первые сегменты таблицы в порядке каталога
+     */
+    public int getSegmentCount() {
+        return segmentNames.size();
+    }
+
+    /**
+     * Возвращает размер покрытого сегмента на момент снимка. Записи после этого размера в снимок не вошли
+     */
+    public long getSegmentSize(int segment) {
+        return segmentSizes.get(segment);
+    }
+
+    /**
+     * Возвращает положения живых ключей, актуальные записи которых лежат в покрытом сегменте
+     */
+    public Map<ObjectKey, SegmentOffsetInfo> getEntries(int segment) {
+        return entries.get(segment);
+    }
+}
@@ -0,0 +1,171 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.ValueUpdater;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Таблица, которая еще не открыта: ее сегменты индексируются при первом обращении
+ * или при фоновом прогреве ({@link #open()}), а до этого таблица занимает только имя.
+ * <p>
+ * Открывает таблицу один поток, остальные обращения ждут его. Если открыть не удалось,
+ * обращение завершается ошибкой, а следующее обращение пробует открыть таблицу снова.
+ */
+public class LazyTable implements Table {
+
+    /**
+     * Открывает таблицу: индексирует ее сегменты
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Table load() throws DatabaseException;
+    }
+
+    private final String name;
+    private final Loader loader;
+    private volatile Table table;
+
+    public LazyTable(String name, Loader loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    /**
+     * Открывает таблицу, если она еще не открыта
+     *
+     * @return открытую таблицу
+     * @throws DatabaseException если произошла ошибка инициализации таблицы
+     */
+    public Table open() throws DatabaseException {
+        Table opened = table;
+        if (opened != null) {
+            return opened;
+        }
+        synchronized (this) {
+            if (table == null) {
+                table = loader.load();
+            }
+            return table;
+        }
+    }
+
+    public boolean isOpened() {
+        return table != null;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws DatabaseException {
+        open().write(objectKey, objectValue, expiresAt);
+    }
+
+    @Override
+    public void write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws DatabaseException {
+        open().write(objectKey, objectValue, expiresAt);
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, byte[] objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        return open().writeIf(objectKey, objectValue, expiresAt, present);
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, FileRegion objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        return open().writeIf(objectKey, objectValue, expiresAt, present);
+    }
+
+    @Override
+    public Optional<byte[]> read(ObjectKey objectKey) throws DatabaseException {
+        return open().read(objectKey);
+    }
+
+    @Override
+    public void writeAll(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        open().writeAll(values);
+    }
+
+    @Override
+    public void writeBatch(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        open().writeBatch(values);
+    }
+
+    @Override
+    public List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws DatabaseException {
+        return open().readAll(objectKeys);
+    }
+
+    @Override
+    public int deleteAll(Collection<ObjectKey> objectKeys) throws DatabaseException {
+        return open().deleteAll(objectKeys);
+    }
+
+    @Override
+    public Optional<byte[]> compute(ObjectKey objectKey, ValueUpdater updater) throws DatabaseException {
+        return open().compute(objectKey, updater);
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws DatabaseException {
+        return open().readHash(objectKey);
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> updateHash(ObjectKey objectKey, HashDelta delta) throws DatabaseException {
+        return open().updateHash(objectKey, delta);
+    }
+
+    @Override
+    public boolean contains(ObjectKey objectKey) throws DatabaseException {
+        return open().contains(objectKey);
+    }
+
+    @Override
+    public boolean isHash(ObjectKey objectKey) throws DatabaseException {
+        return open().isHash(objectKey);
+    }
+
+    @Override
+    public Optional<FileRegion> locate(ObjectKey objectKey) throws DatabaseException {
+        return open().locate(objectKey);
+    }
+
+    @Override
+    public CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+        try {
+            return open().locateAsync(objectKey);
+        } catch (DatabaseException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void delete(ObjectKey objectKey) throws DatabaseException {
+        open().delete(objectKey);
+    }
+
+    /**
+     * Неоткрытая таблица не открывается: ее сегменты не менялись, и сохранять нечего
+     */
+    @Override
+    public void close() throws DatabaseException {
+        Table opened = table;
+        if (opened != null) {
+            opened.close();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.initialization.TableInitializationContext;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.ValueUpdater;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Таблица, разбитая на партиции. Каждая партиция - отдельная {@link TableImpl} со своей цепочкой сегментов,
+ * своим индексом и своей блокировкой записи. Ключ попадает в партицию по хэшу, поэтому записи в разные
+ * партиции дописывают разные файлы параллельно.
+ * <p>
+ * На диске таблица - директория с поддиректориями партиций "partition_0", "partition_1", ...
+ */
+public class PartitionedTable implements Table {
+
+    public static final String PARTITION_PREFIX = "partition_";
+
+    private final String name;
+    private final Table[] partitions;
+
+    private PartitionedTable(String name, Table[] partitions) {
+        this.name = name;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Создает партиционированную таблицу
+     *
+     * @param tableName          имя таблицы
+     * @param pathToDatabaseRoot путь до директории бд
+     * @param partitionCount     количество партиций
+     * @throws DatabaseException если таблица уже существует или произошла ошибка ввода-вывода
+     */
+    public static Table create(String tableName, Path pathToDatabaseRoot, int partitionCount) throws DatabaseException {
+        return create(tableName, pathToDatabaseRoot, partitionCount, RolloverPolicy.DEFAULT);
+    }
+
+    /**
+     * Создает партиционированную таблицу, каждая партиция которой начинает новые сегменты по политике {@code policy}
+     *
+     * @param tableName          имя таблицы
+     * @param pathToDatabaseRoot путь до директории бд
+     * @param partitionCount     количество партиций
+     * @param policy             когда партиция начинает новый сегмент
+     * @throws DatabaseException если таблица уже существует или произошла ошибка ввода-вывода
+     */
+    public static Table create(String tableName, Path pathToDatabaseRoot, int partitionCount,
+                               RolloverPolicy policy) throws DatabaseException {
+        if (partitionCount < 1) {
+            throw new DatabaseException("Partitions count must be positive, got " + partitionCount);
+        }
+
+        Path path = Paths.get(pathToDatabaseRoot.toString(), tableName);
+
+        if (Files.exists(path)) {
+            throw new DatabaseException(String.format("Table with name \"%s\" already exists!", tableName));
+        }
+
+        try {
+            Files.createDirectory(path);
+        } catch (IOException e) {
+            throw new DatabaseException(String.format("Something gone wrong while creating directory %s!",
+                    path.toString()), e);
+        }
+
+        Table[] partitions = new Table[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = TableImpl.createUncached(partitionName(i), path, new TableIndex(), policy);
+        }
+
+        return new CachingTable(new PartitionedTable(tableName, partitions));
+    }
+
+    /**
+     * @param tableName         имя таблицы
+     * @param partitionContexts контексты проинициализированных партиций в порядке их номеров
+     * @throws DatabaseException если не удалось создать сегмент для пустой партиции
+     */
+    public static Table initializeFromContext(String tableName, List<TableInitializationContext> partitionContexts)
+            throws DatabaseException {
+        Table[] partitions = new Table[partitionContexts.size()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = TableImpl.initializeUncached(partitionContexts.get(i));
+        }
+        return new CachingTable(new PartitionedTable(tableName, partitions));
+    }
+
+    public static String partitionName(int partition) {
+        return PARTITION_PREFIX + partition;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws DatabaseException {
+        partitionOf(objectKey).write(objectKey, objectValue, expiresAt);
+    }
+
+    @Override
+    public void write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws DatabaseException {
+        partitionOf(objectKey).write(objectKey, objectValue, expiresAt);
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, byte[] objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        return partitionOf(objectKey).writeIf(objectKey, objectValue, expiresAt, present);
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, FileRegion objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+        return partitionOf(objectKey).writeIf(objectKey, objectValue, expiresAt, present);
+    }
+
+    @Override
+    public Optional<byte[]> compute(ObjectKey objectKey, ValueUpdater updater) throws DatabaseException {
+        return partitionOf(objectKey).compute(objectKey, updater);
+    }
+
+    @Override
+    public Optional<byte[]> read(ObjectKey objectKey) throws DatabaseException {
+        return partitionOf(objectKey).read(objectKey);
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws DatabaseException {
+        return partitionOf(objectKey).readHash(objectKey);
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> updateHash(ObjectKey objectKey, HashDelta delta) throws DatabaseException {
+        return partitionOf(objectKey).updateHash(objectKey, delta);
+    }
+
+    @Override
+    public boolean contains(ObjectKey objectKey) throws DatabaseException {
+        return partitionOf(objectKey).contains(objectKey);
+    }
+
+    @Override
+    public boolean isHash(ObjectKey objectKey) throws DatabaseException {
+        return partitionOf(objectKey).isHash(objectKey);
+    }
+
+    @Override
+    public Optional<FileRegion> locate(ObjectKey objectKey) throws DatabaseException {
+        return partitionOf(objectKey).locate(objectKey);
+    }
+
+    @Override
+    public CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+        return partitionOf(objectKey).locateAsync(objectKey);
+    }
+
+    @Override
+    public void delete(ObjectKey objectKey) throws DatabaseException {
+        partitionOf(objectKey).delete(objectKey);
+    }
+
+    /**
+     * Партиции пишут свои группы независимо, поэтому атомарно записываются значения только одной партиции.
+     * Сбой между записями партиций оставит видимой лишь часть значений
+     */
+    @Override
+    public void writeBatch(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        if (partitions.length > 1) {
+            throw new DatabaseException(String.format(
+                    "Table \"%s\" has %d partitions and cannot write values atomically", name, partitions.length));
+        }
+        partitions[0].writeBatch(values);
+    }
+
+    /**
+     * Атомарна только часть значений внутри одной партиции: партиции пишут свои группы независимо
+     */
+    @Override
+    public void writeAll(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        List<Map<ObjectKey, byte[]>> byPartition = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            byPartition.add(new LinkedHashMap<>());
+        }
+        for (Map.Entry<ObjectKey, byte[]> entry : values.entrySet()) {
+            byPartition.get(partitionIndex(entry.getKey())).put(entry.getKey(), entry.getValue());
+        }
+        for (int i = 0; i < partitions.length; i++) {
+            if (!byPartition.get(i).isEmpty()) {
+                partitions[i].writeAll(byPartition.get(i));
+            }
+        }
+    }
+
+    /**
+     * Каждая партиция читает свои ключи одним вызовом, чтобы упорядочить чтения по своим сегментам
+     */
+    @Override
+    public List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws DatabaseException {
+        List<List<Integer>> positions = new ArrayList<>(partitions.length);
+        List<List<ObjectKey>> keys = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            positions.add(new ArrayList<>());
+            keys.add(new ArrayList<>());
+        }
+        for (int i = 0; i < objectKeys.size(); i++) {
+            int partition = partitionIndex(objectKeys.get(i));
+            positions.get(partition).add(i);
+            keys.get(partition).add(objectKeys.get(i));
+        }
+
+        List<Optional<byte[]>> values = new ArrayList<>(Collections.nCopies(objectKeys.size(), Optional.empty()));
+        for (int i = 0; i < partitions.length; i++) {
+            if (keys.get(i).isEmpty()) {
+                continue;
+            }
+            List<Optional<byte[]>> partitionValues = partitions[i].readAll(keys.get(i));
+            for (int j = 0; j < partitionValues.size(); j++) {
+                values.set(positions.get(i).get(j), partitionValues.get(j));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Количество удаленных ключей - сумма по партициям, каждая считает свои ключи атомарно
+     */
+    @Override
+    public int deleteAll(Collection<ObjectKey> objectKeys) throws DatabaseException {
+        List<List<ObjectKey>> byPartition = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (ObjectKey objectKey : objectKeys) {
+            byPartition.get(partitionIndex(objectKey)).add(objectKey);
+        }
+        int deleted = 0;
+        for (int i = 0; i < partitions.length; i++) {
+            if (!byPartition.get(i).isEmpty()) {
+                deleted += partitions[i].deleteAll(byPartition.get(i));
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() throws DatabaseException {
+        for (Table partition : partitions) {
+            partition.close();
+        }
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    private Table partitionOf(ObjectKey objectKey) {
+        return partitions[partitionIndex(objectKey)];
+    }
+
+    private int partitionIndex(ObjectKey objectKey) {
+        int hash = objectKey.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+}
@@ -1,49 +1,113 @@
 package com.itmo.java.basics.logic.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.execution.IoExecutor;
 import com.itmo.java.basics.index.SegmentOffsetInfo;
+import com.itmo.java.basics.index.impl.HashOffsetInfo;
 import com.itmo.java.basics.index.impl.SegmentIndex;
 import com.itmo.java.basics.index.impl.SegmentOffsetInfoImpl;
 import com.itmo.java.basics.initialization.SegmentInitializationContext;
 import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
 import com.itmo.java.basics.logic.Segment;
 import com.itmo.java.basics.logic.WritableDatabaseRecord;
 import com.itmo.java.basics.logic.io.DatabaseInputStream;
 import com.itmo.java.basics.logic.io.DatabaseOutputStream;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import com.itmo.java.basics.logic.io.PositionalInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Сегмент - append-only файл, хранящий пары ключ-значение, разделенные специальным символом.
- * - имеет ограниченный размер, большие значения (>100000) записываются в последний сегмент, если он не read-only
+ * - имеет ограниченный размер (задается политикой таблицы {@link RolloverPolicy}), большие значения записываются
+ * в последний сегмент, если он не read-only
  * - при превышении размера сегмента создается новый сегмент и дальнейшие операции записи производятся в него
  * - именование файла-сегмента должно позволять установить очередность их появления
  * - является неизменяемым после появления более нового сегмента
+ * <p>
+ * Запись в сегмент идет из одного потока (под блокировкой таблицы), чтение - из любого количества потоков.
+ * Запись сначала дописывает файл, затем обновляет индекс, поэтому найденная в индексе запись всегда уже лежит в файле.
+ * Чтения позиционные и не разделяют состояние стрима между собой.
+ * <p>
+ * Канал для дописывания открывается при первой записи и закрывается, когда сегмент становится read-only.
+ * Каналы чтения открываются при первом чтении и закрываются вскоре после заполнения сегмента
+ * и при закрытии таблицы ({@link #close()}).
+ * Несколько записей можно дописать одним системным вызовом через {@link #writeAll(List)}.
+ * <p>
+ * Для {@link #locateAsync(ObjectKey)} файл открывается еще и как {@link AsynchronousFileChannel}
+ * поверх общего пула {@link IoExecutor}.
  */
 
 public class SegmentImpl implements Segment {
 
+    private static final int READ_BUFFER_SIZE = 4096;
+
+    /**
+     * Значения меньше этого размера {@link #locateAsync(ObjectKey)} читает целиком, большие отдает участком без чтения
+     */
+    static final int MAX_PREFETCH_SIZE = 64 * 1024;
+    /**
+     * Сколько изменений хэша можно дописать после полного, прежде чем хэш будет записан целиком заново
+     */
+    static final int MAX_HASH_DELTAS = 16;
+    /**
+     * Через сколько миллисекунд после заполнения сегмента закрываются его каналы чтения
+     */
+    static final long SEALED_READ_CHANNELS_GRACE_MILLIS = 30_000;
+
     private final String name;
-    private long freeSize;
+    private volatile long freeSize;
     private final Path rootPath;
-    private boolean isReadOnly = false;
+    private volatile boolean isReadOnly = false;
     private final SegmentIndex index;
-    private static final long SEGMENT_SIZE = 100_000;
+    private final long capacity;
 
-    private SegmentImpl(String name, Path rootPath, long freeSize, SegmentIndex index) {
+    private volatile FileChannel readChannel;
+    private volatile AsynchronousFileChannel asyncReadChannel;
+    private FileChannel appendChannel;
+
+    private SegmentImpl(String name, Path rootPath, long capacity, long freeSize, SegmentIndex index) {
         this.name = name;
         this.rootPath = rootPath;
+        this.capacity = capacity;
         this.freeSize = freeSize;
         this.index = index;
     }
 
     public static Segment create(String segmentName, Path tableRootPath) throws DatabaseException {
+        return create(segmentName, tableRootPath, RolloverPolicy.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param capacity размер, после которого сегмент становится только для чтения
+     */
+    public static Segment create(String segmentName, Path tableRootPath, long capacity) throws DatabaseException {
 
         Path path = Paths.get(tableRootPath.toString(), segmentName);
 
@@ -58,14 +122,22 @@ public class SegmentImpl implements Segment {
                     path.toString()), e);
         }
 
-        return new SegmentImpl(segmentName, tableRootPath, SEGMENT_SIZE, new SegmentIndex());
+        return new SegmentImpl(segmentName, tableRootPath, capacity, capacity, new SegmentIndex());
     }
 
     public static Segment initializeFromContext(SegmentInitializationContext context) {
+        return initializeFromContext(context, RolloverPolicy.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param capacity размер, после которого сегмент становится только для чтения
+     */
+    public static Segment initializeFromContext(SegmentInitializationContext context, long capacity) {
         var segment = new SegmentImpl(
                 context.getSegmentName(),
                 context.getSegmentPath().getParent(),
-                SEGMENT_SIZE - context.getCurrentSize(),
+                capacity,
+                capacity - context.getCurrentSize(),
                 context.getIndex()
         );
 
@@ -76,50 +148,516 @@ public class SegmentImpl implements Segment {
         return segment;
     }
 
-    static String createSegmentName(String tableName) {
-        return tableName + "_" + System.currentTimeMillis();
-    }
-
     @Override
     public String getName() {
         return name;
     }
 
     @Override
-    public boolean write(String objectKey, byte[] objectValue) throws IOException {
+    public boolean write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws IOException {
 
         if (objectValue == null) {
             return delete(objectKey);
         }
 
-        SetDatabaseRecord dbr = new SetDatabaseRecord(objectKey.getBytes(), objectValue);
+        return writeToFile(objectKey, record(objectKey, objectValue, expiresAt),
+                new SegmentOffsetInfoImpl(capacity - freeSize, expiresAt));
+    }
 
-        return writeToFile(dbr, new SegmentOffsetInfoImpl(SEGMENT_SIZE - freeSize));
+    /**
+     * Создает запись значения: удаление для null, запись со сроком жизни или обычную запись
+     */
+    static WritableDatabaseRecord record(ObjectKey objectKey, byte[] objectValue, long expiresAt) {
+        if (objectValue == null) {
+            return new RemoveDatabaseRecord(objectKey.getBytes());
+        }
+        return expiresAt == DatabaseRecord.NO_EXPIRATION
+                ? new SetDatabaseRecord(objectKey.getBytes(), objectValue)
+                : new ExpiringDatabaseRecord(objectKey.getBytes(), objectValue, expiresAt);
     }
 
+    /**
+     * Записи кодируются в один буфер и дописываются в файл одним вызовом, затем индекс обновляется для всех записей.
+     * Каждая запись принимается по тому же правилу, что и в {@link #write(ObjectKey, byte[], long)}
+     */
     @Override
-    public Optional<byte[]> read(String objectKey) throws IOException {
+    public int writeAll(List<WritableDatabaseRecord> records) throws IOException {
+        return append(records, false);
+    }
 
-        Optional<SegmentOffsetInfo> offsetInfo = index.searchForKey(objectKey);
+    /**
+     * Группа принимается целиком, даже если не помещается в оставшееся место, как и большое значение
+     */
+    @Override
+    public boolean writeGroup(List<WritableDatabaseRecord> records) throws IOException {
+        return append(records, true) > 0;
+    }
+
+    /**
+     * @param group обрамить записи маркерами группы. Тогда записи принимаются все, иначе - пока сегмент не заполнится
+     * @return количество записанных записей
+     */
+    private int append(List<WritableDatabaseRecord> records, boolean group) throws IOException {
+
+        if (isReadOnly || records.isEmpty()) {
+            return 0;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        List<SegmentOffsetInfoImpl> offsets = new ArrayList<>(records.size());
+        long offset = capacity - freeSize;
+        long free = freeSize;
+        boolean readOnly = false;
+
+        try (DatabaseOutputStream dbs = new DatabaseOutputStream(buffer)) {
+            if (group) {
+                offset += dbs.writeGroupMarker(GroupMarkerDatabaseRecord.BEGIN_RECORD);
+            }
+            for (WritableDatabaseRecord dbr : records) {
+                if (readOnly && !group) {
+                    break;
+                }
+                dbs.write(dbr);
+                offsets.add(new SegmentOffsetInfoImpl(offset, dbr.getExpiresAt()));
+                offset += dbr.size();
+                if (offset >= capacity) {
+                    readOnly = true;
+                }
+            }
+            if (group) {
+                offset += dbs.writeGroupMarker(GroupMarkerDatabaseRecord.COMMIT_RECORD);
+            }
+            free = capacity - offset;
+        }
+
+        append(ByteBuffer.wrap(buffer.toByteArray()));
+
+        for (int i = 0; i < offsets.size(); i++) {
+            index.onIndexedEntityUpdated(ObjectKey.wrap(records.get(i).getKey()), offsets.get(i));
+        }
+        freeSize = free;
+        markReadOnly(readOnly);
+
+        return offsets.size();
+    }
+
+    @Override
+    public boolean write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws IOException {
+
+        if (isReadOnly) {
+            return false;
+        }
+
+        long offset = capacity - freeSize;
+        int expirationSize = expiresAt == DatabaseRecord.NO_EXPIRATION ? 0 : ExpiringDatabaseRecord.EXPIRATION_HEADER_SIZE;
+        long recordSize = 2L * Integer.BYTES + expirationSize + objectKey.length() + objectValue.getLength();
+
+        ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES + expirationSize + objectKey.length())
+                .putInt(objectKey.length())
+                .put(objectKey.getBytes());
+        if (expirationSize > 0) {
+            header.putInt(DatabaseInputStream.EXPIRATION_MARKER).putLong(expiresAt);
+        }
+        header.putInt(objectValue.getLength()).flip();
+
+        FileChannel out = getAppendChannel();
+        try {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            objectValue.transferTo(out);
+        } catch (IOException e) {
+            discardTail(offset, e);
+            throw e;
+        }
+
+        index.onIndexedEntityUpdated(objectKey, new SegmentOffsetInfoImpl(offset, expiresAt));
+        markReadOnly(recordSize >= freeSize);
+        freeSize -= recordSize;
+
+        return true;
+    }
+
+    @Override
+    public Optional<byte[]> read(ObjectKey objectKey) throws IOException, DatabaseException {
+
+        Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
 
         if (offsetInfo.isEmpty()) {
             return Optional.empty();
         }
 
+        if (offsetInfo.get() instanceof HashOffsetInfo) {
+            throw new DatabaseException(String.format("Value of key \"%s\" is a hash", objectKey));
+        }
+
         long offset = offsetInfo.get().getOffset();
 
-        try (DatabaseInputStream dbs = new DatabaseInputStream(new FileInputStream(
-                Paths.get(rootPath.toString(), name).toString()))) {
-            var skipBytes = dbs.skip(offset);
-            if (skipBytes != offset) {
-                throw new IOException(String.format("Couldn't skip %d bytes", offset));
+        try (DatabaseInputStream dbs = new DatabaseInputStream(new BufferedInputStream(
+                new PositionalInputStream(getReadChannel(), offset), READ_BUFFER_SIZE))) {
+            Optional<DatabaseRecord> dbr = dbs.readDbUnit();
+
+            return dbr.map(e -> e.getValue());
+        }
+    }
+
+    @Override
+    public Optional<FileRegion> locate(ObjectKey objectKey) throws IOException {
+
+        Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
+
+        if (offsetInfo.isEmpty() || offsetInfo.get() instanceof HashOffsetInfo) {
+            return Optional.empty();
+        }
+
+        FileChannel channel = getReadChannel();
+        long valueSizePosition = valueSizePosition(objectKey, offsetInfo.get());
+        ByteBuffer valueSize = ByteBuffer.allocate(Integer.BYTES);
+        while (valueSize.hasRemaining()) {
+            if (channel.read(valueSize, valueSizePosition + valueSize.position()) < 0) {
+                throw new EOFException(String.format("Segment \"%s\" ended before the record", name));
+            }
+        }
+
+        int size = valueSize.getInt(0);
+        if (size < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new FileRegion(channel, valueSizePosition + Integer.BYTES, size));
+    }
+
+    /**
+     * Первое чтение берет размер значения вместе с началом значения, поэтому небольшие значения
+     * читаются за одно обращение к диску. Индекс проверяется сразу, и значение берется из записи,
+     * актуальной на момент вызова, даже если ключ перезапишут до окончания чтения
+     */
+    @Override
+    public CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+
+        Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
+
+        if (offsetInfo.isEmpty() || offsetInfo.get() instanceof HashOffsetInfo) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        long valueSizePosition = valueSizePosition(objectKey, offsetInfo.get());
+        long valuePosition = valueSizePosition + Integer.BYTES;
+        AsynchronousFileChannel asyncChannel;
+        FileChannel channel;
+        try {
+            asyncChannel = getAsyncReadChannel();
+            channel = getReadChannel();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return readAsync(asyncChannel, ByteBuffer.allocate(READ_BUFFER_SIZE), valueSizePosition, Integer.BYTES)
+                .thenCompose(head -> {
+                    int size = head.getInt(0);
+                    if (size < 0) {
+                        return CompletableFuture.completedFuture(Optional.empty());
+                    }
+                    if (size >= MAX_PREFETCH_SIZE) {
+                        return CompletableFuture.completedFuture(Optional.of(new FileRegion(channel, valuePosition, size)));
+                    }
+                    int prefetched = Math.min(size, head.position() - Integer.BYTES);
+                    ByteBuffer value = ByteBuffer.allocate(size);
+                    value.put(head.array(), Integer.BYTES, prefetched);
+                    return readAsync(asyncChannel, value, valuePosition, size)
+                            .thenApply(full -> Optional.of(FileRegion.prefetched(channel, valuePosition, full.array())));
+                });
+    }
+
+    /**
+     * Читает файл в буфер, пока в нем не окажется хотя бы {@code atLeast} байт.
+     * Позиция {@code i} буфера соответствует позиции {@code position + i} файла
+     */
+    private CompletableFuture<ByteBuffer> readAsync(AsynchronousFileChannel channel, ByteBuffer buffer,
+                                                    long position, int atLeast) {
+        CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        if (buffer.position() >= atLeast) {
+            result.complete(buffer);
+            return result;
+        }
+        channel.read(buffer, position + buffer.position(), null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer read, Void attachment) {
+                if (buffer.position() >= atLeast) {
+                    result.complete(buffer);
+                } else if (read < 0 || !buffer.hasRemaining()) {
+                    result.completeExceptionally(new EOFException(
+                            String.format("Segment \"%s\" ended before the record", name)));
+                } else {
+                    channel.read(buffer, position + buffer.position(), null, this);
+                }
+            }
+
+            @Override
+            public void failed(Throwable exc, Void attachment) {
+                result.completeExceptionally(exc);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Позиция размера значения в записи: после размера ключа, ключа и заголовка срока жизни, если он есть
+     */
+    private static long valueSizePosition(ObjectKey objectKey, SegmentOffsetInfo offsetInfo) {
+        long position = offsetInfo.getOffset() + Integer.BYTES + objectKey.length();
+        if (offsetInfo.getExpiresAt() != DatabaseRecord.NO_EXPIRATION) {
+            position += ExpiringDatabaseRecord.EXPIRATION_HEADER_SIZE;
+        }
+        return position;
+    }
+
+    /**
+     * Записи читаются одним стримом в порядке смещений: близкие записи берутся из буфера,
+     * до дальних стрим перескакивает без чтения промежутка. Хэши собираются отдельно
+     */
+    @Override
+    public List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws IOException, DatabaseException {
+
+        List<Optional<byte[]>> values = new ArrayList<>(Collections.nCopies(objectKeys.size(), Optional.empty()));
+        long[] offsets = new long[objectKeys.size()];
+        List<Integer> order = new ArrayList<>(objectKeys.size());
+
+        for (int i = 0; i < objectKeys.size(); i++) {
+            Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKeys.get(i));
+            if (offsetInfo.isPresent() && offsetInfo.get() instanceof HashOffsetInfo) {
+                values.set(i, read(objectKeys.get(i)));
+            } else if (offsetInfo.isPresent()) {
+                offsets[i] = offsetInfo.get().getOffset();
+                order.add(i);
+            }
+        }
+
+        if (order.isEmpty()) {
+            return values;
+        }
+
+        order.sort(Comparator.comparingLong(i -> offsets[i]));
+        long position = offsets[order.get(0)];
+
+        try (DatabaseInputStream dbs = new DatabaseInputStream(new BufferedInputStream(
+                new PositionalInputStream(getReadChannel(), position), READ_BUFFER_SIZE))) {
+            int previous = -1;
+            for (int i : order) {
+                if (previous != -1 && offsets[i] == offsets[previous]) {
+                    values.set(i, values.get(previous));
+                    continue;
+                }
+                skipFully(dbs, offsets[i] - position);
+                Optional<DatabaseRecord> dbr = dbs.readDbUnit();
+                if (dbr.isEmpty()) {
+                    break;
+                }
+                position = offsets[i] + dbr.get().size();
+                values.set(i, dbr.map(e -> e.getValue()));
+                previous = i;
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public boolean writeHashDelta(ObjectKey objectKey, HashDelta delta) throws IOException {
+
+        HashOffsetInfo previous = null;
+
+        if (!delta.isReset()) {
+            Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
+            if (offsetInfo.isEmpty() || !(offsetInfo.get() instanceof HashOffsetInfo)
+                    || ((HashOffsetInfo) offsetInfo.get()).getDepth() >= MAX_HASH_DELTAS) {
+                return false;
+            }
+            previous = (HashOffsetInfo) offsetInfo.get();
+        }
+
+        HashDeltaDatabaseRecord dbr = new HashDeltaDatabaseRecord(objectKey.getBytes(), delta.encode());
+
+        return writeToFile(objectKey, dbr, new HashOffsetInfo(capacity - freeSize, previous));
+    }
+
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws IOException, DatabaseException {
+
+        Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
+
+        if (offsetInfo.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (offsetInfo.get() instanceof HashOffsetInfo) {
+            return Optional.of(readHash((HashOffsetInfo) offsetInfo.get()));
+        }
+
+        if (read(objectKey).isPresent()) {
+            throw new DatabaseException(String.format("Value of key \"%s\" is not a hash", objectKey));
+        }
+
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<byte[]> readHashField(ObjectKey objectKey, ObjectKey field) throws IOException, DatabaseException {
+
+        Optional<SegmentOffsetInfo> offsetInfo = liveOffsetInfo(objectKey);
+
+        if (offsetInfo.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (!(offsetInfo.get() instanceof HashOffsetInfo)) {
+            if (read(objectKey).isPresent()) {
+                throw new DatabaseException(String.format("Value of key \"%s\" is not a hash", objectKey));
+            }
+            return Optional.empty();
+        }
+
+        for (HashOffsetInfo info = (HashOffsetInfo) offsetInfo.get(); info != null; info = info.getPrevious()) {
+            HashDelta delta = readHashDelta(info.getOffset());
+            if (delta.getChanges().containsKey(field)) {
+                return Optional.ofNullable(delta.getChanges().get(field));
             }
+            if (delta.isReset()) {
+                break;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private HashDelta readHashDelta(long offset) throws IOException {
+        try (DatabaseInputStream dbs = new DatabaseInputStream(new BufferedInputStream(
+                new PositionalInputStream(getReadChannel(), offset), READ_BUFFER_SIZE))) {
             Optional<DatabaseRecord> dbr = dbs.readDbUnit();
-            dbs.close();
+            if (dbr.isEmpty() || !dbr.get().isHashDelta()) {
+                throw new IOException(String.format("Segment \"%s\" has no hash record at %d", name, offset));
+            }
+            return HashDelta.decode(dbr.get().getValue());
+        }
+    }
 
+    /**
+     * Изменения цепочки лежат в сегменте по возрастанию смещений, поэтому читаются одним стримом от начала цепочки
+     */
+    private Map<ObjectKey, byte[]> readHash(HashOffsetInfo last) throws IOException {
 
-            return dbr.map(e -> e.getValue());
+        List<HashOffsetInfo> chain = new ArrayList<>(last.getDepth() + 1);
+        for (HashOffsetInfo info = last; info != null; info = info.getPrevious()) {
+            chain.add(info);
+        }
+        Collections.reverse(chain);
+
+        Map<ObjectKey, byte[]> fields = new LinkedHashMap<>();
+        long position = chain.get(0).getOffset();
+
+        try (DatabaseInputStream dbs = new DatabaseInputStream(new BufferedInputStream(
+                new PositionalInputStream(getReadChannel(), position), READ_BUFFER_SIZE))) {
+            for (HashOffsetInfo info : chain) {
+                skipFully(dbs, info.getOffset() - position);
+                Optional<DatabaseRecord> dbr = dbs.readDbUnit();
+                if (dbr.isEmpty() || !dbr.get().isHashDelta()) {
+                    throw new IOException(String.format("Segment \"%s\" has no hash record at %d", name, info.getOffset()));
+                }
+                HashDelta.decode(dbr.get().getValue()).applyTo(fields);
+                position = info.getOffset() + dbr.get().size();
+            }
+        }
+
+        return fields;
+    }
+
+    @Override
+    public boolean contains(ObjectKey objectKey) {
+        return liveOffsetInfo(objectKey).isPresent();
+    }
+
+    @Override
+    public boolean isHash(ObjectKey objectKey) {
+        return liveOffsetInfo(objectKey).map(offsetInfo -> offsetInfo instanceof HashOffsetInfo).orElse(false);
+    }
+
+    @Override
+    public long getExpiresAt(ObjectKey objectKey) {
+        return liveOffsetInfo(objectKey).map(SegmentOffsetInfo::getExpiresAt).orElse(DatabaseRecord.NO_EXPIRATION);
+    }
+
+    @Override
+    public boolean expire(ObjectKey objectKey, long expiresAt) {
+        Optional<SegmentOffsetInfo> offsetInfo = index.searchForKey(objectKey);
+        if (offsetInfo.isEmpty() || offsetInfo.get().getExpiresAt() != expiresAt) {
+            return false;
+        }
+        index.onIndexedEntityUpdated(objectKey, null);
+        return true;
+    }
+
+    /**
+     * Возвращает положение записи ключа, если ее срок жизни не истек. Истекшие записи не читаются,
+     * даже если колесо таймеров еще не убрало их из индекса
+     */
+    private Optional<SegmentOffsetInfo> liveOffsetInfo(ObjectKey objectKey) {
+        Optional<SegmentOffsetInfo> offsetInfo = index.searchForKey(objectKey);
+        if (offsetInfo.isPresent() && isExpired(offsetInfo.get().getExpiresAt())) {
+            return Optional.empty();
         }
+        return offsetInfo;
+    }
+
+    /**
+     * Истек ли срок жизни записи к текущему моменту
+     */
+    public static boolean isExpired(long expiresAt) {
+        return expiresAt != DatabaseRecord.NO_EXPIRATION && expiresAt <= System.currentTimeMillis();
+    }
+
+    private static void skipFully(InputStream is, long n) throws IOException {
+        while (n > 0) {
+            long skipped = is.skip(n);
+            if (skipped <= 0) {
+                throw new EOFException("Segment ended before the record");
+            }
+            n -= skipped;
+        }
+    }
+
+    /**
+     * Канал для чтения открывается один раз и разделяется всеми читающими потоками
+     */
+    private FileChannel getReadChannel() throws IOException {
+        FileChannel channel = readChannel;
+        if (channel == null || !channel.isOpen()) {
+            synchronized (this) {
+                channel = readChannel;
+                if (channel == null || !channel.isOpen()) {
+                    channel = FileChannel.open(Paths.get(rootPath.toString(), name), StandardOpenOption.READ);
+                    readChannel = channel;
+                }
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Асинхронный канал открывается при первом асинхронном чтении, как и обычный канал для чтения
+     */
+    private AsynchronousFileChannel getAsyncReadChannel() throws IOException {
+        AsynchronousFileChannel channel = asyncReadChannel;
+        if (channel == null || !channel.isOpen()) {
+            synchronized (this) {
+                channel = asyncReadChannel;
+                if (channel == null || !channel.isOpen()) {
+                    channel = AsynchronousFileChannel.open(Paths.get(rootPath.toString(), name),
+                            Collections.singleton(StandardOpenOption.READ), IoExecutor.shared());
+                    asyncReadChannel = channel;
+                }
+            }
+        }
+        return channel;
     }
 
     @Override
@@ -128,14 +666,14 @@ public class SegmentImpl implements Segment {
     }
 
     @Override
-    public boolean delete(String objectKey) throws IOException {
+    public boolean delete(ObjectKey objectKey) throws IOException {
 
         RemoveDatabaseRecord dbr = new RemoveDatabaseRecord(objectKey.getBytes());
 
-        return writeToFile(dbr, new SegmentOffsetInfoImpl(SEGMENT_SIZE - freeSize));
+        return writeToFile(objectKey, dbr, new SegmentOffsetInfoImpl(capacity - freeSize));
     }
 
-    private boolean writeToFile(WritableDatabaseRecord dbr, SegmentOffsetInfoImpl soi) throws IOException {
+    private boolean writeToFile(ObjectKey objectKey, WritableDatabaseRecord dbr, SegmentOffsetInfoImpl soi) throws IOException {
 
         if (isReadOnly) {
             return false;
@@ -143,20 +681,157 @@ public class SegmentImpl implements Segment {
 
         long recordSize = dbr.size();
 
-        if (recordSize >= freeSize) {
-            isReadOnly = true;
-        }
-
-        try (DatabaseOutputStream dbs = new DatabaseOutputStream(new FileOutputStream(
-                Paths.get(rootPath.toString(), name).toString(), true))) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) recordSize);
+        try (DatabaseOutputStream dbs = new DatabaseOutputStream(buffer)) {
             dbs.write(dbr);
         }
+        append(ByteBuffer.wrap(buffer.toByteArray()));
 
-        index.onIndexedEntityUpdated(new String(dbr.getKey()), soi);
+        index.onIndexedEntityUpdated(objectKey, soi);
+        markReadOnly(recordSize >= freeSize);
         freeSize -= recordSize;
 
         return true;
 
     }
 
+    /**
+     * Дописывает байты в конец сегмента. Если запись не удалась, в том числе частично, файл обрезается
+     * до прежнего конца, и индекс и свободное место остаются верными
+     */
+    private void append(ByteBuffer bytes) throws IOException {
+        long start = capacity - freeSize;
+        FileChannel out = getAppendChannel();
+        try {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            discardTail(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Обрезает файл до конца последней целой записи. Если обрезать не удалось, сегмент переводится в read-only:
+     * после неизвестного хвоста дописывать нельзя, и таблица продолжит в новом сегменте
+     *
+     * @param failure ошибка записи, к ней добавляется ошибка обрезки
+     */
+    private void discardTail(long end, IOException failure) {
+        try {
+            getAppendChannel().truncate(end);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            try {
+                markReadOnly(true);
+            } catch (IOException closeFailure) {
+                failure.addSuppressed(closeFailure);
+            }
+        }
+    }
+
+    /**
+     * Логический размер сегмента: конец последней целой записи. Используется таблицей для снимка индекса
+     */
+    long getSize() {
+        return capacity - freeSize;
+    }
+
+    /**
+     * Индекс сегмента. Используется таблицей для снимка индекса ({@link IndexSnapshot})
+     */
+    SegmentIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Открывает канал для дописывания заранее, чтобы первая запись в сегмент не открывала файл.
+     * Вызывается до того, как сегмент станет текущим
+     */
+    void prepareForWrites() throws IOException {
+        getAppendChannel();
+    }
+
+    /**
+     * Каналы чтения закрываются не сразу: участки файла ({@link FileRegion}), выданные до заполнения,
+     * должны успеть отправиться клиенту. Следующее чтение откроет каналы заново
+     */
+    @Override
+    public void seal() throws IOException {
+        markReadOnly(true);
+        List<Closeable> channels = detachReadChannels();
+        if (!channels.isEmpty()) {
+            CompletableFuture.delayedExecutor(SEALED_READ_CHANNELS_GRACE_MILLIS, TimeUnit.MILLISECONDS, IoExecutor.shared())
+                    .execute(() -> {
+                        try {
+                            closeAll(channels);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        markReadOnly(true);
+        closeAll(detachReadChannels());
+    }
+
+    /**
+     * Забирает открытые каналы чтения, чтобы следующее чтение открыло новые
+     */
+    private synchronized List<Closeable> detachReadChannels() {
+        List<Closeable> channels = new ArrayList<>(2);
+        if (readChannel != null) {
+            channels.add(readChannel);
+            readChannel = null;
+        }
+        if (asyncReadChannel != null) {
+            channels.add(asyncReadChannel);
+            asyncReadChannel = null;
+        }
+        return channels;
+    }
+
+    private static void closeAll(List<Closeable> channels) throws IOException {
+        IOException failure = null;
+        for (Closeable channel : channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Канал для дописывания используется только под блокировкой таблицы, поэтому не синхронизируется
+     */
+    private FileChannel getAppendChannel() throws IOException {
+        if (appendChannel == null || !appendChannel.isOpen()) {
+            appendChannel = FileChannel.open(Paths.get(rootPath.toString(), name),
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return appendChannel;
+    }
+
+    /**
+     * Переводит сегмент в read-only и закрывает канал для дописывания: больше в сегмент ничего не пишется
+     */
+    private void markReadOnly(boolean readOnly) throws IOException {
+        if (!readOnly) {
+            return;
+        }
+        isReadOnly = true;
+        if (appendChannel != null) {
+            appendChannel.close();
+            appendChannel = null;
+        }
+    }
+
 }
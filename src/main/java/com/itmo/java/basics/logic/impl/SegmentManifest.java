@@ -0,0 +1,278 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.logic.RolloverPolicy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Каталог сегментов таблицы - файл {@link #FILE_NAME} в ее директории. Это append-only журнал событий:
+ * сегмент добавлен, сегмент заполнен (с его итоговым размером), сегмент удален. При старте сегменты таблицы
+ * берутся из журнала в порядке добавления, а не из списка файлов директории.
+ * <p>
+ * Номера сегментов монотонно растут и выдаются каталогом, поэтому два сегмента не получат одно имя,
+ * даже если создаются в одну миллисекунду. Имя сегмента - имя таблицы и номер, дополненный нулями,
+ * так что имена сортируются в порядке создания.
+ * <p>
+ * Событие дописывается и сбрасывается на диск до создания файла сегмента. Сегмент из журнала, файла которого нет,
+ * считается не созданным. Атомарно только отдельное событие: несколько событий подряд (например, добавление
+ * нового сегмента и удаление старых) могут после сбоя оказаться в журнале не все, поэтому замена сегментов
+ * потребует события, объединяющего добавление и удаления.
+ * <p>
+ * Запись события: {@code byte kind, long id, UTF name, long size}. Недописанное событие в конце файла отбрасывается.
+ * Событие политики таблицы ({@link RolloverPolicy}) хранит максимальный возраст сегмента на месте номера
+ * и размер сегмента на месте размера, имя в нем пустое.
+ * Таблица без каталога (созданная до его появления) при первом открытии получает каталог из списка файлов
+ * и политику по умолчанию.
+ * <p>
+ * Каталог синхронизирован: следующий сегмент может добавляться в фоне, пока таблица пишет в текущий.
+ */
+public class SegmentManifest {
+
+    public static final String FILE_NAME = "MANIFEST";
+
+    private static final byte ADDED = 1;
+    private static final byte SEALED = 2;
+    private static final byte REMOVED = 3;
+    private static final byte POLICY = 4;
+
+    private final Path tablePath;
+    /**
+     * Номера существующих сегментов по именам в порядке добавления
+     */
+    private final Map<String, Long> segmentIds = new LinkedHashMap<>();
+    private long nextId;
+    private RolloverPolicy policy = RolloverPolicy.DEFAULT;
+
+    private SegmentManifest(Path tablePath) {
+        this.tablePath = tablePath;
+    }
+
+    /**
+     * Создает каталог в директории новой таблицы и записывает в него политику таблицы
+     *
+     * @param tablePath путь до директории таблицы
+     * @param policy    когда таблица начинает новый сегмент
+     * @throws DatabaseException если каталог уже существует или произошла ошибка ввода-вывода
+     */
+    static SegmentManifest create(Path tablePath, RolloverPolicy policy) throws DatabaseException {
+        var manifest = create(tablePath);
+        manifest.append(POLICY, policy.getMaxAgeMillis(), "", policy.getSegmentSize());
+        manifest.policy = policy;
+        return manifest;
+    }
+
+    private static SegmentManifest create(Path tablePath) throws DatabaseException {
+        Path path = Paths.get(tablePath.toString(), FILE_NAME);
+        try {
+            Files.createFile(path);
+        } catch (IOException e) {
+            throw new DatabaseException(String.format("Something gone wrong while creating file %s!", path), e);
+        }
+        return new SegmentManifest(tablePath);
+    }
+
+    /**
+     * Читает каталог таблицы. Если каталога нет, составляет его из файлов директории, отсортированных по имени
+     *
+     * @param tablePath путь до директории таблицы
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    public static SegmentManifest load(Path tablePath) throws DatabaseException {
+        Path path = Paths.get(tablePath.toString(), FILE_NAME);
+        if (!Files.exists(path)) {
+            return migrate(tablePath);
+        }
+
+        var manifest = new SegmentManifest(tablePath);
+        long validSize = 0;
+        byte[] content;
+        try {
+            content = Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while reading manifest " + path, e);
+        }
+
+        var stream = new ByteArrayInputStream(content);
+        try (var input = new DataInputStream(stream)) {
+            while (stream.available() > 0) {
+                byte kind = input.readByte();
+                long id = input.readLong();
+                String name = input.readUTF();
+                long size = input.readLong();
+                manifest.apply(kind, id, name, size);
+                validSize = content.length - stream.available();
+            }
+        } catch (EOFException e) {
+            // недописанное событие в конце журнала
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while reading manifest " + path, e);
+        }
+
+        try {
+            if (content.length > validSize) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(validSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while truncating manifest " + path, e);
+        }
+        return manifest;
+    }
+
+    private static SegmentManifest migrate(Path tablePath) throws DatabaseException {
+        var files = new File(tablePath.toString()).listFiles(File::isFile);
+        if (files == null) {
+            throw new DatabaseException("Cannot list segments of table " + tablePath);
+        }
+        Arrays.sort(files);
+
+        var manifest = create(tablePath);
+        for (File file : files) {
+            long id = Math.max(manifest.nextId, legacyId(file.getName()));
+            manifest.append(ADDED, id, file.getName(), 0);
+            manifest.segmentIds.put(file.getName(), id);
+            manifest.nextId = id + 1;
+        }
+        return manifest;
+    }
+
+    /**
+     * Номер из имени сегмента "таблица_номер", чтобы новые номера шли после старых
+     */
+    private static long legacyId(String segmentName) {
+        try {
+            return Long.parseLong(segmentName.substring(segmentName.lastIndexOf('_') + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Размер заполненного сегмента хранится только в журнале: для восстановления списка сегментов он не нужен
+     */
+    private void apply(byte kind, long id, String name, long size) throws IOException {
+        switch (kind) {
+            case ADDED:
+                segmentIds.put(name, id);
+                nextId = Math.max(nextId, id + 1);
+                break;
+            case SEALED:
+                break;
+            case REMOVED:
+                segmentIds.remove(name);
+                break;
+            case POLICY:
+                try {
+                    policy = new RolloverPolicy(size, id);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Wrong rollover policy in manifest", e);
+                }
+                break;
+            default:
+                throw new IOException("Unknown manifest event " + kind);
+        }
+    }
+
+    /**
+     * Возвращает имена сегментов таблицы в порядке добавления. Сегменты, файлов которых нет, пропускаются
+     */
+    public synchronized List<String> getSegmentNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : segmentIds.keySet()) {
+            if (Files.exists(Paths.get(tablePath.toString(), name))) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Выдает номер нового сегмента и записывает его добавление
+     *
+     * @param tableName имя таблицы
+     * @return имя нового сегмента. Файл сегмента нужно создать после вызова
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    synchronized String addSegment(String tableName) throws DatabaseException {
+        long id = nextId;
+        String name = String.format("%s_%019d", tableName, id);
+        append(ADDED, id, name, 0);
+        segmentIds.put(name, id);
+        nextId = id + 1;
+        return name;
+    }
+
+    /**
+     * Записывает, что сегмент заполнен и больше не меняется, вместе с его размером
+     *
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    synchronized void sealSegment(String segmentName) throws DatabaseException {
+        long size;
+        try {
+            size = Files.size(Paths.get(tablePath.toString(), segmentName));
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while sealing segment " + segmentName, e);
+        }
+        append(SEALED, segmentIds.getOrDefault(segmentName, legacyId(segmentName)), segmentName, size);
+    }
+
+    /**
+     * Записывает удаление сегмента. Файл сегмента можно удалить после вызова
+     *
+     * @throws DatabaseException если произошла ошибка ввода-вывода
+     */
+    synchronized void removeSegment(String segmentName) throws DatabaseException {
+        append(REMOVED, segmentIds.getOrDefault(segmentName, legacyId(segmentName)), segmentName, 0);
+        segmentIds.remove(segmentName);
+    }
+
+    /**
+     * Возвращает политику таблицы: когда она начинает новый сегмент
+     */
+    public RolloverPolicy getPolicy() {
+        return policy;
+    }
+
+    private void append(byte kind, long id, String name, long size) throws DatabaseException {
+        Path path = Paths.get(tablePath.toString(), FILE_NAME);
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeByte(kind);
+            output.writeLong(id);
+            output.writeUTF(name);
+            output.writeLong(size);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while encoding manifest event", e);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            var buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while writing manifest " + path, e);
+        }
+    }
+}
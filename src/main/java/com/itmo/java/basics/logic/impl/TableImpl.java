@@ -1,16 +1,42 @@
 package com.itmo.java.basics.logic.impl;
 
 import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.execution.ExpirationWheel;
+import com.itmo.java.basics.execution.IoExecutor;
 import com.itmo.java.basics.index.impl.TableIndex;
 import com.itmo.java.basics.initialization.TableInitializationContext;
+import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.FileRegion;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
 import com.itmo.java.basics.logic.Segment;
 import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.ValueUpdater;
+import com.itmo.java.basics.logic.WritableDatabaseRecord;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Таблица - логическая сущность, представляющая собой набор файлов-сегментов, которые объединены одним
@@ -20,22 +46,87 @@ import java.util.Optional;
  * - имеет единый размер сегмента
  * - представляет из себя директорию в файловой системе, именованную как таблица
  * и хранящую файлы-сегменты данной таблицы
+ * <p>
+ * Чтения идут без блокировок и параллельно друг с другом, записи и удаления сериализуются блокировкой таблицы.
+ * Текущий сегмент публикуется через volatile-поле, а индекс таблицы обновляется только после записи в сегмент.
+ * <p>
+ * Записи и удаления сначала ставятся в очередь таблицы. Поток, захвативший блокировку, забирает из очереди
+ * все накопившиеся записи, в том числе чужие, дописывает их в сегмент одним вызовом и отмечает выполненными.
+ * Остальные потоки, получив блокировку, видят свою запись выполненной и сразу выходят. Каждый поток ждет
+ * своей записи, поэтому в очереди не больше записей, чем пишущих потоков.
+ * <p>
+ * Записи {@link #writeAll(Map)} и {@link #deleteAll(Collection)} дописываются атомарной группой
+ * ({@link Segment#writeGroup(List)}): после перезапуска видна либо вся группа, либо ничего из нее.
+ * Соседние одиночные записи из очереди по-прежнему объединяются в одно дописывание.
+ * <p>
+ * Сегменты таблицы перечислены в ее каталоге {@link SegmentManifest}: новый сегмент получает имя от каталога,
+ * а заполненный отмечается в каталоге вместе с размером. Новый сегмент начинается, когда текущий заполнен
+ * или старше, чем допускает политика таблицы ({@link RolloverPolicy}). Следующий сегмент создается заранее
+ * в фоне, в пуле {@link IoExecutor}, поэтому смена сегмента при записи - это замена ссылки, а не создание файла.
+ * <p>
+ * Ключи со сроком жизни ставятся в {@link ExpirationWheel}. Когда срок наступает, ключ убирается из индексов
+ * без записи удаления в сегмент: истекшая запись остается на диске до пересборки сегмента,
+ * а при перезапуске истекшие записи не попадают в индекс.
+ * <p>
+ * При закрытии таблица сохраняет снимок индекса ({@link IndexSnapshot}), и следующий запуск
+ * восстанавливает индекс из него, а не из сегментов.
  */
 public class TableImpl implements Table {
 
-    private TableIndex index;
-    private String name;
-    private Path rootPath;
-    private Segment currentSegment;
+    private final TableIndex index;
+    private final String name;
+    private final Path rootPath;
+    private final SegmentManifest manifest;
+    private final RolloverPolicy policy;
+    private final Lock writeLock = new ReentrantLock();
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ExpirationWheel expirationWheel = ExpirationWheel.shared();
+    private volatile Segment currentSegment;
+    /**
+     * Сегменты, которые таблица закрывает при своем закрытии: с живыми ключами на момент открытия
+     * и ставшие текущими после него. Меняется под блокировкой записи
+     */
+    private final Set<Segment> segments = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Время первой записи в текущий сегмент, 0 - записей еще не было. Меняется под блокировкой записи
+     */
+    private long currentSegmentFirstWrite;
+    /**
+     * Следующий сегмент, который готовится в фоне, или null. Меняется под блокировкой записи
+     */
+    private CompletableFuture<Segment> nextSegment;
+    /**
+     * Таблица закрыта и больше не принимает записей. Меняется под блокировкой записи
+     */
+    private boolean closed;
 
-    private TableImpl(String name, Path rootPath, TableIndex index, Segment currentSegment) {
+    private TableImpl(String name, Path rootPath, SegmentManifest manifest, TableIndex index, Segment currentSegment) {
         this.name = name;
         this.rootPath = rootPath;
+        this.manifest = manifest;
+        this.policy = manifest.getPolicy();
         this.index = index;
         this.currentSegment = currentSegment;
+        this.segments.add(currentSegment);
     }
 
     public static Table create(String tableName, Path pathToDatabaseRoot, TableIndex tableIndex) throws DatabaseException {
+        return create(tableName, pathToDatabaseRoot, tableIndex, RolloverPolicy.DEFAULT);
+    }
+
+    /**
+     * @param policy когда таблица начинает новый сегмент
+     */
+    public static Table create(String tableName, Path pathToDatabaseRoot, TableIndex tableIndex,
+                               RolloverPolicy policy) throws DatabaseException {
+        return new CachingTable(createUncached(tableName, pathToDatabaseRoot, tableIndex, policy));
+    }
+
+    /**
+     * Создает таблицу без кэширующего декоратора. Используется для партиций {@link PartitionedTable}
+     */
+    static TableImpl createUncached(String tableName, Path pathToDatabaseRoot, TableIndex tableIndex,
+                                    RolloverPolicy policy) throws DatabaseException {
 
         Path path = Paths.get(pathToDatabaseRoot.toString(), tableName);
 
@@ -50,25 +141,42 @@ public class TableImpl implements Table {
                     path.toString()), e);
         }
 
-        TableImpl t = new TableImpl(
+        var manifest = SegmentManifest.create(path, policy);
+        return new TableImpl(
                 tableName,
                 pathToDatabaseRoot,
+                manifest,
                 tableIndex,
-                SegmentImpl.create(SegmentImpl.createSegmentName(tableName), path)
+                SegmentImpl.create(manifest.addSegment(tableName), path, policy.getSegmentSize())
         );
+    }
 
-        return new CachingTable(t);
+    public static Table initializeFromContext(TableInitializationContext context) throws DatabaseException {
+        return new CachingTable(initializeUncached(context));
     }
 
-    public static Table initializeFromContext(TableInitializationContext context) {
+    /**
+     * Инициализирует таблицу без кэширующего декоратора. Используется для партиций {@link PartitionedTable}
+     */
+    static TableImpl initializeUncached(TableInitializationContext context) throws DatabaseException {
+        var manifest = context.getManifest();
+        var currentSegment = context.getCurrentSegment();
+        if (currentSegment == null) {
+            currentSegment = SegmentImpl.create(manifest.addSegment(context.getTableName()), context.getTablePath(),
+                    manifest.getPolicy().getSegmentSize());
+        }
         var table = new TableImpl(
                 context.getTableName(),
                 context.getTablePath().getParent(),
+                manifest,
                 context.getTableIndex(),
-                context.getCurrentSegment()
+                currentSegment
         );
-
-        return new CachingTable(table);
+        for (Map.Entry<ObjectKey, Long> expiring : context.getExpiringKeys().entrySet()) {
+            table.expirationWheel.schedule(expiring.getKey(), expiring.getValue(), table::expire);
+        }
+        table.index.forEach((objectKey, segment) -> table.segments.add(segment));
+        return table;
     }
 
     @Override
@@ -77,25 +185,341 @@ public class TableImpl implements Table {
     }
 
     @Override
-    public void write(String objectKey, byte[] objectValue) throws DatabaseException {
+    public void write(ObjectKey objectKey, byte[] objectValue, long expiresAt) throws DatabaseException {
+        submit(Collections.singletonList(SegmentImpl.record(objectKey, objectValue, expiresAt)), false);
+    }
+
+    /**
+     * Значения {@link #writeAll(Map)} и так записываются одной атомарной группой
+     */
+    @Override
+    public void writeBatch(Map<ObjectKey, byte[]> values) throws DatabaseException {
+        writeAll(values);
+    }
+
+    /**
+     * Все значения записываются одной атомарной группой. Значение null удаляет ключ
+     */
+    @Override
+    public void writeAll(Map<ObjectKey, byte[]> values) throws DatabaseException {
+
+        List<WritableDatabaseRecord> records = new ArrayList<>(values.size());
+        for (Map.Entry<ObjectKey, byte[]> entry : values.entrySet()) {
+            records.add(SegmentImpl.record(entry.getKey(), entry.getValue(), DatabaseRecord.NO_EXPIRATION));
+        }
+        submit(records, records.size() > 1);
+    }
+
+    /**
+     * Ставит записи в очередь и ждет, пока их допишет этот или другой поток
+     *
+     * @param atomic записать записи атомарной группой
+     */
+    private void submit(List<WritableDatabaseRecord> records, boolean atomic) throws DatabaseException {
+
+        PendingWrite write = new PendingWrite(records, atomic);
+        pendingWrites.add(write);
+
+        writeLock.lock();
+        try {
+            if (!write.done) {
+                drainPendingWrites();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (write.failure != null) {
+            throw new DatabaseException("Something gone wrong while writing!", write.failure);
+        }
+    }
+
+    /**
+     * Дописывает все записи из очереди: подряд идущие одиночные записи - одним вызовом на сегмент,
+     * атомарные группы - каждую отдельно. Ошибку получают только записи того дописывания, который не удался.
+     * Выполняется под блокировкой записи
+     */
+    private void drainPendingWrites() {
+
+        List<PendingWrite> chunk = new ArrayList<>();
+        List<WritableDatabaseRecord> records = new ArrayList<>();
+        PendingWrite write;
+        while ((write = pendingWrites.poll()) != null) {
+            if (!write.atomic) {
+                chunk.add(write);
+                records.addAll(write.records);
+                continue;
+            }
+            flushChunk(chunk, records);
+            try {
+                writeGroupToSegment(write.records);
+            } catch (IOException | DatabaseException e) {
+                write.failure = e;
+            }
+            write.done = true;
+        }
+        flushChunk(chunk, records);
+    }
+
+    /**
+     * Дописывает накопленные одиночные записи и отмечает их выполненными
+     */
+    private void flushChunk(List<PendingWrite> chunk, List<WritableDatabaseRecord> records) {
 
+        Exception failure = null;
         try {
-            boolean success = currentSegment.write(objectKey, objectValue);
+            writeToSegments(records);
+        } catch (IOException | DatabaseException e) {
+            failure = e;
+        }
+        for (PendingWrite written : chunk) {
+            written.failure = failure;
+            written.done = true;
+        }
+        chunk.clear();
+        records.clear();
+    }
+
+    /**
+     * Дописывает группу в текущий сегмент целиком. Если он уже только для чтения, группа пишется в новый
+     */
+    private void writeGroupToSegment(List<WritableDatabaseRecord> records) throws IOException, DatabaseException {
+
+        beforeWrite();
+        if (!currentSegment.writeGroup(records)) {
+            rollOver();
+            currentSegment.writeGroup(records);
+        }
+        onWritten(records);
+    }
+
+    /**
+     * Дописывает записи в текущий сегмент, при заполнении продолжает в новом, и обновляет индекс таблицы
+     */
+    private void writeToSegments(List<WritableDatabaseRecord> records) throws IOException, DatabaseException {
+
+        if (records.isEmpty()) {
+            return;
+        }
+        beforeWrite();
+        int written = 0;
+        while (written < records.size()) {
+            int count = currentSegment.writeAll(records.subList(written, records.size()));
+
+            if (count == 0) {
+                rollOver();
+                continue;
+            }
+
+            onWritten(records.subList(written, written + count));
+            written += count;
+        }
+    }
+
+    /**
+     * Вызывается под блокировкой записи перед записью в текущий сегмент. Отказывает в записи закрытой таблице.
+     * Начинает новый сегмент, если текущий
+     * слишком стар, и начинает готовить следующий сегмент, если он еще не готовится
+     */
+    private void beforeWrite() throws IOException, DatabaseException {
+        if (closed) {
+            throw new DatabaseException(String.format("Table \"%s\" is closed", name));
+        }
+        long now = System.currentTimeMillis();
+        if (currentSegmentFirstWrite != 0 && policy.isExpired(currentSegmentFirstWrite, now)) {
+            rollOver();
+        }
+        if (currentSegmentFirstWrite == 0) {
+            currentSegmentFirstWrite = now;
+        }
+        if (nextSegment == null) {
+            prepareNextSegment();
+        }
+    }
+
+    /**
+     * Отмечает текущий сегмент заполненным и делает текущим следующий. Выполняется под блокировкой записи.
+     * Если следующий сегмент получить не удалось, текущий остается текущим
+     */
+    private void rollOver() throws IOException, DatabaseException {
+        Segment next = takeNextSegment();
+        try {
+            currentSegment.seal();
+            manifest.sealSegment(currentSegment.getName());
+        } catch (IOException | DatabaseException e) {
+            nextSegment = CompletableFuture.completedFuture(next);
+            throw e;
+        }
+        currentSegment = next;
+        segments.add(currentSegment);
+        currentSegmentFirstWrite = 0;
+        prepareNextSegment();
+    }
+
+    /**
+     * Возвращает заранее подготовленный сегмент, а если он не готовился, создает сегмент сразу
+     *
+     * @throws DatabaseException если подготовить сегмент не удалось. Следующая запись начнет готовить новый
+     */
+    private Segment takeNextSegment() throws DatabaseException {
+        CompletableFuture<Segment> next = nextSegment;
+        nextSegment = null;
+        if (next != null) {
+            try {
+                return next.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof DatabaseException) {
+                    throw (DatabaseException) e.getCause();
+                }
+                throw new DatabaseException("Something gone wrong while preparing next segment of table " + name,
+                        e.getCause());
+            }
+        }
+        return SegmentImpl.create(manifest.addSegment(name), Paths.get(rootPath.toString(), name),
+                policy.getSegmentSize());
+    }
+
+    /**
+     * Создает файл следующего сегмента и открывает его на запись в фоне
+     */
+    private void prepareNextSegment() {
+        nextSegment = CompletableFuture.supplyAsync(() -> {
+            String segmentName = null;
+            SegmentImpl segment = null;
+            try {
+                segmentName = manifest.addSegment(name);
+                segment = (SegmentImpl) SegmentImpl.create(segmentName, Paths.get(rootPath.toString(), name),
+                        policy.getSegmentSize());
+                segment.prepareForWrites();
+                return segment;
+            } catch (IOException | DatabaseException e) {
+                discardSegment(segmentName, segment, e);
+                throw new CompletionException(e);
+            }
+        }, IoExecutor.shared());
+    }
+
+    /**
+     * Убирает из каталога и с диска сегмент, который не удалось подготовить, чтобы в каталоге не осталось
+     * сегмента, которого нет в таблице. Ошибки уборки добавляются к ошибке подготовки
+     */
+    private void discardSegment(String segmentName, Segment segment, Exception failure) {
+        if (segmentName == null) {
+            return;
+        }
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+            manifest.removeSegment(segmentName);
+            Files.deleteIfExists(Paths.get(rootPath.toString(), name, segmentName));
+        } catch (IOException | DatabaseException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Обновляет индекс таблицы записями, только что дописанными в текущий сегмент
+     */
+    private void onWritten(List<WritableDatabaseRecord> records) {
+        for (WritableDatabaseRecord dbr : records) {
+            ObjectKey objectKey = ObjectKey.wrap(dbr.getKey());
+            index.onIndexedEntityUpdated(objectKey, dbr.isValuePresented() ? currentSegment : null);
+            scheduleExpiration(objectKey, dbr.getExpiresAt());
+        }
+    }
+
+    @Override
+    public void write(ObjectKey objectKey, FileRegion objectValue, long expiresAt) throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            beforeWrite();
+            boolean success = currentSegment.write(objectKey, objectValue, expiresAt);
 
             if (!success) {
-                currentSegment = SegmentImpl.create(SegmentImpl.createSegmentName(name),
-                        Paths.get(rootPath.toString(), name));
-                currentSegment.write(objectKey, objectValue);
+                rollOver();
+                currentSegment.write(objectKey, objectValue, expiresAt);
+            }
+
+            index.onIndexedEntityUpdated(objectKey, currentSegment);
+            scheduleExpiration(objectKey, expiresAt);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while writing!", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Наличие ключа проверяется под блокировкой записи, поэтому между проверкой и записью ключ никто не изменит
+     */
+    @Override
+    public boolean writeIf(ObjectKey objectKey, byte[] objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            if (contains(objectKey) != present) {
+                return false;
+            }
+            write(objectKey, objectValue, expiresAt);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean writeIf(ObjectKey objectKey, FileRegion objectValue, long expiresAt, boolean present)
+            throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            if (contains(objectKey) != present) {
+                return false;
+            }
+            write(objectKey, objectValue, expiresAt);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Текущее значение читается под блокировкой записи, поэтому между чтением и записью ключ никто не изменит.
+     * Новое значение получает срок жизни текущего. Срок не меняется, поэтому ключ уже стоит в колесе таймеров
+     * с этим сроком и заново не ставится
+     */
+    @Override
+    public Optional<byte[]> compute(ObjectKey objectKey, ValueUpdater updater) throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            Optional<Segment> s = index.searchForKey(objectKey);
+            long expiresAt = s.isPresent() ? s.get().getExpiresAt(objectKey) : DatabaseRecord.NO_EXPIRATION;
+            byte[] currentValue = read(objectKey).orElse(null);
+            byte[] newValue = updater.update(currentValue);
+            if (newValue == null) {
+                return Optional.ofNullable(currentValue);
             }
 
+            beforeWrite();
+            if (!currentSegment.write(objectKey, newValue, expiresAt)) {
+                rollOver();
+                currentSegment.write(objectKey, newValue, expiresAt);
+            }
             index.onIndexedEntityUpdated(objectKey, currentSegment);
+            return Optional.of(newValue);
         } catch (IOException e) {
             throw new DatabaseException("Something gone wrong while writing!", e);
+        } finally {
+            writeLock.unlock();
         }
     }
 
     @Override
-    public Optional<byte[]> read(String objectKey) throws DatabaseException {
+    public Optional<byte[]> read(ObjectKey objectKey) throws DatabaseException {
 
         Optional<Segment> s = index.searchForKey(objectKey);
         Optional<byte[]> value = Optional.empty();
@@ -112,20 +536,285 @@ public class TableImpl implements Table {
     }
 
     @Override
-    public void delete(String objectKey) throws DatabaseException {
+    public Optional<Map<ObjectKey, byte[]>> readHash(ObjectKey objectKey) throws DatabaseException {
+
+        Optional<Segment> s = index.searchForKey(objectKey);
+
+        if (s.isEmpty()) {
+            return Optional.empty();
+        }
 
         try {
-            boolean success = currentSegment.delete(objectKey);
+            return s.get().readHash(objectKey);
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while reading!", e);
+        }
+    }
 
-            if (!success) {
-                currentSegment = SegmentImpl.create(SegmentImpl.createSegmentName(name),
-                        Paths.get(rootPath.toString(), name));
-                currentSegment.delete(objectKey);
+    /**
+     * Изменение дописывается к цепочке, только если хэш лежит в текущем сегменте. Иначе, а также когда цепочка
+     * становится слишком длинной, хэш записывается в текущий сегмент целиком, поэтому цепочка
+     * никогда не переходит из сегмента в сегмент.
+     * <p>
+     * Для дописываемого изменения читаются только прежние значения измененных полей, весь хэш собирается,
+     * только когда он записывается целиком. Изменение, которое только удаляет отсутствующие поля, не записывается
+     */
+    @Override
+    public Optional<Map<ObjectKey, byte[]>> updateHash(ObjectKey objectKey, HashDelta delta) throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            beforeWrite();
+            Optional<Segment> s = index.searchForKey(objectKey);
+            boolean exists = s.isPresent() && s.get().contains(objectKey);
+
+            Map<ObjectKey, byte[]> fields = null;
+            Map<ObjectKey, byte[]> previous = new LinkedHashMap<>();
+            if (exists && delta.isReset()) {
+                fields = s.get().readHash(objectKey).orElse(Collections.emptyMap());
+                previous.putAll(fields);
+            } else if (exists) {
+                for (ObjectKey field : delta.getChanges().keySet()) {
+                    s.get().readHashField(objectKey, field).ifPresent(value -> previous.put(field, value));
+                }
+            }
+
+            if (!delta.isReset() && removesOnlyAbsentFields(delta, previous)) {
+                return exists ? Optional.of(previous) : Optional.empty();
+            }
+
+            boolean appended = !delta.isReset() && exists && s.get() == currentSegment
+                    && currentSegment.writeHashDelta(objectKey, delta);
+
+            if (!appended) {
+                if (fields == null) {
+                    fields = exists ? s.get().readHash(objectKey).orElse(Collections.emptyMap()) : Collections.emptyMap();
+                }
+                Map<ObjectKey, byte[]> updated = new LinkedHashMap<>(fields);
+                delta.applyTo(updated);
+                HashDelta full = HashDelta.full(updated);
+                if (!currentSegment.writeHashDelta(objectKey, full)) {
+                    rollOver();
+                    currentSegment.writeHashDelta(objectKey, full);
+                }
+            }
+
+            index.onIndexedEntityUpdated(objectKey, currentSegment);
+            return exists ? Optional.of(previous) : Optional.empty();
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while writing!", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static boolean removesOnlyAbsentFields(HashDelta delta, Map<ObjectKey, byte[]> previous) {
+        for (Map.Entry<ObjectKey, byte[]> change : delta.getChanges().entrySet()) {
+            if (change.getValue() != null || previous.containsKey(change.getKey())) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    /**
+     * Удаленные ключи убираются из индекса таблицы, поэтому достаточно индекса и срока жизни из индекса сегмента
+     */
+    @Override
+    public boolean contains(ObjectKey objectKey) {
+        Optional<Segment> s = index.searchForKey(objectKey);
+        return s.isPresent() && s.get().contains(objectKey);
+    }
+
+    @Override
+    public boolean isHash(ObjectKey objectKey) {
+        Optional<Segment> s = index.searchForKey(objectKey);
+        return s.isPresent() && s.get().isHash(objectKey);
+    }
 
-            index.onIndexedEntityUpdated(objectKey, null);
+    @Override
+    public Optional<FileRegion> locate(ObjectKey objectKey) throws DatabaseException {
+
+        Optional<Segment> s = index.searchForKey(objectKey);
+
+        if (s.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return s.get().locate(objectKey);
         } catch (IOException e) {
-            throw new DatabaseException("Something gone wrong while deleting!", e);
+            throw new DatabaseException("Something gone wrong while reading!", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<FileRegion>> locateAsync(ObjectKey objectKey) {
+
+        Optional<Segment> s = index.searchForKey(objectKey);
+
+        if (s.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        CompletableFuture<Optional<FileRegion>> result = new CompletableFuture<>();
+        s.get().locateAsync(objectKey).whenComplete((region, failure) -> {
+            if (failure == null) {
+                result.complete(region);
+            } else {
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                result.completeExceptionally(new DatabaseException("Something gone wrong while reading!", cause));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ключи группируются по сегментам, сегменты читаются от старых к новым,
+     * а внутри сегмента записи читаются в порядке смещений
+     */
+    @Override
+    public List<Optional<byte[]>> readAll(List<ObjectKey> objectKeys) throws DatabaseException {
+
+        List<Optional<byte[]>> values = new ArrayList<>(Collections.nCopies(objectKeys.size(), Optional.empty()));
+        Map<Segment, List<Integer>> keysBySegment = new IdentityHashMap<>();
+
+        for (int i = 0; i < objectKeys.size(); i++) {
+            Optional<Segment> s = index.searchForKey(objectKeys.get(i));
+            if (s.isPresent()) {
+                keysBySegment.computeIfAbsent(s.get(), segment -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>(keysBySegment.keySet());
+        segments.sort(Comparator.comparing(Segment::getName));
+
+        try {
+            for (Segment segment : segments) {
+                List<Integer> positions = keysBySegment.get(segment);
+                List<ObjectKey> segmentKeys = new ArrayList<>(positions.size());
+                for (int position : positions) {
+                    segmentKeys.add(objectKeys.get(position));
+                }
+                List<Optional<byte[]>> segmentValues = segment.readAll(segmentKeys);
+                for (int i = 0; i < positions.size(); i++) {
+                    values.set(positions.get(i), segmentValues.get(i));
+                }
+            }
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while reading!", e);
+        }
+
+        return values;
+    }
+
+    @Override
+    public void delete(ObjectKey objectKey) throws DatabaseException {
+        submit(Collections.singletonList(SegmentImpl.record(objectKey, null, DatabaseRecord.NO_EXPIRATION)), false);
+    }
+
+    /**
+     * Все существующие ключи удаляются одной атомарной группой. Наличие ключей проверяется под блокировкой записи,
+     * поэтому между проверкой и удалением их никто не изменит
+     */
+    @Override
+    public int deleteAll(Collection<ObjectKey> objectKeys) throws DatabaseException {
+
+        writeLock.lock();
+        try {
+            List<WritableDatabaseRecord> records = new ArrayList<>(objectKeys.size());
+            for (ObjectKey objectKey : new LinkedHashSet<>(objectKeys)) {
+                if (contains(objectKey)) {
+                    records.add(SegmentImpl.record(objectKey, null, DatabaseRecord.NO_EXPIRATION));
+                }
+            }
+            if (!records.isEmpty()) {
+                submit(records, records.size() > 1);
+            }
+            return records.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Дожидается начатых записей, перестает принимать новые, дожидается подготовки следующего сегмента,
+     * сохраняет снимок индекса ({@link IndexSnapshot}) и закрывает файлы сегментов.
+     * Снимок покрывает все сегменты каталога, поэтому следующий запуск дочитает только записи, сделанные после него
+     */
+    @Override
+    public void close() throws DatabaseException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            // следующий сегмент дописывается в каталог в фоне: снимок должен покрыть каталог целиком,
+            // а открытый для записи сегмент - закрыться вместе с остальными
+            CompletableFuture<Segment> next = nextSegment;
+            nextSegment = null;
+            if (next != null) {
+                try {
+                    segments.add(next.join());
+                } catch (CompletionException e) {
+                    // сегмент не создан, закрывать нечего
+                }
+            }
+
+            Map<String, Long> sizes = new HashMap<>();
+            for (Segment segment : segments) {
+                sizes.put(segment.getName(), ((SegmentImpl) segment).getSize());
+            }
+            Map<ObjectKey, SegmentImpl> keys = new HashMap<>();
+            index.forEach((objectKey, segment) -> keys.put(objectKey, (SegmentImpl) segment));
+            IndexSnapshot.write(Paths.get(rootPath.toString(), name), manifest.getSegmentNames(), sizes, keys);
+
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new DatabaseException("Something gone wrong while closing segments of table " + name, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void scheduleExpiration(ObjectKey objectKey, long expiresAt) {
+        if (expiresAt != DatabaseRecord.NO_EXPIRATION) {
+            expirationWheel.schedule(objectKey, expiresAt, this::expire);
+        }
+    }
+
+    /**
+     * Вызывается колесом таймеров. Под блокировкой записи ключ не может быть перезаписан между проверкой срока
+     * и удалением из индексов, а перезаписанный с другим сроком ключ сегмент не отдаст
+     */
+    private void expire(ObjectKey objectKey, long expiresAt) {
+        writeLock.lock();
+        try {
+            Optional<Segment> s = index.searchForKey(objectKey);
+            if (s.isPresent() && s.get().expire(objectKey, expiresAt)) {
+                index.onIndexedEntityUpdated(objectKey, null);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Записи одного вызова, ожидающие дописывания. Поля меняются и читаются под блокировкой записи
+     */
+    private static final class PendingWrite {
+        private final List<WritableDatabaseRecord> records;
+        private final boolean atomic;
+        private boolean done;
+        private Exception failure;
+
+        private PendingWrite(List<WritableDatabaseRecord> records, boolean atomic) {
+            this.records = records;
+            this.atomic = atomic;
         }
     }
 }
@@ -2,6 +2,9 @@ package com.itmo.java.basics.logic.io;
 
 import com.itmo.java.basics.logic.DatabaseRecord;
 import com.itmo.java.basics.logic.WritableDatabaseRecord;
+import com.itmo.java.basics.logic.impl.ExpiringDatabaseRecord;
+import com.itmo.java.basics.logic.impl.GroupMarkerDatabaseRecord;
+import com.itmo.java.basics.logic.impl.HashDeltaDatabaseRecord;
 import com.itmo.java.basics.logic.impl.RemoveDatabaseRecord;
 import com.itmo.java.basics.logic.impl.SetDatabaseRecord;
 
@@ -17,6 +20,16 @@ import java.util.Optional;
 public class DatabaseInputStream extends DataInputStream {
     private static final int REMOVED_OBJECT_SIZE = -1;
 
+    /**
+     * Стоит на месте размера значения, если у записи есть срок жизни. За ним идут срок и настоящий размер значения
+     */
+    public static final int EXPIRATION_MARKER = -2;
+
+    /**
+     * Стоит на месте размера значения, если значение - изменение хэша. За ним идет настоящий размер значения
+     */
+    public static final int HASH_DELTA_MARKER = -3;
+
     public DatabaseInputStream(InputStream inputStream) {
         super(inputStream);
     }
@@ -30,14 +43,26 @@ public class DatabaseInputStream extends DataInputStream {
         WritableDatabaseRecord dbr;
         try {
             int keySize = readInt();
+            if (keySize < 0) {
+                return Optional.of(readGroupMarker(keySize));
+            }
             byte[] key = new byte[keySize];
-            read(key);
+            readFully(key);
             int valueSize = readInt();
             if (valueSize == REMOVED_OBJECT_SIZE) {
                 dbr = new RemoveDatabaseRecord(key);
+            } else if (valueSize == EXPIRATION_MARKER) {
+                long expiresAt = readLong();
+                byte[] value = new byte[readInt()];
+                readFully(value);
+                dbr = new ExpiringDatabaseRecord(key, value, expiresAt);
+            } else if (valueSize == HASH_DELTA_MARKER) {
+                byte[] delta = new byte[readInt()];
+                readFully(delta);
+                dbr = new HashDeltaDatabaseRecord(key, delta);
             } else {
                 byte[] value = new byte[valueSize];
-                read(value);
+                readFully(value);
                 dbr = new SetDatabaseRecord(key, value);
             }
             return Optional.of(dbr);
@@ -46,4 +71,12 @@ public class DatabaseInputStream extends DataInputStream {
         }
 
     }
+
+    private static GroupMarkerDatabaseRecord readGroupMarker(int marker) throws IOException {
+        try {
+            return GroupMarkerDatabaseRecord.of(marker);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Wrong key size " + marker, e);
+        }
+    }
 }
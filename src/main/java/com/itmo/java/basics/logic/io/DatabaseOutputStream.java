@@ -1,6 +1,8 @@
 package com.itmo.java.basics.logic.io;
 
+import com.itmo.java.basics.logic.DatabaseRecord;
 import com.itmo.java.basics.logic.WritableDatabaseRecord;
+import com.itmo.java.basics.logic.impl.GroupMarkerDatabaseRecord;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -20,6 +22,8 @@ public class DatabaseOutputStream extends DataOutputStream {
      * - Размер ключа в байтах используя {@link WritableDatabaseRecord#getKeySize()}
      * - Размер ключа в байтах, используя {@link WritableDatabaseRecord#getKeySize()}
      * - Ключ
+     * - Если у записи есть срок жизни, {@link DatabaseInputStream#EXPIRATION_MARKER} и срок {@link WritableDatabaseRecord#getExpiresAt()}
+     * - Если значение - изменение хэша, {@link DatabaseInputStream#HASH_DELTA_MARKER}
      * - Размер записи в байтах {@link WritableDatabaseRecord#getValueSize()}
      * - Запись
      * Например при использовании UTF_8,
@@ -38,6 +42,13 @@ public class DatabaseOutputStream extends DataOutputStream {
 
         writeInt(keySize);
         write(databaseRecord.getKey());
+        if (databaseRecord.getExpiresAt() != DatabaseRecord.NO_EXPIRATION) {
+            writeInt(DatabaseInputStream.EXPIRATION_MARKER);
+            writeLong(databaseRecord.getExpiresAt());
+        }
+        if (databaseRecord.isHashDelta()) {
+            writeInt(DatabaseInputStream.HASH_DELTA_MARKER);
+        }
         writeInt(valueSize);
         if (databaseRecord.isValuePresented()) {
             write(databaseRecord.getValue());
@@ -45,4 +56,16 @@ public class DatabaseOutputStream extends DataOutputStream {
 
         return (int)databaseRecord.size();
     }
+
+    /**
+     * Записывает служебную запись начала или конца группы записей (см. {@link GroupMarkerDatabaseRecord})
+     *
+     * @param marker запись-маркер
+     * @return размер записи
+     * @throws IOException если запись не удалась
+     */
+    public int writeGroupMarker(GroupMarkerDatabaseRecord marker) throws IOException {
+        writeInt(marker.getMarker());
+        return (int) marker.size();
+    }
 }
\ No newline at end of file
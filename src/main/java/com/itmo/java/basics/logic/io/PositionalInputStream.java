@@ -0,0 +1,48 @@
+package com.itmo.java.basics.logic.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Читает файл начиная с заданной позиции позиционными чтениями из {@link FileChannel}.
+ * Позиция самого канала не меняется, поэтому один канал могут одновременно читать несколько потоков.
+ * Закрытие стрима канал не закрывает
+ */
+public class PositionalInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private long position;
+
+    public PositionalInputStream(FileChannel channel, long position) {
+        this.channel = channel;
+        this.position = position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+        if (n > 0) {
+            position += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, channel.size() - position));
+        position += skipped;
+        return skipped;
+    }
+}
@@ -44,8 +44,8 @@ public class CommandReader implements AutoCloseable {
             throw new IllegalArgumentException("Wrong command: something is missed.");
         }
 
-        String commandName = objects.get(DatabaseCommandArgPositions.COMMAND_NAME.getPositionIndex()).asString();
-        return DatabaseCommands.valueOf(commandName).getCommand(env, objects);
+        byte[] commandName = objects.get(DatabaseCommandArgPositions.COMMAND_NAME.getPositionIndex()).asBytes();
+        return DatabaseCommands.fromName(commandName).getCommand(env, objects);
     }
 
     @Override
@@ -2,6 +2,9 @@ package com.itmo.java.client.client;
 
 import com.itmo.java.client.exception.DatabaseExecutionException;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * Клиент для доступа к БД
  */
@@ -10,9 +13,106 @@ public interface KvsClient {
 
     String createTable(String tableName) throws DatabaseExecutionException;
 
+    /**
+     * Создает таблицу, разбитую на {@code partitions} партиций
+     */
+    String createTable(String tableName, int partitions) throws DatabaseExecutionException;
+
+    /**
+     * Создает таблицу из {@code partitions} партиций, которая начинает новый сегмент, когда текущий
+     * вырос до {@code segmentSize} байт или старше {@code segmentMaxAgeMillis} (0 - возраст не ограничен)
+     */
+    String createTable(String tableName, int partitions, long segmentSize, long segmentMaxAgeMillis)
+            throws DatabaseExecutionException;
+
     String get(String tableName, String key) throws DatabaseExecutionException;
 
     String set(String tableName, String key, String value) throws DatabaseExecutionException;
 
+    /**
+     * Записывает значение с опциями: "NX" - только если ключа нет, "XX" - только если ключ есть,
+     * "NOPREV" - не возвращать предыдущее значение. С опциями возвращает "OK" или null, если запись не выполнена
+     */
+    String set(String tableName, String key, String value, String... options) throws DatabaseExecutionException;
+
     String delete(String tableName, String key) throws DatabaseExecutionException;
+
+    /**
+     * Читает значения по нескольким ключам за один запрос
+     *
+     * @return значения в порядке ключей, null для отсутствующих
+     */
+    List<String> multiGet(String tableName, List<String> keys) throws DatabaseExecutionException;
+
+    /**
+     * Записывает несколько значений за один запрос
+     *
+     * @return "OK"
+     */
+    String multiSet(String tableName, Map<String, String> values) throws DatabaseExecutionException;
+
+    /**
+     * Атомарно записывает и удаляет несколько ключей: после перезапуска сервера видны либо все изменения, либо ни одно.
+     * Таблица из нескольких партиций пакеты не принимает
+     *
+     * @param values значения по ключам. Значение null удаляет ключ
+     * @return "OK"
+     */
+    String batch(String tableName, Map<String, String> values) throws DatabaseExecutionException;
+
+    /**
+     * Удаляет значения по нескольким ключам за один запрос
+     *
+     * @return количество удаленных ключей
+     */
+    String multiDelete(String tableName, List<String> keys) throws DatabaseExecutionException;
+
+    /**
+     * Атомарно увеличивает числовое значение на {@code delta}. Отсутствующее значение считается нулем
+     *
+     * @return новое значение
+     */
+    String increment(String tableName, String key, long delta) throws DatabaseExecutionException;
+
+    /**
+     * Атомарно заменяет значение, если текущее равно {@code expectedValue} (null - если ключа быть не должно)
+     *
+     * @return "OK", если значение заменено, null - если текущее значение другое
+     */
+    String compareAndSet(String tableName, String key, String expectedValue, String newValue) throws DatabaseExecutionException;
+
+    /**
+     * Атомарно дописывает строку в конец значения
+     *
+     * @return длина нового значения в байтах
+     */
+    String append(String tableName, String key, String suffix) throws DatabaseExecutionException;
+
+    /**
+     * Читает поле значения-хэша
+     *
+     * @return значение поля или null, если поля нет
+     */
+    String hashGet(String tableName, String key, String field) throws DatabaseExecutionException;
+
+    /**
+     * Записывает поле значения-хэша
+     *
+     * @return предыдущее значение поля или null, если поля не было
+     */
+    String hashSet(String tableName, String key, String field, String value) throws DatabaseExecutionException;
+
+    /**
+     * Удаляет поле значения-хэша
+     *
+     * @return удаленное значение поля или null, если поля не было
+     */
+    String hashDelete(String tableName, String key, String field) throws DatabaseExecutionException;
+
+    /**
+     * Читает все поля значения-хэша
+     *
+     * @return значения по именам полей, пустые, если ключа нет
+     */
+    Map<String, String> hashGetAll(String tableName, String key) throws DatabaseExecutionException;
 }
@@ -4,8 +4,13 @@ import com.itmo.java.client.command.*;
 import com.itmo.java.client.connection.KvsConnection;
 import com.itmo.java.client.exception.ConnectionException;
 import com.itmo.java.client.exception.DatabaseExecutionException;
+import com.itmo.java.protocol.model.RespArray;
 import com.itmo.java.protocol.model.RespObject;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 public class SimpleKvsClient implements KvsClient {
@@ -36,6 +41,20 @@ public class SimpleKvsClient implements KvsClient {
         return getResult(command);
     }
 
+    @Override
+    public String createTable(String tableName, int partitions) throws DatabaseExecutionException {
+        KvsCommand command = new CreateTableKvsCommand(databaseName, tableName, partitions);
+        return getResult(command);
+    }
+
+    @Override
+    public String createTable(String tableName, int partitions, long segmentSize, long segmentMaxAgeMillis)
+            throws DatabaseExecutionException {
+        KvsCommand command = new CreateTableKvsCommand(databaseName, tableName, partitions,
+                segmentSize, segmentMaxAgeMillis);
+        return getResult(command);
+    }
+
     @Override
     public String get(String tableName, String key) throws DatabaseExecutionException {
         KvsCommand command = new GetKvsCommand(databaseName, tableName, key);
@@ -48,19 +67,112 @@ public class SimpleKvsClient implements KvsClient {
         return getResult(command);
     }
 
+    @Override
+    public String set(String tableName, String key, String value, String... options) throws DatabaseExecutionException {
+        KvsCommand command = new SetKvsCommand(databaseName, tableName, key, value, options);
+        return getResult(command);
+    }
+
     @Override
     public String delete(String tableName, String key) throws DatabaseExecutionException {
         KvsCommand command = new DeleteKvsCommand(databaseName, tableName, key);
         return getResult(command);
     }
 
+    @Override
+    public List<String> multiGet(String tableName, List<String> keys) throws DatabaseExecutionException {
+        KvsCommand command = new MultiGetKvsCommand(databaseName, tableName, keys);
+        RespObject result = send(command);
+        if (!(result instanceof RespArray)) {
+            throw new DatabaseExecutionException("Command was failed: unexpected reply " + result.asString());
+        }
+        List<String> values = new ArrayList<>();
+        for (RespObject value : ((RespArray) result).getObjects()) {
+            values.add(value.asString());
+        }
+        return values;
+    }
+
+    @Override
+    public String multiSet(String tableName, Map<String, String> values) throws DatabaseExecutionException {
+        KvsCommand command = new MultiSetKvsCommand(databaseName, tableName, values);
+        return getResult(command);
+    }
+
+    @Override
+    public String batch(String tableName, Map<String, String> values) throws DatabaseExecutionException {
+        KvsCommand command = new BatchKvsCommand(databaseName, tableName, values);
+        return getResult(command);
+    }
+
+    @Override
+    public String multiDelete(String tableName, List<String> keys) throws DatabaseExecutionException {
+        KvsCommand command = new MultiDeleteKvsCommand(databaseName, tableName, keys);
+        return getResult(command);
+    }
+
+    @Override
+    public String increment(String tableName, String key, long delta) throws DatabaseExecutionException {
+        KvsCommand command = new IncrementKvsCommand(databaseName, tableName, key, delta);
+        return getResult(command);
+    }
+
+    @Override
+    public String compareAndSet(String tableName, String key, String expectedValue, String newValue) throws DatabaseExecutionException {
+        KvsCommand command = new CompareAndSetKvsCommand(databaseName, tableName, key, expectedValue, newValue);
+        return getResult(command);
+    }
+
+    @Override
+    public String append(String tableName, String key, String suffix) throws DatabaseExecutionException {
+        KvsCommand command = new AppendKvsCommand(databaseName, tableName, key, suffix);
+        return getResult(command);
+    }
+
+    @Override
+    public String hashGet(String tableName, String key, String field) throws DatabaseExecutionException {
+        KvsCommand command = new HashGetKvsCommand(databaseName, tableName, key, field);
+        return getResult(command);
+    }
+
+    @Override
+    public String hashSet(String tableName, String key, String field, String value) throws DatabaseExecutionException {
+        KvsCommand command = new HashSetKvsCommand(databaseName, tableName, key, field, value);
+        return getResult(command);
+    }
+
+    @Override
+    public String hashDelete(String tableName, String key, String field) throws DatabaseExecutionException {
+        KvsCommand command = new HashDeleteKvsCommand(databaseName, tableName, key, field);
+        return getResult(command);
+    }
+
+    @Override
+    public Map<String, String> hashGetAll(String tableName, String key) throws DatabaseExecutionException {
+        KvsCommand command = new HashGetAllKvsCommand(databaseName, tableName, key);
+        RespObject result = send(command);
+        if (!(result instanceof RespArray)) {
+            throw new DatabaseExecutionException("Command was failed: unexpected reply " + result.asString());
+        }
+        List<RespObject> objects = ((RespArray) result).getObjects();
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < objects.size(); i += 2) {
+            fields.put(objects.get(i).asString(), objects.get(i + 1).asString());
+        }
+        return fields;
+    }
+
     private String getResult(KvsCommand command) throws DatabaseExecutionException {
+        return send(command).asString();
+    }
+
+    private RespObject send(KvsCommand command) throws DatabaseExecutionException {
         try {
             RespObject result = connectionSupplier.get().send(command.getCommandId(), command.serialize());
             if (result.isError()) {
                 throw new DatabaseExecutionException("Command was failed: " + result.asString());
             }
-            return result.asString();
+            return result;
         } catch (ConnectionException e) {
             throw new DatabaseExecutionException("Something gone wrong while working with database " + databaseName);
         }
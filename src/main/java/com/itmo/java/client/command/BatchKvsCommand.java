@@ -0,0 +1,63 @@
+package com.itmo.java.client.command;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BatchKvsCommand implements KvsCommand {
+
+    private static final String COMMAND_NAME = "BATCH_KEY";
+    private static final String SET_OPERATION = "SET";
+    private static final String DELETE_OPERATION = "DELETE";
+
+    private final String databaseName;
+    private final String tableName;
+    private final Map<String, String> values;
+    private final int commandId;
+
+    /**
+     * @param values значения по ключам. Значение null удаляет ключ
+     */
+    public BatchKvsCommand(String databaseName, String tableName, Map<String, String> values) {
+        this.databaseName = databaseName;
+        this.tableName = tableName;
+        this.values = values;
+        commandId = idGen.getAndIncrement();
+    }
+
+    /**
+     * Возвращает RESP объект. {@link RespArray} с {@link RespCommandId}, именем команды, аргументами в виде {@link RespBulkString}.
+     * Каждая пара превращается в операцию "SET ключ значение" или "DELETE ключ"
+     *
+     * @return объект
+     */
+    @Override
+    public RespArray serialize() {
+        List<RespObject> objects = new ArrayList<>();
+        objects.add(new RespCommandId(commandId));
+        objects.add(new RespBulkString(COMMAND_NAME.getBytes()));
+        objects.add(new RespBulkString(databaseName.getBytes()));
+        objects.add(new RespBulkString(tableName.getBytes()));
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                objects.add(new RespBulkString(DELETE_OPERATION.getBytes()));
+                objects.add(new RespBulkString(entry.getKey().getBytes()));
+            } else {
+                objects.add(new RespBulkString(SET_OPERATION.getBytes()));
+                objects.add(new RespBulkString(entry.getKey().getBytes()));
+                objects.add(new RespBulkString(entry.getValue().getBytes()));
+            }
+        }
+        return new RespArray(objects.toArray(new RespObject[0]));
+    }
+
+    @Override
+    public int getCommandId() {
+        return commandId;
+    }
+}
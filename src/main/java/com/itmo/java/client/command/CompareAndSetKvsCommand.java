@@ -0,0 +1,52 @@
+package com.itmo.java.client.command;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+
+public class CompareAndSetKvsCommand implements KvsCommand {
+
+    private static final String COMMAND_NAME = "CAS_KEY";
+
+    private final String databaseName;
+    private final String tableName;
+    private final String key;
+    private final String expectedValue;
+    private final String newValue;
+    private final int commandId;
+
+    /**
+     * @param expectedValue ожидаемое текущее значение, null - если ключа быть не должно
+     */
+    public CompareAndSetKvsCommand(String databaseName, String tableName, String key, String expectedValue, String newValue) {
+        this.databaseName = databaseName;
+        this.tableName = tableName;
+        this.key = key;
+        this.expectedValue = expectedValue;
+        this.newValue = newValue;
+        commandId = idGen.getAndIncrement();
+    }
+
+    /**
+     * Возвращает RESP объект. {@link RespArray} с {@link RespCommandId}, именем команды, аргументами в виде {@link RespBulkString}
+     *
+     * @return объект
+     */
+    @Override
+    public RespArray serialize() {
+        return new RespArray(
+                new RespCommandId(commandId),
+                new RespBulkString(COMMAND_NAME.getBytes()),
+                new RespBulkString(databaseName.getBytes()),
+                new RespBulkString(tableName.getBytes()),
+                new RespBulkString(key.getBytes()),
+                expectedValue == null ? RespBulkString.NULL_STRING : new RespBulkString(expectedValue.getBytes()),
+                new RespBulkString(newValue.getBytes())
+        );
+    }
+
+    @Override
+    public int getCommandId() {
+        return commandId;
+    }
+}
@@ -12,11 +12,34 @@ public class CreateTableKvsCommand implements KvsCommand {
 
     private final String databaseName;
     private final String tableName;
+    private final Integer partitions;
+    private final Long segmentSize;
+    private final Long segmentMaxAgeMillis;
     private final int commandId;
 
     public CreateTableKvsCommand(String databaseName, String tableName) {
+        this(databaseName, tableName, null);
+    }
+
+    /**
+     * @param partitions количество партиций таблицы, {@code null} - обычная таблица
+     */
+    public CreateTableKvsCommand(String databaseName, String tableName, Integer partitions) {
+        this(databaseName, tableName, partitions, null, null);
+    }
+
+    /**
+     * @param partitions          количество партиций таблицы
+     * @param segmentSize         размер сегмента таблицы, {@code null} - по умолчанию
+     * @param segmentMaxAgeMillis максимальный возраст сегмента, {@code null} - не ограничен
+     */
+    public CreateTableKvsCommand(String databaseName, String tableName, Integer partitions,
+                                 Long segmentSize, Long segmentMaxAgeMillis) {
         this.databaseName = databaseName;
         this.tableName = tableName;
+        this.partitions = partitions;
+        this.segmentSize = segmentSize;
+        this.segmentMaxAgeMillis = segmentMaxAgeMillis;
         commandId = idGen.getAndIncrement();
     }
 
@@ -27,6 +50,26 @@ public class CreateTableKvsCommand implements KvsCommand {
      */
     @Override
     public RespArray serialize() {
+        if (segmentSize != null) {
+            return new RespArray(
+                    new RespCommandId(commandId),
+                    new RespBulkString(COMMAND_NAME.getBytes()),
+                    new RespBulkString(databaseName.getBytes()),
+                    new RespBulkString(tableName.getBytes()),
+                    new RespBulkString(String.valueOf(partitions == null ? 1 : partitions).getBytes()),
+                    new RespBulkString(String.valueOf(segmentSize).getBytes()),
+                    new RespBulkString(String.valueOf(segmentMaxAgeMillis == null ? 0 : segmentMaxAgeMillis).getBytes())
+            );
+        }
+        if (partitions != null) {
+            return new RespArray(
+                    new RespCommandId(commandId),
+                    new RespBulkString(COMMAND_NAME.getBytes()),
+                    new RespBulkString(databaseName.getBytes()),
+                    new RespBulkString(tableName.getBytes()),
+                    new RespBulkString(String.valueOf(partitions).getBytes())
+            );
+        }
         return new RespArray(
                 new RespCommandId(commandId),
                 new RespBulkString(COMMAND_NAME.getBytes()),
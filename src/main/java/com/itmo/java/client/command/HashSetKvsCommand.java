@@ -0,0 +1,49 @@
+package com.itmo.java.client.command;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+
+public class HashSetKvsCommand implements KvsCommand {
+
+    private static final String COMMAND_NAME = "HSET_KEY";
+
+    private final String databaseName;
+    private final String tableName;
+    private final String key;
+    private final String field;
+    private final String value;
+    private final int commandId;
+
+    public HashSetKvsCommand(String databaseName, String tableName, String key, String field, String value) {
+        this.databaseName = databaseName;
+        this.tableName = tableName;
+        this.key = key;
+        this.field = field;
+        this.value = value;
+        commandId = idGen.getAndIncrement();
+    }
+
+    /**
+     * Возвращает RESP объект. {@link RespArray} с {@link RespCommandId}, именем команды, аргументами в виде {@link RespBulkString}
+     *
+     * @return объект
+     */
+    @Override
+    public RespArray serialize() {
+        return new RespArray(
+                new RespCommandId(commandId),
+                new RespBulkString(COMMAND_NAME.getBytes()),
+                new RespBulkString(databaseName.getBytes()),
+                new RespBulkString(tableName.getBytes()),
+                new RespBulkString(key.getBytes()),
+                new RespBulkString(field.getBytes()),
+                new RespBulkString(value.getBytes())
+        );
+    }
+
+    @Override
+    public int getCommandId() {
+        return commandId;
+    }
+}
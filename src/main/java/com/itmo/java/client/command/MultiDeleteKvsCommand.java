@@ -0,0 +1,49 @@
+package com.itmo.java.client.command;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.List;
+
+public class MultiDeleteKvsCommand implements KvsCommand {
+
+    private static final String COMMAND_NAME = "MDELETE_KEY";
+    private static final int REQUIRED_ARGUMENTS = 4;
+
+    private final String databaseName;
+    private final String tableName;
+    private final List<String> keys;
+    private final int commandId;
+
+    public MultiDeleteKvsCommand(String databaseName, String tableName, List<String> keys) {
+        this.databaseName = databaseName;
+        this.tableName = tableName;
+        this.keys = keys;
+        commandId = idGen.getAndIncrement();
+    }
+
+    /**
+     * Возвращает RESP объект. {@link RespArray} с {@link RespCommandId}, именем команды, аргументами в виде {@link RespBulkString}
+     *
+     * @return объект
+     */
+    @Override
+    public RespArray serialize() {
+        RespObject[] objects = new RespObject[REQUIRED_ARGUMENTS + keys.size()];
+        objects[0] = new RespCommandId(commandId);
+        objects[1] = new RespBulkString(COMMAND_NAME.getBytes());
+        objects[2] = new RespBulkString(databaseName.getBytes());
+        objects[3] = new RespBulkString(tableName.getBytes());
+        for (int i = 0; i < keys.size(); i++) {
+            objects[REQUIRED_ARGUMENTS + i] = new RespBulkString(keys.get(i).getBytes());
+        }
+        return new RespArray(objects);
+    }
+
+    @Override
+    public int getCommandId() {
+        return commandId;
+    }
+}
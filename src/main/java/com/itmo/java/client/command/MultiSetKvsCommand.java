@@ -0,0 +1,52 @@
+package com.itmo.java.client.command;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.util.Map;
+
+public class MultiSetKvsCommand implements KvsCommand {
+
+    private static final String COMMAND_NAME = "MSET_KEY";
+    private static final int REQUIRED_ARGUMENTS = 4;
+
+    private final String databaseName;
+    private final String tableName;
+    private final Map<String, String> values;
+    private final int commandId;
+
+    public MultiSetKvsCommand(String databaseName, String tableName, Map<String, String> values) {
+        this.databaseName = databaseName;
+        this.tableName = tableName;
+        this.values = values;
+        commandId = idGen.getAndIncrement();
+    }
+
+    /**
+     * Возвращает RESP объект. {@link RespArray} с {@link RespCommandId}, именем команды, аргументами в виде {@link RespBulkString}.
+     * Пары ключ-значение идут подряд
+     *
+     * @return объект
+     */
+    @Override
+    public RespArray serialize() {
+        RespObject[] objects = new RespObject[REQUIRED_ARGUMENTS + 2 * values.size()];
+        objects[0] = new RespCommandId(commandId);
+        objects[1] = new RespBulkString(COMMAND_NAME.getBytes());
+        objects[2] = new RespBulkString(databaseName.getBytes());
+        objects[3] = new RespBulkString(tableName.getBytes());
+        int i = REQUIRED_ARGUMENTS;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            objects[i++] = new RespBulkString(entry.getKey().getBytes());
+            objects[i++] = new RespBulkString(entry.getValue().getBytes());
+        }
+        return new RespArray(objects);
+    }
+
+    @Override
+    public int getCommandId() {
+        return commandId;
+    }
+}
@@ -3,22 +3,33 @@ package com.itmo.java.client.command;
 import com.itmo.java.protocol.model.RespArray;
 import com.itmo.java.protocol.model.RespBulkString;
 import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
 
 public class SetKvsCommand implements KvsCommand {
 
     private static final String COMMAND_NAME = "SET_KEY";
+    private static final int REQUIRED_ARGUMENTS = 6;
 
     private final String databaseName;
     private final String tableName;
     private final String key;
     private final String value;
+    private final String[] options;
     private final int commandId;
 
     public SetKvsCommand(String databaseName, String tableName, String key, String value) {
+        this(databaseName, tableName, key, value, new String[0]);
+    }
+
+    /**
+     * @param options опции записи, передаются после значения. Например, "NX", "XX", "NOPREV" или "EX", "60"
+     */
+    public SetKvsCommand(String databaseName, String tableName, String key, String value, String... options) {
         this.databaseName = databaseName;
         this.tableName = tableName;
         this.key = key;
         this.value = value;
+        this.options = options;
         commandId = idGen.getAndIncrement();
     }
 
@@ -29,14 +40,17 @@ public class SetKvsCommand implements KvsCommand {
      */
     @Override
     public RespArray serialize() {
-        return new RespArray(
-                new RespCommandId(commandId),
-                new RespBulkString(COMMAND_NAME.getBytes()),
-                new RespBulkString(databaseName.getBytes()),
-                new RespBulkString(tableName.getBytes()),
-                new RespBulkString(key.getBytes()),
-                new RespBulkString(value.getBytes())
-        );
+        RespObject[] objects = new RespObject[REQUIRED_ARGUMENTS + options.length];
+        objects[0] = new RespCommandId(commandId);
+        objects[1] = new RespBulkString(COMMAND_NAME.getBytes());
+        objects[2] = new RespBulkString(databaseName.getBytes());
+        objects[3] = new RespBulkString(tableName.getBytes());
+        objects[4] = new RespBulkString(key.getBytes());
+        objects[5] = new RespBulkString(value.getBytes());
+        for (int i = 0; i < options.length; i++) {
+            objects[REQUIRED_ARGUMENTS + i] = new RespBulkString(options[i].getBytes());
+        }
+        return new RespArray(objects);
     }
 
     @Override
@@ -0,0 +1,347 @@
+package com.itmo.java.protocol;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespError;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Разбирает RESP объекты прямо из {@link ByteBuffer} без промежуточных коллекций и строк.
+ * <p>
+ * Умеет работать с неполными данными: если в буфере лежит только часть объекта, методы возвращают {@code null}
+ * и не сдвигают позицию буфера. После дочитывания данных разбор можно повторить с той же позиции,
+ * поэтому один и тот же декодер подходит и для блокирующих стримов, и для NIO каналов.
+ * <p>
+ * Объекты создаются только после того, как объект целиком оказался в буфере.
+ * <p>
+ * Декодер хранит, докуда просмотрен недочитанный объект, поэтому один декодер разбирает один поток данных
+ * (см {@link #reset()}).
+ */
+public class RespDecoder {
+
+    /**
+     * Результат {@link #frameLength(ByteBuffer)}, когда объект еще не дочитан
+     */
+    public static final int INCOMPLETE = -1;
+
+    /**
+     * Срез, который возвращает {@link #decodeBulkSlice(ByteBuffer)} для null bulk строки. Сравнивается по ссылке
+     */
+    public static final ByteBuffer NULL_BULK_SLICE = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int COMMAND_ID_SIZE = Integer.BYTES;
+
+    /**
+     * Состояние просмотра недочитанного объекта (см {@link #frameLength(ByteBuffer)}): буфер и позиция,
+     * с которой начинается объект, позиция первого непросмотренного элемента и стек оставшихся элементов массивов
+     */
+    private ByteBuffer scanBuffer;
+    private int scanStart;
+    private int scanPosition;
+    private int scanDepth;
+    private int[] scanRemaining = new int[8];
+
+    /**
+     * Разбирает следующий объект с текущей позиции буфера
+     *
+     * @return объект или {@code null}, если объект в буфере еще не целиком. В этом случае позиция не меняется
+     * @throws IOException если данные в буфере не являются корректным RESP
+     */
+    public RespObject decode(ByteBuffer buffer) throws IOException {
+        if (frameLength(buffer) == INCOMPLETE) {
+            return null;
+        }
+        return decodeComplete(buffer);
+    }
+
+    /**
+     * Возвращает содержимое bulk строки как срез буфера, без копирования.
+     * Срез действителен, пока не перезаписан исходный буфер
+     *
+     * @return срез, {@link #NULL_BULK_SLICE} для null строки или {@code null}, если строка в буфере еще не целиком
+     * @throws IOException если с текущей позиции лежит не bulk строка
+     */
+    public ByteBuffer decodeBulkSlice(ByteBuffer buffer) throws IOException {
+        if (frameLength(buffer) == INCOMPLETE) {
+            return null;
+        }
+        int pos = buffer.position();
+        expectCode(buffer, pos, RespBulkString.CODE);
+        int lineEnd = findCRLF(buffer, pos + 1);
+        int size = parseInt(buffer, pos + 1, lineEnd);
+        if (size == RespBulkString.NULL_STRING_SIZE) {
+            buffer.position(lineEnd + 2);
+            return NULL_BULK_SLICE;
+        }
+        int start = lineEnd + 2;
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(start).limit(start + size);
+        buffer.position(start + size + 2);
+        return slice.slice();
+    }
+
+    /**
+     * Считает длину объекта, начинающегося с текущей позиции, ничего не создавая и не сдвигая позицию.
+     * <br/>
+     * Если объект еще не целиком в буфере, запоминается, докуда он просмотрен. Повторный вызов с тем же буфером
+     * и той же позицией продолжает просмотр с этого места, поэтому дочитывание большого массива по частям
+     * не просматривает уже пришедшие элементы заново
+     *
+     * @return длина объекта в байтах или {@link #INCOMPLETE}, если объект в буфере еще не целиком
+     * @throws IOException если данные в буфере не являются корректным RESP
+     */
+    public int frameLength(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        if (buffer != scanBuffer || start != scanStart || buffer.limit() < scanPosition) {
+            scanBuffer = buffer;
+            scanStart = start;
+            scanPosition = start;
+            scanDepth = 1;
+            scanRemaining[0] = 1;
+        }
+
+        int end;
+        try {
+            end = frameEnd(buffer);
+        } catch (IOException e) {
+            scanBuffer = null;
+            throw e;
+        }
+        if (end == INCOMPLETE) {
+            return INCOMPLETE;
+        }
+        scanBuffer = null;
+        return end - start;
+    }
+
+    /**
+     * Забывает, докуда просмотрен недочитанный объект. Нужно вызвать, если недочитанный объект разбирается
+     * не этим декодером (например, по заголовкам), чтобы следующий объект на той же позиции просматривался с начала
+     */
+    public void reset() {
+        scanBuffer = null;
+    }
+
+    /**
+     * Считает длину строки заголовка массива или bulk строки ("*N\r\n", "$N\r\n"), начинающейся с текущей позиции
+     *
+     * @return длина заголовка в байтах или {@link #INCOMPLETE}, если заголовок еще не дочитан
+     * @throws IOException если данные в буфере не являются корректным RESP
+     */
+    public int headerLength(ByteBuffer buffer) throws IOException {
+        int pos = buffer.position();
+        int lineEnd = findCRLF(buffer, pos + 1);
+        return lineEnd == INCOMPLETE ? INCOMPLETE : lineEnd + 2 - pos;
+    }
+
+    /**
+     * Разбирает число из заголовка, который целиком лежит в буфере (см. {@link #headerLength(ByteBuffer)}),
+     * и сдвигает позицию за заголовок. Содержимое объекта не читается
+     *
+     * @return размер массива или bulk строки
+     * @throws IOException если заголовок не дочитан или некорректен
+     */
+    public int readHeader(ByteBuffer buffer) throws IOException {
+        int pos = buffer.position();
+        int lineEnd = findCRLF(buffer, pos + 1);
+        if (lineEnd == INCOMPLETE) {
+            throw new IOException("Wrong object in the stream");
+        }
+        int value = parseInt(buffer, pos + 1, lineEnd);
+        buffer.position(lineEnd + 2);
+        return value;
+    }
+
+    /**
+     * Продолжает просмотр объекта с {@link #scanPosition}. На вершине стека - сколько элементов осталось
+     * просмотреть в текущем массиве, на дне - сам объект
+     *
+     * @return позиция за концом объекта или {@link #INCOMPLETE}. Тогда состояние просмотра указывает
+     * на первый не пришедший целиком элемент
+     */
+    private int frameEnd(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        while (true) {
+            while (scanDepth > 0 && scanRemaining[scanDepth - 1] == 0) {
+                scanDepth--;
+            }
+            if (scanDepth == 0) {
+                return scanPosition;
+            }
+
+            int pos = scanPosition;
+            if (pos >= limit) {
+                return INCOMPLETE;
+            }
+            byte code = buffer.get(pos);
+            switch (code) {
+                case RespError.CODE: {
+                    int lineEnd = findCRLF(buffer, pos + 1);
+                    if (lineEnd == INCOMPLETE) {
+                        return INCOMPLETE;
+                    }
+                    scanPosition = lineEnd + 2;
+                    break;
+                }
+                case RespCommandId.CODE: {
+                    int end = pos + 1 + COMMAND_ID_SIZE + 2;
+                    if (end > limit) {
+                        return INCOMPLETE;
+                    }
+                    checkCRLF(buffer, end - 2);
+                    scanPosition = end;
+                    break;
+                }
+                case RespBulkString.CODE: {
+                    int lineEnd = findCRLF(buffer, pos + 1);
+                    if (lineEnd == INCOMPLETE) {
+                        return INCOMPLETE;
+                    }
+                    int size = parseInt(buffer, pos + 1, lineEnd);
+                    if (size == RespBulkString.NULL_STRING_SIZE) {
+                        scanPosition = lineEnd + 2;
+                        break;
+                    }
+                    if (size < 0) {
+                        throw new IOException("Wrong bulk string size " + size);
+                    }
+                    long end = (long) lineEnd + 2 + size + 2;
+                    if (end > limit) {
+                        return INCOMPLETE;
+                    }
+                    checkCRLF(buffer, (int) end - 2);
+                    scanPosition = (int) end;
+                    break;
+                }
+                case RespArray.CODE: {
+                    int lineEnd = findCRLF(buffer, pos + 1);
+                    if (lineEnd == INCOMPLETE) {
+                        return INCOMPLETE;
+                    }
+                    int size = parseInt(buffer, pos + 1, lineEnd);
+                    if (size < 0) {
+                        throw new IOException("Wrong array size " + size);
+                    }
+                    scanRemaining[scanDepth - 1]--;
+                    if (scanDepth == scanRemaining.length) {
+                        scanRemaining = Arrays.copyOf(scanRemaining, scanDepth * 2);
+                    }
+                    scanRemaining[scanDepth++] = size;
+                    scanPosition = lineEnd + 2;
+                    continue;
+                }
+                default:
+                    throw new IOException("Wrong first symbol");
+            }
+            scanRemaining[scanDepth - 1]--;
+        }
+    }
+
+    private RespObject decodeComplete(ByteBuffer buffer) throws IOException {
+        int pos = buffer.position();
+        byte code = buffer.get(pos);
+        switch (code) {
+            case RespError.CODE: {
+                int lineEnd = findCRLF(buffer, pos + 1);
+                byte[] message = new byte[lineEnd - pos - 1];
+                buffer.position(pos + 1);
+                buffer.get(message);
+                buffer.position(lineEnd + 2);
+                return new RespError(message);
+            }
+            case RespCommandId.CODE: {
+                int id = buffer.getInt(pos + 1);
+                buffer.position(pos + 1 + COMMAND_ID_SIZE + 2);
+                return new RespCommandId(id);
+            }
+            case RespBulkString.CODE: {
+                int lineEnd = findCRLF(buffer, pos + 1);
+                int size = parseInt(buffer, pos + 1, lineEnd);
+                if (size == RespBulkString.NULL_STRING_SIZE) {
+                    buffer.position(lineEnd + 2);
+                    return RespBulkString.NULL_STRING;
+                }
+                byte[] payload = new byte[size];
+                buffer.position(lineEnd + 2);
+                buffer.get(payload);
+                buffer.position(buffer.position() + 2);
+                return new RespBulkString(payload);
+            }
+            case RespArray.CODE: {
+                int lineEnd = findCRLF(buffer, pos + 1);
+                int size = parseInt(buffer, pos + 1, lineEnd);
+                buffer.position(lineEnd + 2);
+                RespObject[] objects = new RespObject[size];
+                for (int i = 0; i < size; i++) {
+                    objects[i] = decodeComplete(buffer);
+                }
+                return new RespArray(objects);
+            }
+            default:
+                throw new IOException("Wrong first symbol");
+        }
+    }
+
+    /**
+     * Ищет CR LF начиная с позиции {@code from}
+     *
+     * @return позиция CR или {@link #INCOMPLETE}, если конец строки еще не пришел
+     */
+    private static int findCRLF(ByteBuffer buffer, int from) throws IOException {
+        int limit = buffer.limit() - 1;
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == CR) {
+                if (buffer.get(i + 1) != LF) {
+                    throw new IOException("Wrong object in the stream");
+                }
+                return i;
+            }
+        }
+        return INCOMPLETE;
+    }
+
+    private static void checkCRLF(ByteBuffer buffer, int pos) throws IOException {
+        if (buffer.get(pos) != CR || buffer.get(pos + 1) != LF) {
+            throw new IOException("Wrong object in the stream");
+        }
+    }
+
+    /**
+     * Разбирает десятичное число из байтов [from, to) без создания строки
+     */
+    private static int parseInt(ByteBuffer buffer, int from, int to) throws IOException {
+        if (from >= to) {
+            throw new IOException("Wrong object in the stream");
+        }
+        boolean negative = buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i >= to) {
+            throw new IOException("Wrong object in the stream");
+        }
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("Wrong object in the stream");
+            }
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE) {
+                throw new IOException("Number is too big");
+            }
+        }
+        return (int) (negative ? -result : result);
+    }
+
+    private static void expectCode(ByteBuffer buffer, int pos, byte code) throws IOException {
+        if (buffer.get(pos) != code) {
+            throw new IOException("Wrong object in the stream");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.itmo.java.protocol;
+
+import com.itmo.java.protocol.model.RespFileRegion;
+import com.itmo.java.protocol.model.RespHeaders;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сериализует RESP объекты в буферы из {@link ByteBufferPool} и записывает их одной операцией.
+ * <p>
+ * Мелкие части объекта (заголовки, короткие строки) копируются в буферы пула, а большие значения
+ * (не меньше {@link #LARGE_WRITE_THRESHOLD} байт) не копируются: массив оборачивается в отдельный буфер,
+ * и все буферы уходят в канал gathering записью. Поэтому массивы, переданные в RESP объекты,
+ * не должны меняться до окончания записи.
+ * <p>
+ * {@link RespFileRegion} при записи в канал передается из файла через {@link java.nio.channels.FileChannel#transferTo}.
+ * <p>
+ * Не потокобезопасен: у каждого соединения свой экземпляр.
+ */
+public class RespEncoder {
+
+    public static final int LARGE_WRITE_THRESHOLD = 8 * 1024;
+
+    private final ByteBufferPool pool;
+    private final PooledOutputStream output = new PooledOutputStream();
+
+    public RespEncoder() {
+        this(ByteBufferPool.SHARED);
+    }
+
+    public RespEncoder(ByteBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Сериализует объект и записывает его в канал
+     */
+    public void write(RespObject object, GatheringByteChannel channel) throws IOException {
+        if (object instanceof RespFileRegion) {
+            writeRegion((RespFileRegion) object, channel);
+            return;
+        }
+        try {
+            ByteBuffer[] buffers = encode(object);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+        } finally {
+            output.reset();
+        }
+    }
+
+    /**
+     * Заголовок bulk строки пишется из кэша, содержимое передается из файла в канал без копирования в heap
+     */
+    private void writeRegion(RespFileRegion region, GatheringByteChannel channel) throws IOException {
+        writeFully(ByteBuffer.wrap(RespHeaders.bulkString(region.getLength())), channel);
+        region.transferContentTo(channel);
+        writeFully(ByteBuffer.wrap(RespObject.CRLF), channel);
+    }
+
+    private static void writeFully(ByteBuffer buffer, GatheringByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Сериализует объект и записывает его в стрим. Стрим не флашится
+     */
+    public void write(RespObject object, OutputStream os) throws IOException {
+        try {
+            for (ByteBuffer buffer : encode(object)) {
+                os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            }
+        } finally {
+            output.reset();
+        }
+    }
+
+    private ByteBuffer[] encode(RespObject object) throws IOException {
+        object.write(output);
+        return output.seal();
+    }
+
+    /**
+     * Стрим, собирающий записанные байты в последовательность буферов
+     */
+    private final class PooledOutputStream extends OutputStream {
+
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final List<ByteBuffer> pooled = new ArrayList<>();
+        private ByteBuffer current;
+
+        @Override
+        public void write(int b) {
+            ensureCurrent().put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (len >= LARGE_WRITE_THRESHOLD) {
+                finishCurrent();
+                chunks.add(ByteBuffer.wrap(b, off, len));
+                return;
+            }
+            while (len > 0) {
+                ByteBuffer buffer = ensureCurrent();
+                int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        ByteBuffer[] seal() {
+            finishCurrent();
+            return chunks.toArray(new ByteBuffer[0]);
+        }
+
+        void reset() {
+            for (ByteBuffer buffer : pooled) {
+                pool.release(buffer);
+            }
+            pooled.clear();
+            chunks.clear();
+            current = null;
+        }
+
+        private ByteBuffer ensureCurrent() {
+            if (current == null || !current.hasRemaining()) {
+                finishCurrent();
+                current = pool.acquire();
+                pooled.add(current);
+            }
+            return current;
+        }
+
+        private void finishCurrent() {
+            if (current != null && current.position() > 0) {
+                ByteBuffer filled = current.duplicate().flip();
+                chunks.add(filled);
+            }
+            current = null;
+        }
+    }
+}
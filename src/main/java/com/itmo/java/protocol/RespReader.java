@@ -4,25 +4,65 @@ import com.itmo.java.protocol.model.RespArray;
 import com.itmo.java.protocol.model.RespBulkString;
 import com.itmo.java.protocol.model.RespCommandId;
 import com.itmo.java.protocol.model.RespError;
+import com.itmo.java.protocol.model.RespFileRegion;
 import com.itmo.java.protocol.model.RespObject;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Блокирующее чтение RESP объектов из стрима.
+ * Данные читаются большими порциями в переиспользуемый буфер и разбираются {@link RespDecoder}
+ * <p>
+ * Bulk строки внутри массивов от заданного размера не собираются в памяти: по мере чтения из стрима они порциями
+ * записываются во временный файл и возвращаются как {@link RespFileRegion}. Поэтому память на одно соединение
+ * ограничена, каким бы большим ни было значение. Временные файлы удаляются при чтении следующего объекта
+ * и при закрытии ридера, так что прочитанный объект нужно обработать до следующего чтения.
+ */
 public class RespReader implements AutoCloseable {
 
     /**
-     * Специальные символы окончания элемента
+     * Порог, при котором bulk строки никогда не выгружаются в файл
      */
+    public static final int NO_SPOOLING = Integer.MAX_VALUE;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
     private static final byte CR = '\r';
     private static final byte LF = '\n';
 
-    private final PushbackInputStream pis;
+    private final InputStream is;
+    private final RespDecoder decoder = new RespDecoder();
+    private final int spoolThreshold;
+    private final Path spoolDirectory;
+    private final List<FileChannel> spooled = new ArrayList<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).flip();
 
     public RespReader(InputStream is) {
-        pis = new PushbackInputStream(is);
+        this(is, NO_SPOOLING);
+    }
+
+    /**
+     * @param spoolThreshold bulk строки от этого размера выгружаются во временные файлы в системной временной директории
+     */
+    public RespReader(InputStream is, int spoolThreshold) {
+        this(is, spoolThreshold, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param spoolThreshold bulk строки от этого размера выгружаются во временные файлы
+     * @param spoolDirectory директория для временных файлов
+     */
+    public RespReader(InputStream is, int spoolThreshold, Path spoolDirectory) {
+        this.is = is;
+        this.spoolThreshold = spoolThreshold;
+        this.spoolDirectory = spoolDirectory;
     }
 
     /**
@@ -44,13 +84,10 @@ public class RespReader implements AutoCloseable {
 
         switch (start) {
             case RespError.CODE:
-                return readError();
             case RespBulkString.CODE:
-                return readBulkString();
             case RespArray.CODE:
-                return readArray();
             case RespCommandId.CODE:
-                return readCommandId();
+                return readNext();
             case -1:
                 throw new EOFException("Stream finished");
             default:
@@ -66,7 +103,7 @@ public class RespReader implements AutoCloseable {
      */
     public RespError readError() throws IOException {
         checkEqualsWithObjectCode(RespError.CODE);
-        return new RespError(readUntilCRLF());
+        return (RespError) readNext();
     }
 
     /**
@@ -77,20 +114,7 @@ public class RespReader implements AutoCloseable {
      */
     public RespBulkString readBulkString() throws IOException {
         checkEqualsWithObjectCode(RespBulkString.CODE);
-
-        String data = new String(readUntilCRLF());
-        int size = Integer.parseInt(data);
-        if (size == RespBulkString.NULL_STRING_SIZE) {
-            return RespBulkString.NULL_STRING;
-        }
-
-        byte[] payload = pis.readNBytes(size);
-        byte[] restData = readUntilCRLF();
-        if (payload.length != size || restData.length != 0) {
-            throw new IOException("Wrong object in the stream");
-        }
-
-        return new RespBulkString(payload);
+        return (RespBulkString) readNext();
     }
 
     /**
@@ -101,16 +125,7 @@ public class RespReader implements AutoCloseable {
      */
     public RespArray readArray() throws IOException {
         checkEqualsWithObjectCode(RespArray.CODE);
-
-        List<RespObject> objects = new LinkedList<>();
-        String data = new String(readUntilCRLF());
-        int size = Integer.parseInt(data);
-
-        for (int i = 0; i < size; i++) {
-            objects.add(readObject());
-        }
-
-        return new RespArray(objects.toArray(new RespObject[0]));
+        return (RespArray) readNext();
     }
 
     /**
@@ -121,54 +136,193 @@ public class RespReader implements AutoCloseable {
      */
     public RespCommandId readCommandId() throws IOException {
         checkEqualsWithObjectCode(RespCommandId.CODE);
-        byte[] data = pis.readNBytes(4);
-        if (data.length != 4) {
-            throw new IOException("Wrong object in the stream");
-        }
-        ByteBuffer bb = ByteBuffer.wrap(data);
-        int id = bb.getInt();
-        byte[] restData = readUntilCRLF();
-        if (restData.length != 0) {
-            throw new IOException("Wrong object in the stream");
-        }
-        return new RespCommandId(id);
+        return (RespCommandId) readNext();
     }
 
 
     @Override
     public void close() throws IOException {
-        pis.close();
+        try {
+            releaseSpooled();
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Разбирает следующий объект. Если объект уже целиком в буфере, он разбирается сразу,
+     * иначе массивы и bulk строки дочитываются по частям
+     */
+    private RespObject readNext() throws IOException {
+        releaseSpooled();
+        RespObject object = decoder.decode(buffer);
+        if (object == null) {
+            decoder.reset();
+            object = readIncrementally(false);
+        }
+        if (!buffer.hasRemaining() && buffer.capacity() > INITIAL_BUFFER_SIZE) {
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).flip();
+        }
+        return object;
     }
 
-    private byte[] readUntilCRLF() throws IOException {
-        List<Byte> bytes = new LinkedList<>();
-        byte b1 = 0;
-        byte b2 = 0;
-        while (b1 != CR || b2 != LF) {
-            b1 = b2;
-            b2 = (byte) pis.read();
-            if (b2 == -1) {
+    /**
+     * @param inArray читается ли элемент массива. Выгружаются в файл только элементы массивов,
+     *                так что {@link #readBulkString()} всегда возвращает {@link RespBulkString}
+     */
+    private RespObject readIncrementally(boolean inArray) throws IOException {
+        byte code = getFirstByte();
+        switch (code) {
+            case RespArray.CODE: {
+                int size = readHeader();
+                if (size < 0) {
+                    throw new IOException("Wrong array size " + size);
+                }
+                RespObject[] objects = new RespObject[size];
+                for (int i = 0; i < size; i++) {
+                    objects[i] = readIncrementally(true);
+                }
+                return new RespArray(objects);
+            }
+            case RespBulkString.CODE: {
+                int size = readHeader();
+                if (size == RespBulkString.NULL_STRING_SIZE) {
+                    return RespBulkString.NULL_STRING;
+                }
+                if (size < 0) {
+                    throw new IOException("Wrong bulk string size " + size);
+                }
+                if (inArray && size >= spoolThreshold) {
+                    return spool(size);
+                }
+                require(size);
+                byte[] payload = new byte[size];
+                buffer.get(payload);
+                readCRLF();
+                return new RespBulkString(payload);
+            }
+            case -1:
+                throw new EOFException("Stream finished");
+            default: {
+                RespObject object = decoder.decode(buffer);
+                while (object == null) {
+                    if (!fill()) {
+                        throw new IOException("Wrong object in the stream");
+                    }
+                    object = decoder.decode(buffer);
+                }
+                return object;
+            }
+        }
+    }
+
+    private int readHeader() throws IOException {
+        while (decoder.headerLength(buffer) == RespDecoder.INCOMPLETE) {
+            if (!fill()) {
+                throw new IOException("Wrong object in the stream");
+            }
+        }
+        return decoder.readHeader(buffer);
+    }
+
+    /**
+     * Переписывает содержимое bulk строки из стрима во временный файл порциями размером с буфер
+     */
+    private RespFileRegion spool(int size) throws IOException {
+        Path path = Files.createTempFile(spoolDirectory, "kvs-", ".value");
+        FileChannel file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        spooled.add(file);
+
+        long remaining = size;
+        while (remaining > 0) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new EOFException("Stream finished");
+            }
+            int n = (int) Math.min(remaining, buffer.remaining());
+            ByteBuffer chunk = buffer.duplicate();
+            chunk.limit(chunk.position() + n);
+            while (chunk.hasRemaining()) {
+                file.write(chunk);
+            }
+            buffer.position(buffer.position() + n);
+            remaining -= n;
+        }
+        readCRLF();
+
+        return new RespFileRegion(file, 0, size);
+    }
+
+    private void readCRLF() throws IOException {
+        require(2);
+        if (buffer.get() != CR || buffer.get() != LF) {
+            throw new IOException("Wrong object in the stream");
+        }
+    }
+
+    /**
+     * Дочитывает стрим, пока в буфере не окажется хотя бы {@code bytes} байт
+     */
+    private void require(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (!fill()) {
                 throw new IOException("Wrong object in the stream");
             }
-            bytes.add(b2);
         }
-        byte[] data = new byte[bytes.size() - 2];
-        for (int i = 0; i < bytes.size() - 2; i++) {
-            data[i] = bytes.get(i);
+    }
+
+    /**
+     * Закрывает и тем самым удаляет временные файлы, созданные при чтении предыдущего объекта
+     */
+    private void releaseSpooled() throws IOException {
+        IOException failure = null;
+        for (FileChannel file : spooled) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        spooled.clear();
+        if (failure != null) {
+            throw failure;
         }
-        return data;
+    }
+
+    /**
+     * Дочитывает данные из стрима в конец буфера. Если буфер заполнен, увеличивает его
+     *
+     * @return {@code false}, если стрим закончился
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        int read = is.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read > 0) {
+            buffer.position(buffer.position() + read);
+        }
+        buffer.flip();
+        return read > 0;
     }
 
     private void checkEqualsWithObjectCode(byte code) throws IOException {
-        byte start = (byte) pis.read();
-        if (start != code) {
+        if (getFirstByte() != code) {
             throw new IOException("Wrong object in the stream");
         }
     }
 
+    /**
+     * Возвращает первый байт следующего объекта, не сдвигая позицию. -1, если стрим закончился
+     */
     private byte getFirstByte() throws IOException {
-        byte firstByte = (byte) pis.read();
-        pis.unread(firstByte);
-        return firstByte;
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position());
     }
-}
\ No newline at end of file
+}
@@ -4,25 +4,49 @@ import com.itmo.java.protocol.model.RespObject;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.GatheringByteChannel;
 
+/**
+ * Записывает RESP объекты в стрим или в канал. Объект сериализуется {@link RespEncoder} в буферы из пула
+ * и записывается целиком, а не множеством мелких записей
+ */
 public class RespWriter implements AutoCloseable {
 
     private final OutputStream os;
+    private final GatheringByteChannel channel;
+    private final RespEncoder encoder = new RespEncoder();
 
     public RespWriter(OutputStream os) {
         this.os = os;
+        this.channel = null;
+    }
+
+    /**
+     * Запись в канал: большие значения уходят в канал gathering записью без копирования
+     */
+    public RespWriter(GatheringByteChannel channel) {
+        this.os = null;
+        this.channel = channel;
     }
 
     /**
      * Записывает в output stream объект
      */
     public void write(RespObject object) throws IOException {
-        object.write(os);
+        if (channel != null) {
+            encoder.write(object, channel);
+            return;
+        }
+        encoder.write(object, os);
         os.flush();
     }
 
     @Override
     public void close() throws IOException {
-        os.close();
+        if (channel != null) {
+            channel.close();
+        } else {
+            os.close();
+        }
     }
 }
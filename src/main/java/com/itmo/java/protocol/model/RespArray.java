@@ -47,9 +47,7 @@ public class RespArray implements RespObject {
 
     @Override
     public void write(OutputStream os) throws IOException {
-        os.write(CODE);
-        os.write(String.valueOf(objects.length).getBytes());
-        os.write(CRLF);
+        os.write(RespHeaders.array(objects.length));
         for (RespObject i : objects) {
             i.write(os);
         }
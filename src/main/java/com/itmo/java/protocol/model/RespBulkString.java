@@ -44,16 +44,22 @@ public class RespBulkString implements RespObject {
         return new String(data);
     }
 
+    /**
+     * Возвращает хранимые байты без копирования
+     */
+    @Override
+    public byte[] asBytes() {
+        return data;
+    }
+
     @Override
     public void write(OutputStream os) throws IOException {
-        os.write(CODE);
         if (data == null) {
-            os.write(String.valueOf(NULL_STRING_SIZE).getBytes());
-        } else {
-            os.write(String.valueOf(data.length).getBytes());
-            os.write(CRLF);
-            os.write(data);
+            os.write(RespHeaders.NULL_BULK_STRING);
+            return;
         }
+        os.write(RespHeaders.bulkString(data.length));
+        os.write(data);
         os.write(CRLF);
     }
 }
@@ -34,6 +34,11 @@ public class RespError implements RespObject {
         return new String(message);
     }
 
+    @Override
+    public byte[] asBytes() {
+        return message;
+    }
+
     @Override
     public void write(OutputStream os) throws IOException {
         os.write(CODE);
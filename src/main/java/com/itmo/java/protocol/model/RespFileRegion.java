@@ -0,0 +1,105 @@
+package com.itmo.java.protocol.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Bulk строка, содержимое которой лежит в участке файла. На проводе не отличается от {@link RespBulkString}.
+ * <p>
+ * При записи в канал содержимое передается {@link FileChannel#transferTo} и не попадает в heap.
+ * При записи в стрим файл копируется порциями по {@link #COPY_CHUNK_SIZE} байт
+ */
+public class RespFileRegion implements RespObject {
+
+    public static final int COPY_CHUNK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final long position;
+    private final int length;
+
+    public RespFileRegion(FileChannel channel, long position, int length) {
+        this.channel = channel;
+        this.position = position;
+        this.length = length;
+    }
+
+    /**
+     * Ошибка ли это? Ответ - нет
+     *
+     * @return false
+     */
+    @Override
+    public boolean isError() {
+        return false;
+    }
+
+    /**
+     * Читает содержимое в память. Нужен только тем, кто разбирает ответ без сети
+     */
+    @Override
+    public String asString() {
+        return new String(asBytes());
+    }
+
+    @Override
+    public byte[] asBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("File ended before the region");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read file region", e);
+        }
+        return buffer.array();
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public void write(OutputStream os) throws IOException {
+        os.write(RespHeaders.bulkString(length));
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(length, COPY_CHUNK_SIZE));
+        long written = 0;
+        while (written < length) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), length - written));
+            int read = channel.read(buffer, position + written);
+            if (read < 0) {
+                throw new EOFException("File ended before the region");
+            }
+            os.write(buffer.array(), 0, read);
+            written += read;
+        }
+        os.write(CRLF);
+    }
+
+    /**
+     * Передает содержимое в канал напрямую из файла. Заголовок и CRLF пишет вызывающий
+     */
+    public void transferContentTo(WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long n = channel.transferTo(position + transferred, length - transferred, target);
+            if (n <= 0 && position + transferred >= channel.size()) {
+                throw new EOFException("File ended before the region");
+            }
+            transferred += n;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.itmo.java.protocol.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Заранее посчитанные заголовки RESP объектов ("$5\r\n", "*3\r\n") для часто встречающихся длин.
+ * Позволяет не создавать строку и массив байтов для каждого заголовка при сериализации
+ */
+public final class RespHeaders {
+
+    /**
+     * Заголовки для длин [0, CACHED_LENGTHS) посчитаны заранее
+     */
+    public static final int CACHED_LENGTHS = 1024;
+
+    /**
+     * Null bulk строка целиком: "$-1\r\n"
+     */
+    public static final byte[] NULL_BULK_STRING = header(RespBulkString.CODE, RespBulkString.NULL_STRING_SIZE);
+
+    private static final byte[][] BULK_STRING_HEADERS = new byte[CACHED_LENGTHS][];
+    private static final byte[][] ARRAY_HEADERS = new byte[CACHED_LENGTHS][];
+
+    static {
+        for (int i = 0; i < CACHED_LENGTHS; i++) {
+            BULK_STRING_HEADERS[i] = header(RespBulkString.CODE, i);
+            ARRAY_HEADERS[i] = header(RespArray.CODE, i);
+        }
+    }
+
+    private RespHeaders() {
+    }
+
+    /**
+     * Возвращает заголовок bulk строки заданной длины вместе с CRLF. Возвращаемый массив нельзя изменять
+     */
+    public static byte[] bulkString(int length) {
+        if (length >= 0 && length < CACHED_LENGTHS) {
+            return BULK_STRING_HEADERS[length];
+        }
+        return header(RespBulkString.CODE, length);
+    }
+
+    /**
+     * Возвращает заголовок массива заданной длины вместе с CRLF. Возвращаемый массив нельзя изменять
+     */
+    public static byte[] array(int length) {
+        if (length >= 0 && length < CACHED_LENGTHS) {
+            return ARRAY_HEADERS[length];
+        }
+        return header(RespArray.CODE, length);
+    }
+
+    private static byte[] header(byte code, int length) {
+        return ((char) code + String.valueOf(length) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
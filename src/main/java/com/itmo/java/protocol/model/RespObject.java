@@ -25,6 +25,15 @@ public interface RespObject {
      */
     String asString();
 
+    /**
+     * @return значение объекта в виде байтов (не в RESP, без специальных символов).
+     * Объекты, хранящие байты, возвращают их без копирования и без декодирования в строку. Массив нельзя изменять
+     */
+    default byte[] asBytes() {
+        String value = asString();
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Сериализует данный объект в RESP и записывает байты в переданный OutputStream.
      */
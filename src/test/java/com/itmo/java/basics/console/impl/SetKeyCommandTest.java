@@ -0,0 +1,98 @@
+package com.itmo.java.basics.console.impl;
+
+import com.itmo.java.basics.config.DatabaseConfig;
+import com.itmo.java.basics.console.DatabaseCommand;
+import com.itmo.java.basics.console.DatabaseCommandResult;
+import com.itmo.java.basics.console.ExecutionEnvironment;
+import com.itmo.java.basics.logic.Database;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.impl.DatabaseImpl;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Запись значения поверх хэша заменяет хэш, с опциями и без них
+ */
+public class SetKeyCommandTest {
+
+    private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutionEnvironment env;
+    private Database database;
+
+    @Before
+    public void createTable() throws Exception {
+        env = new ExecutionEnvironmentImpl(new DatabaseConfig(folder.getRoot().toString(), false));
+        database = DatabaseImpl.create("db", env.getWorkingPath());
+        env.addDatabase(database);
+        database.createTableIfNotExists("t");
+        execute(new HashSetKeyCommand(env, args("HSET", "hash", "field", "1")));
+    }
+
+    @After
+    public void closeDatabase() throws Exception {
+        database.close();
+    }
+
+    @Test
+    public void plainSetReplacesHash() throws Exception {
+        DatabaseCommandResult result = execute(new SetKeyCommand(env, args("SET_KEY", "hash", "value")));
+
+        assertNull(result.getPayLoad());
+        assertArrayEquals(VALUE, database.read("t", ObjectKey.of("hash")).orElseThrow());
+        assertFalse(new HashGetKeyCommand(env, args("HGET", "hash", "field")).execute().isSuccess());
+    }
+
+    @Test
+    public void setWithOptionsReplacesHash() throws Exception {
+        DatabaseCommandResult result = execute(new SetKeyCommand(env, args("SET_KEY", "hash", "value", "XX")));
+
+        assertEquals("OK", result.getPayLoad());
+        assertArrayEquals(VALUE, database.read("t", ObjectKey.of("hash")).orElseThrow());
+    }
+
+    private static DatabaseCommandResult execute(DatabaseCommand command) {
+        DatabaseCommandResult result = command.execute();
+        assertTrue(result.getPayLoad(), result.isSuccess());
+        return result;
+    }
+
+    /**
+     * Аргументы команды над ключом таблицы "t" базы "db"
+     */
+    private static List<RespObject> args(String command, String key, String... rest) {
+        List<RespObject> args = new ArrayList<>();
+        args.add(new RespCommandId(1));
+        args.add(bulk(command));
+        args.add(bulk("db"));
+        args.add(bulk("t"));
+        args.add(bulk(key));
+        for (String arg : rest) {
+            args.add(bulk(arg));
+        }
+        return args;
+    }
+
+    private static RespBulkString bulk(String value) {
+        return new RespBulkString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package com.itmo.java.basics.initialization.impl;
+
+import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.impl.GroupMarkerDatabaseRecord;
+import com.itmo.java.basics.logic.impl.IndexSnapshot;
+import com.itmo.java.basics.logic.impl.SegmentManifest;
+import com.itmo.java.basics.logic.impl.TableImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Незавершенная группа и недописанная запись в конце сегмента отбрасываются при инициализации,
+ * а файл обрезается до последней целой записи
+ */
+public class SegmentInitializerTest {
+
+    private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+    private static final ObjectKey SINGLE = ObjectKey.of("single");
+    private static final ObjectKey FIRST = ObjectKey.of("first");
+    private static final ObjectKey SECOND = ObjectKey.of("second");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path tablePath;
+    private Path segmentPath;
+    /**
+     * Размер сегмента до группы
+     */
+    private long sizeBeforeGroup;
+
+    @Before
+    public void writeTable() throws Exception {
+        Table table = TableImpl.create("t", folder.getRoot().toPath(), new TableIndex());
+        tablePath = folder.getRoot().toPath().resolve("t");
+        segmentPath = tablePath.resolve(SegmentManifest.load(tablePath).getSegmentNames().get(0));
+
+        table.write(SINGLE, VALUE);
+        sizeBeforeGroup = Files.size(segmentPath);
+        Map<ObjectKey, byte[]> group = new LinkedHashMap<>();
+        group.put(FIRST, VALUE);
+        group.put(SECOND, VALUE);
+        table.writeAll(group);
+        table.close();
+
+        // сегменты должны дочитываться целиком, а не восстанавливаться из снимка
+        Files.delete(tablePath.resolve(IndexSnapshot.FILE_NAME));
+    }
+
+    @Test
+    public void groupWithoutCommitIsDiscarded() throws Exception {
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - GroupMarkerDatabaseRecord.COMMIT_RECORD.size());
+        }
+
+        Table table = initializeTable();
+        try {
+            assertArrayEquals(VALUE, table.read(SINGLE).orElseThrow());
+            assertFalse(table.contains(FIRST));
+            assertFalse(table.contains(SECOND));
+        } finally {
+            table.close();
+        }
+        assertEquals(sizeBeforeGroup, Files.size(segmentPath));
+    }
+
+    @Test
+    public void tornRecordIsDiscarded() throws Exception {
+        long sizeBeforeTail = Files.size(segmentPath);
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(6).putInt(VALUE.length).put(VALUE, 0, 2).flip());
+        }
+
+        Table table = initializeTable();
+        try {
+            assertArrayEquals(VALUE, table.read(FIRST).orElseThrow());
+            assertArrayEquals(VALUE, table.read(SECOND).orElseThrow());
+        } finally {
+            table.close();
+        }
+        assertEquals(sizeBeforeTail, Files.size(segmentPath));
+    }
+
+    @Test
+    public void writesAfterTruncationFollowLastWholeRecord() throws Exception {
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        ObjectKey after = ObjectKey.of("after");
+        Table table = initializeTable();
+        table.write(after, VALUE);
+        table.close();
+        Files.delete(tablePath.resolve(IndexSnapshot.FILE_NAME));
+
+        table = initializeTable();
+        try {
+            assertArrayEquals(VALUE, table.read(SINGLE).orElseThrow());
+            assertArrayEquals(VALUE, table.read(after).orElseThrow());
+            assertFalse(table.contains(FIRST));
+        } finally {
+            table.close();
+        }
+    }
+
+    private Table initializeTable() throws Exception {
+        return new TableInitializer(new SegmentInitializer())
+                .initializeTable(new TableInitializationContextImpl("t", folder.getRoot().toPath(), new TableIndex()))
+                .orElseThrow();
+    }
+}
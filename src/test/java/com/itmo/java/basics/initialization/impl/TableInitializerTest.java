@@ -0,0 +1,187 @@
+package com.itmo.java.basics.initialization.impl;
+
+import com.itmo.java.basics.exceptions.DatabaseException;
+import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
+import com.itmo.java.basics.logic.Table;
+import com.itmo.java.basics.logic.impl.GroupMarkerDatabaseRecord;
+import com.itmo.java.basics.logic.impl.IndexSnapshot;
+import com.itmo.java.basics.logic.impl.PartitionedTable;
+import com.itmo.java.basics.logic.impl.SegmentManifest;
+import com.itmo.java.basics.logic.impl.TableImpl;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Таблица, открытая по снимку индекса, совпадает с записанной, в том числе после записей поверх устаревшего снимка.
+ * Пакет не может оказаться записанным частично в разные партиции
+ */
+public class TableInitializerTest {
+
+    private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UPDATED = "updated".getBytes(StandardCharsets.UTF_8);
+    private static final int KEYS = 40;
+    private static final ObjectKey EXPIRING = ObjectKey.of("expiring");
+    private static final ObjectKey HASH = ObjectKey.of("hash");
+    private static final ObjectKey FIELD_A = ObjectKey.of("a");
+    private static final ObjectKey FIELD_B = ObjectKey.of("b");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void tableIsRestoredFromSnapshot() throws Exception {
+        writeTable();
+        assertTrue(Files.exists(folder.getRoot().toPath().resolve("t").resolve(IndexSnapshot.FILE_NAME)));
+
+        Table table = initializeTable();
+        try {
+            verify(table);
+        } finally {
+            table.close();
+        }
+    }
+
+    @Test
+    public void writesAfterStaleSnapshotAreReplayed() throws Exception {
+        writeTable();
+
+        // таблица не закрывается: снимок остается от прошлого запуска
+        Table stale = initializeTable();
+        stale.write(ObjectKey.of("key0"), UPDATED);
+        stale.delete(ObjectKey.of("key1"));
+        stale.write(ObjectKey.of("extra"), VALUE);
+        stale.updateHash(HASH, HashDelta.set(FIELD_A, UPDATED));
+
+        Table table = initializeTable();
+        try {
+            assertArrayEquals(UPDATED, table.read(ObjectKey.of("key0")).orElseThrow());
+            assertFalse(table.contains(ObjectKey.of("key1")));
+            assertArrayEquals(VALUE, table.read(ObjectKey.of("extra")).orElseThrow());
+            Map<ObjectKey, byte[]> fields = table.readHash(HASH).orElseThrow();
+            assertArrayEquals(UPDATED, fields.get(FIELD_A));
+            assertArrayEquals(VALUE, fields.get(FIELD_B));
+        } finally {
+            table.close();
+        }
+    }
+
+    @Test
+    public void batchOverPartitionsIsRejectedWithoutWrites() throws Exception {
+        Table table = PartitionedTable.create("p", folder.getRoot().toPath(), 2);
+        try {
+            table.writeBatch(keysOverPartitions());
+            fail("Batch over two partitions must be rejected");
+        } catch (DatabaseException expected) {
+            // пакет не может быть атомарным, поэтому не пишется ни в одну партицию
+        }
+        table.close();
+
+        Table reopened = initializeTable("p");
+        try {
+            for (ObjectKey key : keysOverPartitions().keySet()) {
+                assertFalse(reopened.contains(key));
+            }
+        } finally {
+            reopened.close();
+        }
+    }
+
+    /**
+     * Запись без гарантии атомарности ({@link Table#writeAll(Map)}) в партиционированную таблицу пишет группу
+     * в каждую партицию. Недописанная группа одной партиции отбрасывается, группы других партиций остаются
+     */
+    @Test
+    public void tornPartitionGroupIsDiscardedOnlyInItsPartition() throws Exception {
+        Table table = PartitionedTable.create("p", folder.getRoot().toPath(), 2);
+        Map<ObjectKey, byte[]> values = keysOverPartitions();
+        table.writeAll(values);
+        table.close();
+
+        Path partition = folder.getRoot().toPath().resolve("p").resolve(PartitionedTable.partitionName(0));
+        Files.delete(partition.resolve(IndexSnapshot.FILE_NAME));
+        Path segment = partition.resolve(SegmentManifest.load(partition).getSegmentNames().get(0));
+        String content = new String(Files.readAllBytes(segment), StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - GroupMarkerDatabaseRecord.COMMIT_RECORD.size());
+        }
+
+        Table reopened = initializeTable("p");
+        try {
+            int torn = 0;
+            for (ObjectKey key : values.keySet()) {
+                boolean tornPartition = content.contains(new String(key.getBytes(), StandardCharsets.UTF_8));
+                assertEquals(!tornPartition, reopened.contains(key));
+                torn += tornPartition ? 1 : 0;
+            }
+            assertTrue(torn > 0 && torn < values.size());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    /**
+     * Ключи, которых заведомо хватает, чтобы попасть в обе партиции
+     */
+    private static Map<ObjectKey, byte[]> keysOverPartitions() {
+        Map<ObjectKey, byte[]> values = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            values.put(ObjectKey.of(String.format("batch-%02d", i)), VALUE);
+        }
+        return values;
+    }
+
+    /**
+     * Пишет таблицу из нескольких сегментов со сроком жизни и хэшем и закрывает ее, записывая снимок
+     */
+    private void writeTable() throws Exception {
+        Table table = TableImpl.create("t", folder.getRoot().toPath(), new TableIndex(),
+                new RolloverPolicy(256, RolloverPolicy.NO_MAX_AGE));
+        for (int i = 0; i < KEYS; i++) {
+            table.write(ObjectKey.of("key" + i), VALUE);
+        }
+        table.write(EXPIRING, VALUE, System.currentTimeMillis() + 3_600_000);
+        table.updateHash(HASH, HashDelta.set(FIELD_A, VALUE));
+        table.updateHash(HASH, HashDelta.set(FIELD_B, VALUE));
+        table.close();
+    }
+
+    private static void verify(Table table) throws Exception {
+        for (int i = 0; i < KEYS; i++) {
+            assertArrayEquals(VALUE, table.read(ObjectKey.of("key" + i)).orElseThrow());
+        }
+        assertArrayEquals(VALUE, table.read(EXPIRING).orElseThrow());
+        Map<ObjectKey, byte[]> fields = table.readHash(HASH).orElseThrow();
+        assertEquals(2, fields.size());
+        assertArrayEquals(VALUE, fields.get(FIELD_A));
+        assertArrayEquals(VALUE, fields.get(FIELD_B));
+    }
+
+    private Table initializeTable() throws Exception {
+        return initializeTable("t");
+    }
+
+    private Table initializeTable(String tableName) throws Exception {
+        return new TableInitializer(new SegmentInitializer())
+                .initializeTable(new TableInitializationContextImpl(tableName, folder.getRoot().toPath(),
+                        new TableIndex()))
+                .orElseThrow();
+    }
+}
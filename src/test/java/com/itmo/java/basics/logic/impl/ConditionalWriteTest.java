@@ -0,0 +1,114 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.logic.DatabaseRecord;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.Table;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Условная запись и подсчет удаленных ключей атомарны относительно пакетных записей таблицы
+ * (BATCH и MSET идут в обход линии исполнения ключа)
+ */
+public class ConditionalWriteTest {
+
+    private static final int ROUNDS = 300;
+    private static final byte[] BATCH_VALUE = "batch".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NX_VALUE = "nx".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Table table;
+
+    @Before
+    public void createTable() throws Exception {
+        table = TableImpl.create("t", folder.getRoot().toPath(), new TableIndex());
+    }
+
+    @After
+    public void closeTable() throws Exception {
+        table.close();
+    }
+
+    /**
+     * Если запись "только если ключа нет" удалась, пакет записан после нее и его значение последнее
+     */
+    @Test
+    public void conditionalWriteIsNotSplitByBatch() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                ObjectKey key = ObjectKey.of("key" + round);
+                Map<ObjectKey, byte[]> batch = new LinkedHashMap<>();
+                batch.put(key, BATCH_VALUE);
+                batch.put(ObjectKey.of("other" + round), BATCH_VALUE);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> batchWrite = pool.submit(() -> {
+                    start.await();
+                    table.writeAll(batch);
+                    return null;
+                });
+                Future<Boolean> conditionalWrite = pool.submit(() -> {
+                    start.await();
+                    return table.writeIf(key, NX_VALUE, DatabaseRecord.NO_EXPIRATION, false);
+                });
+                start.countDown();
+                batchWrite.get();
+
+                if (conditionalWrite.get()) {
+                    assertArrayEquals(BATCH_VALUE, table.read(key).orElseThrow());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void writeIfChecksPresence() throws Exception {
+        ObjectKey key = ObjectKey.of("key");
+
+        assertFalse(table.writeIf(key, NX_VALUE, DatabaseRecord.NO_EXPIRATION, true));
+        assertFalse(table.contains(key));
+
+        assertTrue(table.writeIf(key, NX_VALUE, DatabaseRecord.NO_EXPIRATION, false));
+        assertFalse(table.writeIf(key, BATCH_VALUE, DatabaseRecord.NO_EXPIRATION, false));
+        assertArrayEquals(NX_VALUE, table.read(key).orElseThrow());
+
+        assertTrue(table.writeIf(key, BATCH_VALUE, DatabaseRecord.NO_EXPIRATION, true));
+        assertArrayEquals(BATCH_VALUE, table.read(key).orElseThrow());
+    }
+
+    @Test
+    public void deleteAllCountsOnlyExistingKeys() throws Exception {
+        ObjectKey first = ObjectKey.of("first");
+        ObjectKey second = ObjectKey.of("second");
+        table.write(first, BATCH_VALUE);
+        table.write(second, BATCH_VALUE);
+
+        assertEquals(2, table.deleteAll(Arrays.asList(first, second, ObjectKey.of("missing"), first)));
+        assertFalse(table.contains(first));
+        assertFalse(table.contains(second));
+        assertEquals(0, table.deleteAll(Arrays.asList(first, second)));
+    }
+}
@@ -0,0 +1,166 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.index.SegmentOffsetInfo;
+import com.itmo.java.basics.index.impl.HashOffsetInfo;
+import com.itmo.java.basics.index.impl.TableIndex;
+import com.itmo.java.basics.logic.HashDelta;
+import com.itmo.java.basics.logic.ObjectKey;
+import com.itmo.java.basics.logic.RolloverPolicy;
+import com.itmo.java.basics.logic.Table;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Снимок индекса принимается, только если подходит к сегментам таблицы, и сохраняет сроки жизни и цепочки хэшей
+ */
+public class IndexSnapshotTest {
+
+    private static final byte[] VALUE = "value-of-twenty-byte".getBytes(StandardCharsets.UTF_8);
+    private static final int KEYS = 40;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshotCoversClosedTable() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        List<String> segmentNames = segmentNames(tablePath);
+
+        var snapshot = IndexSnapshot.load(tablePath, segmentNames).orElseThrow();
+        assertEquals(segmentNames.size(), snapshot.getSegmentCount());
+        int keys = 0;
+        for (int i = 0; i < snapshot.getSegmentCount(); i++) {
+            keys += snapshot.getEntries(i).size();
+        }
+        assertEquals(KEYS, keys);
+    }
+
+    @Test
+    public void writesAfterSnapshotToLastSegmentAreAllowed() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        List<String> segmentNames = segmentNames(tablePath);
+        append(tablePath.resolve(segmentNames.get(segmentNames.size() - 1)));
+
+        assertTrue(IndexSnapshot.load(tablePath, segmentNames).isPresent());
+    }
+
+    @Test
+    public void changedSegmentsRejectSnapshot() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        List<String> segmentNames = segmentNames(tablePath);
+        assertTrue(segmentNames.size() > 2);
+
+        append(tablePath.resolve(segmentNames.get(0)));
+        assertFalse(IndexSnapshot.load(tablePath, segmentNames).isPresent());
+    }
+
+    @Test
+    public void shrunkLastSegmentRejectsSnapshot() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        List<String> segmentNames = segmentNames(tablePath);
+        // последний сегмент пуст, поэтому обрезается предпоследний, а последний удаляется из списка
+        String last = segmentNames.get(segmentNames.size() - 2);
+        try (FileChannel channel = FileChannel.open(tablePath.resolve(last), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        assertFalse(IndexSnapshot.load(tablePath, segmentNames.subList(0, segmentNames.size() - 1)).isPresent());
+    }
+
+    @Test
+    public void mismatchedSegmentListRejectsSnapshot() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        List<String> segmentNames = segmentNames(tablePath);
+
+        List<String> renamed = new ArrayList<>(segmentNames);
+        renamed.set(0, "other");
+        assertFalse(IndexSnapshot.load(tablePath, renamed).isPresent());
+        assertFalse(IndexSnapshot.load(tablePath, segmentNames.subList(1, segmentNames.size())).isPresent());
+    }
+
+    @Test
+    public void corruptedSnapshotIsRejected() throws Exception {
+        Path tablePath = writeSegmentedTable();
+        Path snapshotPath = tablePath.resolve(IndexSnapshot.FILE_NAME);
+        byte[] content = Files.readAllBytes(snapshotPath);
+        content[content.length / 2] ^= 0x5a;
+        Files.write(snapshotPath, content);
+
+        assertFalse(IndexSnapshot.load(tablePath, segmentNames(tablePath)).isPresent());
+    }
+
+    @Test
+    public void expirationsAndHashChainsAreKept() throws Exception {
+        Table table = TableImpl.create("t", folder.getRoot().toPath(), new TableIndex());
+        ObjectKey longLived = ObjectKey.of("long");
+        ObjectKey shortLived = ObjectKey.of("short");
+        ObjectKey hash = ObjectKey.of("hash");
+        long expiresAt = System.currentTimeMillis() + 3_600_000;
+
+        table.write(longLived, VALUE, expiresAt);
+        table.write(shortLived, VALUE, System.currentTimeMillis() + 100);
+        table.updateHash(hash, HashDelta.set(ObjectKey.of("a"), VALUE));
+        table.updateHash(hash, HashDelta.set(ObjectKey.of("b"), VALUE));
+        table.updateHash(hash, HashDelta.remove(ObjectKey.of("a")));
+        table.close();
+        Thread.sleep(200);
+
+        Path tablePath = folder.getRoot().toPath().resolve("t");
+        var snapshot = IndexSnapshot.load(tablePath, segmentNames(tablePath)).orElseThrow();
+
+        assertEquals(expiresAt, entry(snapshot, longLived).orElseThrow().getExpiresAt());
+        assertFalse(entry(snapshot, shortLived).isPresent());
+        SegmentOffsetInfo hashInfo = entry(snapshot, hash).orElseThrow();
+        assertTrue(hashInfo instanceof HashOffsetInfo);
+        // цепочка из трех изменений: два перед последним
+        assertEquals(2, ((HashOffsetInfo) hashInfo).getDepth());
+    }
+
+    /**
+     * Пишет таблицу из нескольких сегментов и закрывает ее, записывая снимок
+     */
+    private Path writeSegmentedTable() throws Exception {
+        Table table = TableImpl.create("t", folder.getRoot().toPath(), new TableIndex(),
+                new RolloverPolicy(256, RolloverPolicy.NO_MAX_AGE));
+        for (int i = 0; i < KEYS; i++) {
+            table.write(ObjectKey.of("key" + i), VALUE);
+        }
+        table.close();
+        return folder.getRoot().toPath().resolve("t");
+    }
+
+    private static List<String> segmentNames(Path tablePath) throws Exception {
+        return SegmentManifest.load(tablePath).getSegmentNames();
+    }
+
+    private static void append(Path segmentPath) throws Exception {
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(VALUE));
+        }
+    }
+
+    private static Optional<SegmentOffsetInfo> entry(IndexSnapshot snapshot, ObjectKey key) {
+        for (int i = 0; i < snapshot.getSegmentCount(); i++) {
+            SegmentOffsetInfo info = snapshot.getEntries(i).get(key);
+            if (info != null) {
+                return Optional.of(info);
+            }
+        }
+        return Optional.empty();
+    }
+}
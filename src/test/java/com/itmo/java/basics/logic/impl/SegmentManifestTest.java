@@ -0,0 +1,85 @@
+package com.itmo.java.basics.logic.impl;
+
+import com.itmo.java.basics.logic.RolloverPolicy;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Каталог сегментов отбрасывает недописанное событие в конце журнала и не выдает одно имя дважды
+ */
+public class SegmentManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path tablePath;
+    private Path manifestPath;
+
+    @Before
+    public void createDirectory() {
+        tablePath = folder.getRoot().toPath();
+        manifestPath = tablePath.resolve(SegmentManifest.FILE_NAME);
+    }
+
+    @Test
+    public void tornEventIsDropped() throws Exception {
+        var manifest = SegmentManifest.create(tablePath, RolloverPolicy.DEFAULT);
+        String first = addSegment(manifest);
+        String second = addSegment(manifest);
+        long validSize = Files.size(manifestPath);
+
+        // тип и половина номера события добавления
+        try (FileChannel channel = FileChannel.open(manifestPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 0, 0, 0}));
+        }
+
+        var loaded = SegmentManifest.load(tablePath);
+        assertEquals(Arrays.asList(first, second), loaded.getSegmentNames());
+        assertEquals(validSize, Files.size(manifestPath));
+
+        String third = addSegment(loaded);
+        assertTrue(third.compareTo(second) > 0);
+        assertEquals(Arrays.asList(first, second, third), SegmentManifest.load(tablePath).getSegmentNames());
+    }
+
+    @Test
+    public void removedAndMissingSegmentsAreSkipped() throws Exception {
+        var manifest = SegmentManifest.create(tablePath, RolloverPolicy.DEFAULT);
+        String removed = addSegment(manifest);
+        manifest.removeSegment(removed);
+        Files.delete(tablePath.resolve(removed));
+        // добавление записано, а файл не создан
+        manifest.addSegment("t");
+        String kept = addSegment(manifest);
+
+        assertEquals(Collections.singletonList(kept), SegmentManifest.load(tablePath).getSegmentNames());
+    }
+
+    @Test
+    public void policyIsRestored() throws Exception {
+        SegmentManifest.create(tablePath, new RolloverPolicy(4_096, 60_000));
+
+        var policy = SegmentManifest.load(tablePath).getPolicy();
+        assertEquals(4_096, policy.getSegmentSize());
+        assertEquals(60_000, policy.getMaxAgeMillis());
+    }
+
+    private String addSegment(SegmentManifest manifest) throws Exception {
+        String name = manifest.addSegment("t");
+        Files.createFile(tablePath.resolve(name));
+        return name;
+    }
+}
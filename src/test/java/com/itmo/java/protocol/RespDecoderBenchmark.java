@@ -0,0 +1,94 @@
+package com.itmo.java.protocol;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Сравнивает скорость разбора потока команд SET_KEY потоковым {@link RespReader}
+ * и {@link RespDecoder} напрямую из буфера. Корректность разбора проверяет {@link RespDecoderTest}.
+ * <p>
+ * Запуск: {@code java -cp target/classes:target/test-classes com.itmo.java.protocol.RespDecoderBenchmark [commands] [valueSize]}
+ */
+public class RespDecoderBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int valueSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        byte[] stream = encodeCommands(commands, valueSize);
+
+        System.out.printf("%d commands, %d bytes value, %d bytes total%n", commands, valueSize, stream.length);
+        report("RespReader", commands, measure(() -> decodeWithRespReader(stream, commands)));
+        report("RespDecoder", commands, measure(() -> decodeWithDecoder(stream, commands)));
+    }
+
+    private static byte[] encodeCommands(int commands, int valueSize) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] value = new byte[valueSize];
+        for (int i = 0; i < commands; i++) {
+            new RespArray(
+                    new RespCommandId(i),
+                    new RespBulkString("SET_KEY".getBytes()),
+                    new RespBulkString("db".getBytes()),
+                    new RespBulkString("table".getBytes()),
+                    new RespBulkString(("key" + i).getBytes()),
+                    new RespBulkString(value)
+            ).write(os);
+        }
+        return os.toByteArray();
+    }
+
+    private static int decodeWithRespReader(byte[] stream, int commands) throws IOException {
+        RespReader reader = new RespReader(new ByteArrayInputStream(stream));
+        int decoded = 0;
+        for (int i = 0; i < commands; i++) {
+            decoded += reader.readArray().getObjects().size();
+        }
+        return decoded;
+    }
+
+    private static int decodeWithDecoder(byte[] stream, int commands) throws IOException {
+        RespDecoder decoder = new RespDecoder();
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        int decoded = 0;
+        for (int i = 0; i < commands; i++) {
+            decoded += ((RespArray) decoder.decode(buffer)).getObjects().size();
+        }
+        return decoded;
+    }
+
+    private static long measure(Decoding decoding) throws IOException {
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            blackhole += decoding.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            blackhole += decoding.run();
+        }
+        long elapsed = (System.nanoTime() - start) / MEASURED_ROUNDS;
+        if (blackhole == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    private static void report(String name, int commands, long nanosPerRound) {
+        System.out.printf("%-20s %8.1f ms/round %12.0f commands/s%n",
+                name, nanosPerRound / 1e6, commands / (nanosPerRound / 1e9));
+    }
+
+    @FunctionalInterface
+    private interface Decoding {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,228 @@
+package com.itmo.java.protocol;
+
+import com.itmo.java.protocol.model.RespArray;
+import com.itmo.java.protocol.model.RespBulkString;
+import com.itmo.java.protocol.model.RespCommandId;
+import com.itmo.java.protocol.model.RespError;
+import com.itmo.java.protocol.model.RespObject;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Разбор RESP из буфера: неполные данные, продолжение просмотра после дочитывания и некорректные заголовки
+ */
+public class RespDecoderTest {
+
+    private static final RespObject COMMAND = new RespArray(
+            new RespCommandId(42),
+            new RespBulkString(bytes("SET_KEY")),
+            new RespArray(
+                    new RespBulkString(bytes("nested")),
+                    RespBulkString.NULL_STRING,
+                    new RespArray(new RespError(bytes("deep error"))),
+                    new RespArray()
+            ),
+            new RespBulkString(new byte[0]),
+            new RespBulkString(bytes("value with \r\n inside"))
+    );
+
+    @Test
+    public void nestedArraysAreDecoded() throws Exception {
+        byte[] encoded = encode(COMMAND);
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+
+        RespObject decoded = new RespDecoder().decode(buffer);
+
+        assertArrayEquals(encoded, encode(decoded));
+        assertEquals(encoded.length, buffer.position());
+        List<RespObject> objects = ((RespArray) decoded).getObjects();
+        assertEquals("42", objects.get(0).asString());
+        List<RespObject> nested = ((RespArray) objects.get(2)).getObjects();
+        assertNull(nested.get(1).asBytes());
+        assertTrue(((RespArray) nested.get(2)).getObjects().get(0).isError());
+        assertEquals(0, ((RespArray) nested.get(3)).getObjects().size());
+    }
+
+    /**
+     * Каждый префикс объекта - неполный объект, причем новый декодер для него не нужен
+     */
+    @Test
+    public void frameSplitAtEveryByteIsIncomplete() throws Exception {
+        byte[] encoded = encode(COMMAND);
+        for (int split = 0; split < encoded.length; split++) {
+            RespDecoder decoder = new RespDecoder();
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            buffer.limit(split);
+
+            assertEquals("split at " + split, RespDecoder.INCOMPLETE, decoder.frameLength(buffer));
+            assertNull("split at " + split, decoder.decode(buffer));
+            assertEquals(0, buffer.position());
+
+            buffer.limit(encoded.length);
+            assertEquals("split at " + split, encoded.length, decoder.frameLength(buffer));
+            assertArrayEquals(encoded, encode(decoder.decode(buffer)));
+        }
+    }
+
+    /**
+     * Объект приходит по байту: просмотр продолжается с места, где остановился, и находит тот же конец
+     */
+    @Test
+    public void frameScanResumesByteByByte() throws Exception {
+        byte[] encoded = encode(COMMAND);
+        byte[] stream = new byte[encoded.length * 2];
+        System.arraycopy(encoded, 0, stream, 0, encoded.length);
+        System.arraycopy(encoded, 0, stream, encoded.length, encoded.length);
+
+        RespDecoder decoder = new RespDecoder();
+        ByteBuffer buffer = ByteBuffer.wrap(stream);
+        for (int frame = 0; frame < 2; frame++) {
+            int start = buffer.position();
+            for (int limit = start; limit < start + encoded.length; limit++) {
+                buffer.limit(limit);
+                assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer));
+            }
+            buffer.limit(start + encoded.length);
+            assertEquals(encoded.length, decoder.frameLength(buffer));
+            assertArrayEquals(encoded, encode(decoder.decode(buffer)));
+            buffer.limit(stream.length);
+        }
+    }
+
+    @Test
+    public void frameSplitInsideHeaderIsIncomplete() throws Exception {
+        RespDecoder decoder = new RespDecoder();
+
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("*1")));
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("*1\r")));
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("*1\r\n$12")));
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("*1\r\n$12\r")));
+        assertEquals(RespDecoder.INCOMPLETE, decoder.headerLength(buffer("$12\r")));
+        assertEquals(5, decoder.headerLength(buffer("$12\r\nhello")));
+    }
+
+    @Test
+    public void headerIsReadWithoutContent() throws Exception {
+        RespDecoder decoder = new RespDecoder();
+        ByteBuffer buffer = buffer("*3\r\n$5\r\nhello");
+
+        assertEquals(3, decoder.readHeader(buffer));
+        assertEquals(4, buffer.position());
+        assertEquals(5, decoder.readHeader(buffer));
+        assertEquals(8, buffer.position());
+    }
+
+    @Test
+    public void bulkSliceIsNotCopied() throws Exception {
+        RespDecoder decoder = new RespDecoder();
+        ByteBuffer buffer = buffer("$5\r\nhello\r\n$-1\r\n");
+
+        ByteBuffer slice = decoder.decodeBulkSlice(buffer);
+        assertEquals("hello", StandardCharsets.UTF_8.decode(slice).toString());
+        assertSame(RespDecoder.NULL_BULK_SLICE, decoder.decodeBulkSlice(buffer));
+        assertEquals(buffer.limit(), buffer.position());
+    }
+
+    @Test
+    public void nullBulkStringIsDecoded() throws Exception {
+        RespObject decoded = new RespDecoder().decode(buffer("$-1\r\n"));
+
+        assertNull(decoded.asBytes());
+    }
+
+    @Test
+    public void negativeLengthsAreRejected() {
+        assertMalformed("$-2\r\n");
+        assertMalformed("*-1\r\n");
+        assertMalformed("*1\r\n$-5\r\nabc\r\n");
+    }
+
+    @Test
+    public void oversizedLengthsAreRejected() {
+        assertMalformed("$2147483648\r\n");
+        assertMalformed("*99999999999\r\n");
+        assertMalformed("*1\r\n$2147483648\r\n");
+    }
+
+    /**
+     * Длина, которой поместится в int, но которой еще нет в буфере, - неполный объект, а не ошибка
+     */
+    @Test
+    public void lengthBeyondBufferIsIncomplete() throws Exception {
+        RespDecoder decoder = new RespDecoder();
+
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("$2147483647\r\nabc")));
+        assertEquals(RespDecoder.INCOMPLETE, decoder.frameLength(buffer("*2147483647\r\n$1\r\na\r\n")));
+    }
+
+    @Test
+    public void mismatchedLineEndsAreRejected() {
+        assertMalformed("$3\rXabc\r\n");
+        assertMalformed("$3\r\nabcXY");
+        assertMalformed("$3\r\nabc\n\r");
+        assertMalformed("*1\n$1\r\na\r\n");
+        assertMalformed("-error\rX");
+        assertMalformed("!\u0000\u0000\u0000\u0001\n\r");
+    }
+
+    @Test
+    public void malformedHeadersAreRejected() {
+        assertMalformed("$\r\n");
+        assertMalformed("$-\r\n");
+        assertMalformed("$1a\r\na\r\n");
+        assertMalformed("+OK\r\n");
+    }
+
+    /**
+     * После ошибки декодер забывает недочитанный объект и разбирает следующий буфер с начала
+     */
+    @Test
+    public void decoderIsReusableAfterError() throws Exception {
+        RespDecoder decoder = new RespDecoder();
+        ByteBuffer broken = buffer("*2\r\n$1\r\na\r\n$1\r\nbXY");
+        try {
+            decoder.frameLength(broken);
+            fail("Malformed frame must be rejected");
+        } catch (IOException expected) {
+            // ожидаемо
+        }
+
+        byte[] encoded = encode(COMMAND);
+        assertArrayEquals(encoded, encode(decoder.decode(ByteBuffer.wrap(encoded))));
+    }
+
+    private static void assertMalformed(String content) {
+        try {
+            new RespDecoder().decode(buffer(content));
+            fail("Malformed RESP must be rejected: " + content);
+        } catch (IOException expected) {
+            // ожидаемо
+        }
+    }
+
+    private static ByteBuffer buffer(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(RespObject object) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        object.write(os);
+        return os.toByteArray();
+    }
+}